@@ -1,13 +1,15 @@
 package TeamMate;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 public class AppLogger {
 
     // Stores recent logs (newest first)
-    private static final LinkedList<String> LOGS = new LinkedList<>();
+    private static final ArrayDeque<String> LOGS = new ArrayDeque<>();
 
     // Maximum number of logs to keep
     private static final int MAX_LOGS = 1000;
@@ -16,16 +18,37 @@ public class AppLogger {
     private static final DateTimeFormatter TF =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    // Formatted timestamp of the current second (formatting is the bulk of a log call's garbage)
+    private record Stamp(long second, String text) {}
+    private static volatile Stamp stamp = new Stamp(-1, "");
+
+    private static String timestamp() {
+        long second = System.currentTimeMillis() / 1000;
+        Stamp s = stamp;
+        if (s.second() != second) {
+            s = new Stamp(second, TF.format(LocalDateTime.ofInstant(Instant.ofEpochSecond(second), ZoneId.systemDefault())));
+            stamp = s;
+        }
+        return s.text();
+    }
+
     // Adds a single log entry
     private static void add(String level, String s) {
-        String entry = String.format("%s [%s] %s",
-                TF.format(LocalDateTime.now()), level, s);
+        String entry = timestamp() + " [" + level + "] " + s;
 
         synchronized (LOGS) {
             LOGS.addFirst(entry);
             if (LOGS.size() > MAX_LOGS)
                 LOGS.removeLast();
         }
+
+        // Mirrored into JFR recordings that enable teammate.Log
+        TeamMateEvents.Log event = new TeamMateEvents.Log();
+        if (event.isEnabled()) {
+            event.level = level;
+            event.message = s;
+            event.commit();
+        }
     }
 
     public static void info(String s) { add("INFO", s); }
@@ -41,10 +64,10 @@ public class AppLogger {
 
     public static void debug(String s) { add("DEBUG", s); }
 
-    // Returns logs as read-only list
+    // Returns a read-only copy of the logs (a live view breaks callers iterating while others log)
     public static List<String> getRecentLogs() {
         synchronized (LOGS) {
-            return Collections.unmodifiableList(LOGS);
+            return List.copyOf(LOGS);
         }
     }
 }
@@ -0,0 +1,153 @@
+package TeamMate;
+
+import java.util.*;
+
+/**
+ * A candidate pool collapsed into equivalence classes. Scores and rules only look at (personality, role,
+ * game, skill), so everyone sharing that profile is interchangeable: a cohort of 100k usually has a few
+ * hundred classes. Each class keeps its members in pool order with their pool positions, so "the
+ * first acceptable candidate" and ranking ties resolve exactly as they would on the flat pool.
+ *
+ * Members are only ever taken from the head of a class; participants put back get new positions at the
+ * tail, so every class stays sorted by position.
+ */
+public final class CandidateClasses {
+
+    /** One profile and its members, oldest pool position first. */
+    public static final class Profile {
+        final long key;
+        final Participant representative;      // any member: scored and checked in place of all of them
+        private Participant[] members = new Participant[4];
+        private int[] positions = new int[4];
+        private int head, tail;
+        float score;                           // scratch, set by the builder for one ranking
+        long rank;                             // scratch: score and first position packed for ordering
+
+        private Profile(long key, Participant representative) {
+            this.key = key;
+            this.representative = representative;
+        }
+
+        public int count() { return tail - head; }
+        public boolean isEmpty() { return head == tail; }
+        public short game() { return representative.getGameId(); }
+
+        Participant first() { return members[head]; }
+        int firstPosition() { return positions[head]; }
+
+        /** Members from pool position 'from' (inclusive) to 'to' (exclusive). */
+        int countBetween(int from, int to) {
+            if (from >= to) return 0;
+            return lowerBound(to) - lowerBound(from);
+        }
+
+        private int lowerBound(int position) {
+            int i = Arrays.binarySearch(positions, head, tail, position);
+            return i >= 0 ? i : -i - 1;
+        }
+
+        private void append(Participant p, int position) {
+            if (tail == members.length) {
+                // Compact first: taken slots at the front are reused before growing
+                int n = tail - head;
+                if (head > members.length / 2) {
+                    System.arraycopy(members, head, members, 0, n);
+                    System.arraycopy(positions, head, positions, 0, n);
+                    Arrays.fill(members, n, tail, null);
+                } else {
+                    members = Arrays.copyOfRange(members, head, head + 2 * members.length);
+                    positions = Arrays.copyOfRange(positions, head, head + 2 * positions.length);
+                }
+                head = 0;
+                tail = n;
+            }
+            members[tail] = p;
+            positions[tail++] = position;
+        }
+
+        private Participant takeFirst() {
+            Participant p = members[head];
+            members[head++] = null;
+            return p;
+        }
+    }
+
+    private final Map<Long, Profile> byKey = new HashMap<>();
+    private final List<Profile> profiles = new ArrayList<>();                        // creation order
+    // Non-empty classes per personality, by first position (positions are unique, so this is a total order)
+    private final Map<PersonalityType, TreeSet<Profile>> byPersonality = new EnumMap<>(PersonalityType.class);
+    private int nextPosition;
+    private int size;
+
+    public CandidateClasses() {}
+
+    /** Classes for a pool, positions in list order. */
+    public CandidateClasses(List<Participant> pool) {
+        for (Participant p : pool) add(p);
+    }
+
+    /** Puts a participant at the end of the pool. */
+    public void add(Participant p) {
+        long key = ((long) FeasibilityOracle.profile(p) << 16) | (p.getSkillLevel() & 0xFFFF);
+        Profile c = byKey.get(key);
+        if (c == null) {
+            c = new Profile(key, p);
+            byKey.put(key, c);
+            profiles.add(c);
+        }
+        boolean wasEmpty = c.isEmpty();
+        c.append(p, nextPosition++);
+        if (wasEmpty) queueOf(c).add(c);
+        size++;
+    }
+
+    public int size() { return size; }
+
+    /** Classes that still have members, in creation order. */
+    public List<Profile> live() {
+        List<Profile> out = new ArrayList<>(profiles.size());
+        for (Profile c : profiles) if (!c.isEmpty()) out.add(c);
+        return out;
+    }
+
+    /** Removes and returns the first member of the class. */
+    public Participant take(Profile c) {
+        TreeSet<Profile> queue = queueOf(c);
+        queue.remove(c);
+        Participant p = c.takeFirst();
+        if (!c.isEmpty()) queue.add(c);
+        size--;
+        return p;
+    }
+
+    /** Removes the earliest participant of this personality the rules accept into the team, or null. */
+    public Participant takeFirst(PersonalityType type, CompiledConstraints rules, TeamAggregate team) {
+        TreeSet<Profile> candidates = byPersonality.get(type);
+        if (candidates == null) return null;
+        for (Profile c : candidates) {
+            if (rules.canAdd(team, c.representative)) return take(c);
+        }
+        return null;
+    }
+
+    private TreeSet<Profile> queueOf(Profile c) {
+        return byPersonality.computeIfAbsent(c.representative.getPersonalityType(),
+                k -> new TreeSet<>(Comparator.comparingInt(Profile::firstPosition)));
+    }
+
+    /** Per-class supply, fed to the oracle with counts instead of one call per person. */
+    public FeasibilityOracle oracle() {
+        FeasibilityOracle oracle = new FeasibilityOracle();
+        for (Profile c : profiles) if (!c.isEmpty()) oracle.add((int) (c.key >>> 16), c.count());
+        return oracle;
+    }
+
+    /** Everyone still in the pool, in no particular order. */
+    public List<Participant> remaining() {
+        List<Participant> out = new ArrayList<>(size);
+        for (Profile c : profiles) {
+            for (int i = c.head; i < c.tail; i++) out.add(c.members[i]);
+        }
+        return out;
+    }
+}
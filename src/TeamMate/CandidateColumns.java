@@ -0,0 +1,46 @@
+package TeamMate;
+
+import java.util.List;
+
+/**
+ * Column-oriented copy of a candidate pool: one primitive array per scored attribute.
+ * Index i in every column is the i-th participant of the source list.
+ */
+public class CandidateColumns {
+
+    public final int size;
+    public final byte[] roles;          // Role ordinal
+    public final short[] games;         // GameCatalog ID
+    public final short[] skills;
+    public final byte[] personalities;  // PersonalityType ordinal
+    public float skillTarget = ScoringKernel.SKILL_TARGET;   // team average the skill term aims for
+
+    public CandidateColumns(int size) {
+        this.size = size;
+        this.roles = new byte[size];
+        this.games = new short[size];
+        this.skills = new short[size];
+        this.personalities = new byte[size];
+    }
+
+    public static CandidateColumns of(List<Participant> pool) {
+        CandidateColumns c = new CandidateColumns(pool.size());
+        for (int i = 0; i < c.size; i++) c.set(i, pool.get(i));
+        return c;
+    }
+
+    // Mean skill of a cohort, the fair team average whatever scale (1-10 CSV, 0-100 survey) it uses
+    public static float meanSkill(List<Participant> cohort) {
+        if (cohort.isEmpty()) return ScoringKernel.SKILL_TARGET;
+        long total = 0;
+        for (Participant p : cohort) total += p.getSkillLevel();
+        return Math.max(1f, (float) total / cohort.size());
+    }
+
+    public void set(int i, Participant p) {
+        roles[i] = (byte) p.getPreferredRole().ordinal();
+        games[i] = p.getGameId();
+        skills[i] = (short) p.getSkillLevel();
+        personalities[i] = (byte) p.getPersonalityType().ordinal();
+    }
+}
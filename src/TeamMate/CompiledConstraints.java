@@ -0,0 +1,120 @@
+package TeamMate;
+
+/**
+ * {@link TeamConstraints} resolved for one team size. Every check reads only the counters held in a
+ * {@link TeamAggregate}, so {@link #canAdd} and {@link #isValid} cost the same for any pool size.
+ */
+public class CompiledConstraints {
+
+    private static final int TYPES = PersonalityType.values().length;
+    // Order the original size-3 error message lists the personalities in
+    private static final PersonalityType[] MESSAGE_ORDER = {PersonalityType.LEADER, PersonalityType.THINKER,
+            PersonalityType.BALANCED, PersonalityType.UNCLASSIFIED};
+
+    private final int teamSize;
+    private final int[] min;
+    private final int[] max;
+    private final int minDistinctRoles;
+    private final int maxSameGame;
+    private final boolean exact;
+    private final int requiredMask;   // bit per personality type with a minimum
+
+    CompiledConstraints(int teamSize, int[] min, int[] max, int minDistinctRoles, int maxSameGame, boolean exact) {
+        this.teamSize = teamSize;
+        this.min = min;
+        this.max = max;
+        this.minDistinctRoles = Math.min(minDistinctRoles, Role.values().length);
+        this.maxSameGame = maxSameGame;
+        this.exact = exact;
+        int mask = 0;
+        for (int i = 0; i < TYPES; i++) if (min[i] > 0) mask |= 1 << i;
+        this.requiredMask = mask;
+    }
+
+    public int teamSize() { return teamSize; }
+    public int min(PersonalityType type) { return min[type.ordinal()]; }
+    public int max(PersonalityType type) { return max[type.ordinal()]; }
+    public int minDistinctRoles() { return minDistinctRoles; }
+    public int maxSameGame() { return maxSameGame; }
+    public boolean hasExactComposition() { return exact; }
+
+    /**
+     * True if p can join without breaking a cap, and the slots left afterwards can still cover every
+     * unmet personality minimum and the distinct-role minimum.
+     */
+    public boolean canAdd(TeamAggregate team, Participant p) {
+        if (team.size >= teamSize) return false;
+
+        int type = p.getPersonalityType().ordinal();
+        if (team.personalityCounts[type] >= max[type]) return false;
+        if (team.gameCount(p.getGameId()) >= maxSameGame) return false;
+
+        int slotsAfter = teamSize - team.size - 1;
+        int deficit = 0;
+        for (int m = requiredMask; m != 0; m &= m - 1) {
+            int i = Integer.numberOfTrailingZeros(m);
+            int have = team.personalityCounts[i] + (i == type ? 1 : 0);
+            if (have < min[i]) deficit += min[i] - have;
+        }
+        if (deficit > slotsAfter) return false;
+
+        int roles = Integer.bitCount(team.roleMask | (1 << p.getPreferredRole().ordinal()));
+        return minDistinctRoles - roles <= slotsAfter;
+    }
+
+    /** True if the team is complete and satisfies every rule. */
+    public boolean isValid(TeamAggregate team) {
+        if (team.size != teamSize) return false;
+        for (int i = 0; i < TYPES; i++) {
+            int c = team.personalityCounts[i];
+            if (c < min[i] || c > max[i]) return false;
+        }
+        if (Integer.bitCount(team.roleMask) < minDistinctRoles) return false;
+        return team.maxGameCount <= maxSameGame;
+    }
+
+    /**
+     * How far a team is from valid: missing or surplus members, personality counts outside their bounds,
+     * missing distinct roles and members over the same-game cap. 0 exactly when {@link #isValid} holds.
+     */
+    public int violations(TeamAggregate team) {
+        int v = Math.abs(team.size - teamSize);
+        for (int i = 0; i < TYPES; i++) {
+            int c = team.personalityCounts[i];
+            if (c < min[i]) v += min[i] - c;
+            else if (c > max[i]) v += c - max[i];
+        }
+        v += Math.max(0, minDistinctRoles - Integer.bitCount(team.roleMask));
+        for (int g = 0; g < team.distinctGames; g++)
+            v += Math.max(0, team.countsByGame[team.gameIds[g]] - maxSameGame);
+        return v;
+    }
+
+    /**
+     * The error a builder fails with when the pool cannot supply one team of an exact composition,
+     * worded as the original size-3 check was; null if it can, or if this size has no exact composition.
+     */
+    public String compositionError(int[] supplyByType, FormationMode mode) {
+        if (!exact || supplyShortfall(supplyByType) == null) return null;
+        if (mode == FormationMode.RELAXED)
+            return "Cannot form team of size " + teamSize + " from unformed participants.";
+        StringBuilder need = new StringBuilder();
+        for (PersonalityType type : MESSAGE_ORDER) {
+            if (min[type.ordinal()] == 0) continue;
+            if (need.length() > 0) need.append(", ");
+            need.append(min[type.ordinal()]).append(' ').append(type);
+        }
+        return "Cannot form team of size " + teamSize + ": need " + need + ".";
+    }
+
+    /** Describes the first personality type the pool cannot supply for a single team, or null. */
+    public String supplyShortfall(int[] supplyByType) {
+        for (int m = requiredMask; m != 0; m &= m - 1) {
+            int i = Integer.numberOfTrailingZeros(m);
+            if (supplyByType[i] < min[i])
+                return "need " + min[i] + " " + PersonalityType.values()[i] + " per team, only "
+                        + supplyByType[i] + " available";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,219 @@
+package TeamMate;
+
+import java.util.*;
+
+/**
+ * Snake-draft formation: every team is opened at once and filled round by round, instead of one team
+ * being completed before the next is started.
+ *
+ * Teams are first seeded with their required personalities (LEADERs strongest-first, THINKERs
+ * weakest-first, so seed skills even out). The rest of the pool is sorted once into (role, personality)
+ * buckets ordered by skill; on its turn a team takes the candidate with the best marginal gain among
+ * the few nearest to the skill it needs in each bucket. Turn order snakes (1..T, T..1, ...), and no
+ * step rescores the whole pool, so a run is O(n log n).
+ */
+public class DraftTeamBuilder {
+
+    private static final PersonalityType[] SEED_ORDER = {
+            PersonalityType.LEADER, PersonalityType.THINKER, PersonalityType.BALANCED, PersonalityType.UNCLASSIFIED
+    };
+    // Candidates examined on each side of the ideal skill per bucket (to step over game-cap conflicts)
+    private static final int PROBE = 4;
+
+    private TeamConstraints strictRules = TeamConstraints.strict();
+    private TeamConstraints relaxedRules = TeamConstraints.relaxed();
+    private Long seed;
+
+    public void setSeed(long seed) { this.seed = seed; }
+
+    public void setConstraints(FormationMode mode, TeamConstraints rules) {
+        if (mode == FormationMode.RELAXED) relaxedRules = rules;
+        else strictRules = rules;
+    }
+
+    public TeamBuilder.TeamFormationResult buildTeams(List<Participant> participants, int teamSize,
+                                                      FormationMode mode, FormationControl control)
+            throws TeamMateException {
+
+        if (teamSize < TeamBuilder.MINIMUM_ACCEPTABLE_SIZE)
+            throw new TeamMateException("Team size must be at least " + TeamBuilder.MINIMUM_ACCEPTABLE_SIZE);
+
+        String label = (mode == FormationMode.RELAXED) ? "unformed team" : "team";
+        CompiledConstraints rules = (mode == FormationMode.RELAXED ? relaxedRules : strictRules).compile(teamSize);
+
+        // Shuffled once: pool position breaks skill ties
+        List<Participant> pool = new ArrayList<>(participants);
+        Collections.shuffle(pool, seed == null ? new Random() : new Random(seed));
+
+        int[] supply = new int[PersonalityType.values().length];
+        for (Participant p : pool) supply[p.getPersonalityType().ordinal()]++;
+
+        String compositionError = rules.compositionError(supply, mode);
+        if (compositionError != null) throw new TeamMateException(compositionError);
+
+        // Number of teams: bounded by pool size and by every required personality's supply
+        int teamCount = pool.size() / teamSize;
+        for (PersonalityType t : PersonalityType.values())
+            if (rules.min(t) > 0) teamCount = Math.min(teamCount, supply[t.ordinal()] / rules.min(t));
+
+        float target = CandidateColumns.meanSkill(pool);
+        Slot[] slots = new Slot[teamCount];
+        for (int i = 0; i < teamCount; i++) slots[i] = new Slot();
+
+        boolean[] taken = new boolean[pool.size()];
+        seed(pool, taken, slots, rules);
+        control.checkpoint();
+
+        // BUCKETS: (role, personality) -> keys ordered by skill, then pool position
+        int types = PersonalityType.values().length;
+        List<TreeSet<Long>> buckets = new ArrayList<>();
+        for (int b = 0; b < Role.values().length * types; b++) buckets.add(new TreeSet<>());
+        for (int i = 0; i < pool.size(); i++) {
+            if (taken[i]) continue;
+            Participant p = pool.get(i);
+            buckets.get(bucketOf(p, types)).add(key(p.getSkillLevel(), i));
+        }
+
+        // SNAKE DRAFT
+        boolean[] stuck = new boolean[teamCount];
+        for (int round = 0; ; round++) {
+            control.checkpoint();
+            boolean picked = false;
+            for (int k = 0; k < teamCount; k++) {
+                int t = (round % 2 == 0) ? k : teamCount - 1 - k;
+                Slot slot = slots[t];
+                if (stuck[t] || slot.agg.size >= teamSize) continue;
+
+                long best = pickBest(slot.agg, buckets, pool, rules, target, PROBE);
+                // Nothing admissible near the ideal skill: widen the search once before giving up
+                if (best < 0) best = pickBest(slot.agg, buckets, pool, rules, target, Integer.MAX_VALUE);
+                if (best < 0) {
+                    stuck[t] = true;
+                    continue;
+                }
+                int index = (int) best;
+                Participant p = pool.get(index);
+                buckets.get(bucketOf(p, types)).remove(key(p.getSkillLevel(), index));
+                taken[index] = true;
+                slot.add(p);
+                picked = true;
+            }
+            if (!picked) break;
+        }
+
+        // Keep valid teams, release the members of the rest
+        List<Team> formed = new ArrayList<>();
+        List<Participant> unformed = new ArrayList<>();
+        for (int i = 0; i < pool.size(); i++) if (!taken[i]) unformed.add(pool.get(i));
+        try (TeamIdAllocator.Block ids = control.teamIds().block(slots.length)) {
+            for (Slot slot : slots) {
+                if (!rules.isValid(slot.agg)) {
+                    unformed.addAll(slot.members);
+                    continue;
+                }
+                Team team = ids.newTeam();
+                for (Participant m : slot.members) team.addMember(m);
+                formed.add(team);
+                control.teamFormed(formed.size(), unformed.size());
+            }
+        }
+
+        AppLogger.info("Draft formation: " + formed.size() + " " + label + "(s) of size " + teamSize
+                + ", " + unformed.size() + " unformed");
+        unformed.sort(Comparator.comparing(Participant::getId));
+        return new TeamBuilder.TeamFormationResult(formed, unformed);
+    }
+
+    // Seeds every team with its required personalities, alternating skill order between types
+    private void seed(List<Participant> pool, boolean[] taken, Slot[] slots, CompiledConstraints rules) {
+        boolean strongestFirst = true;
+        for (PersonalityType type : SEED_ORDER) {
+            int need = rules.min(type);
+            if (need == 0 || slots.length == 0) continue;
+
+            List<Integer> candidates = new ArrayList<>();
+            for (int i = 0; i < pool.size(); i++)
+                if (!taken[i] && pool.get(i).getPersonalityType() == type) candidates.add(i);
+            Comparator<Integer> bySkill = Comparator.comparingInt(i -> pool.get(i).getSkillLevel());
+            candidates.sort(strongestFirst ? bySkill.reversed() : bySkill);
+
+            int cursor = 0;   // first candidate not yet taken
+            for (int round = 0; round < need; round++) {
+                for (Slot slot : slots) {
+                    for (int c = cursor; c < candidates.size(); c++) {
+                        int i = candidates.get(c);
+                        if (taken[i] || !rules.canAdd(slot.agg, pool.get(i))) continue;
+                        taken[i] = true;
+                        slot.add(pool.get(i));
+                        break;
+                    }
+                    while (cursor < candidates.size() && taken[candidates.get(cursor)]) cursor++;
+                }
+            }
+            strongestFirst = !strongestFirst;
+        }
+    }
+
+    // Best admissible candidate for this team, as a pool index, or -1
+    private long pickBest(TeamAggregate agg, List<TreeSet<Long>> buckets, List<Participant> pool,
+                          CompiledConstraints rules, float target, int probeDepth) {
+        // Skill that would put the team mean exactly on the cohort mean
+        int ideal = Math.round(target * (agg.size + 1) - agg.skillSum);
+        long probe = key(ideal, 0);
+
+        long bestIndex = -1;
+        float bestGain = Float.NEGATIVE_INFINITY;
+        for (TreeSet<Long> bucket : buckets) {
+            if (bucket.isEmpty()) continue;
+            Iterator<Long> up = bucket.tailSet(probe, true).iterator();
+            Iterator<Long> down = bucket.headSet(probe, false).descendingIterator();
+            for (int n = 0; n < probeDepth && (up.hasNext() || down.hasNext()); n++) {
+                for (Iterator<Long> side : List.of(up, down)) {
+                    if (!side.hasNext()) continue;
+                    int index = (int) (long) side.next();
+                    Participant p = pool.get(index);
+                    if (!rules.canAdd(agg, p)) continue;
+                    float gain = gain(agg, p, rules, target);
+                    if (gain > bestGain) {
+                        bestGain = gain;
+                        bestIndex = index;
+                    }
+                }
+            }
+        }
+        return bestIndex;
+    }
+
+    // Same weights as the scoring kernels, with the cohort mean as skill target
+    private static float gain(TeamAggregate agg, Participant p, CompiledConstraints rules, float target) {
+        float g = agg.hasRole(p.getPreferredRole().ordinal()) ? 0f : 2.0f;
+        int sameGame = agg.gameCount(p.getGameId());
+        g += sameGame == 0 ? 1.0f : (sameGame == 1 ? 0.2f : 0f);
+        float projected = (float) (agg.skillSum + p.getSkillLevel()) / (agg.size + 1);
+        g += (1.0f - Math.abs(projected - target) / target) * 2.0f;
+        PersonalityType type = p.getPersonalityType();
+        // Required types are the scarce ones: prefer them while the team has room (THINKER up to its max)
+        if (rules.min(type) > 0 && agg.count(type) < rules.max(type)) g += 1.0f;
+        return g;
+    }
+
+    private static int bucketOf(Participant p, int types) {
+        return p.getPreferredRole().ordinal() * types + p.getPersonalityType().ordinal();
+    }
+
+    // Orders by skill, then pool position; the low half carries the index
+    private static long key(int skill, int index) {
+        return ((long) skill << 32) | index;
+    }
+
+    // A team being drafted
+    private static final class Slot {
+        final TeamAggregate agg = new TeamAggregate();
+        final List<Participant> members = new ArrayList<>();
+
+        void add(Participant p) {
+            agg.add(p);
+            members.add(p);
+        }
+    }
+}
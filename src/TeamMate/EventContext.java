@@ -0,0 +1,155 @@
+package TeamMate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * One event (or tenant) in a process that may host many: its own participant store, team list, DB file,
+ * CSV/JSONL exports and team ID allocator, all under one directory. Nothing here touches the
+ * process-wide state (Team's default counter), so dozens of events can form and persist teams side
+ * by side, each numbering its teams from T1.
+ */
+public class EventContext implements AutoCloseable {
+
+    private final String name;
+    private final Path directory;
+    private final ParticipantRegistry participants = new ParticipantRegistry();
+    private final ParticipantRegistry unformed = new ParticipantRegistry();
+    private final List<Team> teams = new CopyOnWriteArrayList<>();
+    private final TeamIdAllocator teamIds = new TeamIdAllocator(participants::find);
+    private final FileService fileService = new FileService();
+    private final TeamMateDB db;
+
+    private EventContext(String name, Path directory) {
+        this.name = name;
+        this.directory = directory;
+        this.db = new TeamMateDB(directory.resolve(TeamMateDB.DB_FILE_NAME).toString());
+
+        // Restore the event from its DB: teams bind to this event's store, new IDs continue after them
+        List<Participant> stored = new ArrayList<>(db.findAllParticipants());
+        stored.sort(Comparator.comparing(Participant::getId));
+        participants.addAll(stored);
+        Set<String> inTeams = new HashSet<>();
+        List<Team> loaded = new ArrayList<>(db.findAllTeams());
+        loaded.sort(Comparator.comparingInt(t -> TeamIdAllocator.number(t.getId())));
+        for (Team t : loaded) {
+            t.setStore(participants::find);
+            inTeams.addAll(t.getMemberIds());
+        }
+        teams.addAll(loaded);
+        teamIds.advancePast(loaded);
+        for (Participant p : stored) if (!inTeams.contains(p.getId())) unformed.add(p);
+    }
+
+    /** Opens (or creates) the event stored in root/name. */
+    public static EventContext open(Path root, String name) throws TeamMateException {
+        if (!isValidName(name))
+            throw new TeamMateException("Invalid event name: " + name + " (letters, digits, '-' and '_' only)");
+        Path directory = root.resolve(name);
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new TeamMateException("Could not create event directory " + directory, e);
+        }
+        EventContext event = new EventContext(name, directory);
+        event.db.startCheckpointer();
+        AppLogger.info("Event " + name + ": " + event.participants.size() + " participant(s), "
+                + event.teams.size() + " team(s) loaded.");
+        return event;
+    }
+
+    // Event names become directory names: no separators, dots or spaces
+    private static boolean isValidName(String name) {
+        if (name == null || name.isEmpty()) return false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!(Character.isLetterOrDigit(c) && c < 128) && c != '-' && c != '_') return false;
+        }
+        return true;
+    }
+
+    // ==================== ACCESSORS ====================
+
+    public String name() { return name; }
+
+    public Path directory() { return directory; }
+
+    public ParticipantRegistry participants() { return participants; }
+
+    public ParticipantRegistry unformed() { return unformed; }
+
+    public List<Team> teams() { return Collections.unmodifiableList(teams); }
+
+    public TeamIdAllocator teamIds() { return teamIds; }
+
+    public TeamMateDB db() { return db; }
+
+    /** A file of this event (e.g. {@link FileService#OUTPUT_FILE}), resolved in its directory. */
+    public String file(String fileName) { return directory.resolve(fileName).toString(); }
+
+    // ==================== PARTICIPANTS ====================
+
+    /** Loads the event's participants CSV; only new or edited rows are written to the DB. Returns the changed count. */
+    public int importParticipants() throws IOException, TeamMateDBException {
+        List<Participant> csv = fileService.loadParticipants(file(FileService.INPUT_FILE));
+        TeamMateDB.Transaction tx = db.beginTransaction();
+        for (Participant p : csv) {
+            if (p.sameRow(participants.find(p.getId()))) continue;
+            tx.saveParticipant(p);
+            participants.add(p);
+            if (!inAnyTeam(p.getId())) unformed.add(p);
+        }
+        if (tx.size() > 0) tx.commit();
+        AppLogger.info("Event " + name + ": imported " + tx.size() + " new or changed participant(s).");
+        return tx.size();
+    }
+
+    private boolean inAnyTeam(String participantId) {
+        for (Team t : teams) if (t.getMemberIds().contains(participantId)) return true;
+        return false;
+    }
+
+    // ==================== FORMATION ====================
+
+    /**
+     * Forms teams in the background with this event's allocator. STRICT draws on every participant,
+     * RELAXED only on the unformed ones. Nothing is saved until {@link #apply}.
+     */
+    public CompletableFuture<TeamBuilder.TeamFormationResult> formTeamsAsync(
+            int teamSize, FormationMode mode, FormationStrategy strategy, Long seed, Duration deadline) {
+        ParticipantRegistry.Snapshot cohort = (mode == FormationMode.RELAXED ? unformed : participants).snapshot();
+        return TeamFormation.formTeamsAsync(cohort, teamSize, mode, strategy, seed, deadline, null, teamIds);
+    }
+
+    /** Saves a formation: its teams in one DB commit, then the event's team CSV and JSONL files. */
+    public void apply(TeamBuilder.TeamFormationResult res) throws TeamMateDBException, IOException {
+        if (res.formedTeams.isEmpty()) return;
+        TeamMateDB.Transaction tx = db.beginTransaction();
+        for (Team t : res.formedTeams) tx.saveTeam(t);
+        long version = tx.commit();
+
+        teams.addAll(res.formedTeams);
+        for (Team t : res.formedTeams) {
+            for (String memberId : t.getMemberIds()) unformed.remove(memberId);
+        }
+        fileService.saveTeams(teams, file(FileService.OUTPUT_FILE));
+        fileService.exportJsonLines(participants, teams, file(FileService.JSONL_FILE));
+        AppLogger.info("Event " + name + ": committed " + res.formedTeams.size() + " team(s) as version " + version);
+    }
+
+    /** Stops the event's checkpointer and flushes its DB. */
+    @Override
+    public void close() throws TeamMateDBException {
+        db.close();
+    }
+
+    @Override
+    public String toString() {
+        return "Event " + name + " (" + participants.size() + " participants, " + teams.size() + " teams)";
+    }
+}
@@ -0,0 +1,163 @@
+package TeamMate;
+
+import java.util.Arrays;
+
+/**
+ * Live supply counters for a cohort (per personality, role and game) that answer "how many valid teams
+ * can this pool form at most, and what limits it?" without building anything.
+ *
+ * Each bound is a pure counting argument against {@link CompiledConstraints}: pool size, every required
+ * personality's supply, the personality caps, the same-game cap and the distinct-role minimum. The
+ * smallest bound is the answer, and the rule behind it is reported as binding. Updates are O(1); a query
+ * does not depend on the cohort size (a few binary searches over the handful of types, roles and games).
+ */
+public class FeasibilityOracle {
+
+    private static final PersonalityType[] TYPES = PersonalityType.values();
+    private static final Role[] ROLES = Role.values();
+
+    private int total;
+    private final int[] byType = new int[TYPES.length];
+    private final int[] byRole = new int[ROLES.length];
+    private int[] byGame = new int[8];                 // indexed by GameCatalog ID
+
+    /** Answer for one team size and rule set. */
+    public static final class Feasibility {
+        public final int teamSize;
+        public final int maxTeams;
+        public final String binding;                   // human-readable limiting rule
+        public final PersonalityType bindingType;      // scarce personality, when that is the limit
+
+        Feasibility(int teamSize, int maxTeams, String binding, PersonalityType bindingType) {
+            this.teamSize = teamSize;
+            this.maxTeams = maxTeams;
+            this.binding = binding;
+            this.bindingType = bindingType;
+        }
+
+        @Override
+        public String toString() {
+            return "At most " + maxTeams + " team(s) of size " + teamSize + " (limited by " + binding + ")";
+        }
+    }
+
+    public static FeasibilityOracle of(Iterable<Participant> participants) {
+        FeasibilityOracle oracle = new FeasibilityOracle();
+        for (Participant p : participants) oracle.add(p);
+        return oracle;
+    }
+
+    // ==================== UPDATES ====================
+
+    public synchronized void add(Participant p) { apply(profile(p), 1); }
+
+    public synchronized void remove(Participant p) { apply(profile(p), -1); }
+
+    // Profiles let callers retract a participant's old attributes after it was edited in place
+    public synchronized void add(int profile) { apply(profile, 1); }
+
+    public synchronized void remove(int profile) { apply(profile, -1); }
+
+    // Equivalence classes report their whole count at once
+    public synchronized void add(int profile, int count) { apply(profile, count); }
+
+    public synchronized void clear() {
+        total = 0;
+        Arrays.fill(byType, 0);
+        Arrays.fill(byRole, 0);
+        Arrays.fill(byGame, 0);
+    }
+
+    /** The attributes the oracle counts, packed into one int (personality, role, game ID). */
+    public static int profile(Participant p) {
+        return (p.getPersonalityType().ordinal() << 24) | (p.getPreferredRole().ordinal() << 16)
+                | (p.getGameId() & 0xFFFF);
+    }
+
+    private void apply(int profile, int delta) {
+        int game = profile & 0xFFFF;
+        if (game >= byGame.length) byGame = Arrays.copyOf(byGame, Math.max(game + 1, byGame.length * 2));
+        total += delta;
+        byType[profile >>> 24] += delta;
+        byRole[(profile >>> 16) & 0xFF] += delta;
+        byGame[game] += delta;
+    }
+
+    // ==================== QUERIES ====================
+
+    public synchronized int size() { return total; }
+
+    public synchronized int supply(PersonalityType type) { return byType[type.ordinal()]; }
+
+    public synchronized int[] supplyByType() { return byType.clone(); }
+
+    /** Maximum number of valid teams for these rules, and the rule that caps it. */
+    public synchronized Feasibility assess(CompiledConstraints rules) {
+        int k = rules.teamSize();
+        int best = total / k;
+        String binding = "pool size (" + total + " participants)";
+        PersonalityType bindingType = null;
+
+        // Every required personality: supply / minimum per team
+        for (PersonalityType t : TYPES) {
+            int min = rules.min(t);
+            if (min == 0) continue;
+            int bound = byType[t.ordinal()] / min;
+            if (bound < best) {
+                best = bound;
+                binding = t + " supply (" + byType[t.ordinal()] + " available, " + min + " per team)";
+                bindingType = t;
+            }
+        }
+
+        // Personality caps: T teams hold at most T * max[t] of each type
+        int[] typeCaps = new int[TYPES.length];
+        for (PersonalityType t : TYPES) typeCaps[t.ordinal()] = rules.max(t);
+        int bound = cappedBound(byType, typeCaps, 0, k, best);
+        if (bound < best) {
+            best = bound;
+            binding = "personality caps";
+            bindingType = null;
+        }
+
+        // Same-game cap: at most maxSameGame per game per team
+        bound = cappedBound(byGame, null, rules.maxSameGame(), k, best);
+        if (bound < best) {
+            best = bound;
+            binding = "same-game cap (" + rules.maxSameGame() + " per team)";
+            bindingType = null;
+        }
+
+        // Distinct roles: each team needs minDistinctRoles roles, one member of a role serves one team
+        if (rules.minDistinctRoles() > 0) {
+            bound = cappedBound(byRole, null, 1, rules.minDistinctRoles(), best);
+            if (bound < best) {
+                best = bound;
+                binding = "role variety (" + rules.minDistinctRoles() + " distinct roles per team)";
+                bindingType = null;
+            }
+        }
+
+        return new Feasibility(k, Math.max(0, best), binding, bindingType);
+    }
+
+    /**
+     * Largest T <= hi such that sum(min(count[i], T * cap[i])) >= T * need, where cap[i] is caps[i] or
+     * 'sameCap' when caps is null. The left side minus the right is concave and zero at T = 0, so the
+     * feasible T form a prefix and binary search finds the largest.
+     */
+    private static int cappedBound(int[] counts, int[] caps, int sameCap, int need, int hi) {
+        int lo = 0;
+        while (lo < hi) {
+            int mid = (int) (((long) lo + hi + 1) >>> 1);
+            long covered = 0;
+            for (int i = 0; i < counts.length; i++) {
+                long cap = (long) mid * (caps == null ? sameCap : caps[i]);
+                covered += Math.min(counts[i], cap);
+            }
+            if (covered >= (long) mid * need) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+}
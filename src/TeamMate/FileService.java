@@ -4,18 +4,38 @@ import java.io.*;
 import java.nio.file.*;
 import java.util.*;
 
+/** CSV and JSON Lines files. Writers are synchronized: the console, the waitlist and the HTTP API share one. */
 public class FileService {
 
     public static final String INPUT_FILE = "participants_sample.csv";
     public static final String OUTPUT_FILE = "formed_teams.csv";
+    public static final String JSONL_FILE = "formed_teams.jsonl";
     private static final String PARTICIPANT_HEADER = "ID,Name,Email,PreferredGame,SkillLevel,PreferredRole,PersonalityScore,PersonalityType";
     private static final String TEAM_HEADER = "TeamID,TeamSize,MemberID,Name,PreferredGame,Role,Skill,PersonalityType";
 
     // Loads participant records from CSV
     public List<Participant> loadParticipants(String path) throws IOException {
         List<Participant> participants = new ArrayList<>();
+        readParticipants(path, participants::add);
+        return participants;
+    }
+
+    // Streams CSV rows straight into an off-heap store (no participant list is built)
+    public int loadParticipants(String path, OffHeapParticipantStore store) throws IOException {
+        int before = store.size();
+        readParticipants(path, store::append);
+        return store.size() - before;
+    }
+
+    /** Receives parsed rows one at a time; may block (back-pressure) or throw to stop reading. */
+    public interface ParticipantSink {
+        void accept(Participant p) throws IOException;
+    }
+
+    // Streams CSV rows to the sink as they are parsed, so no list of the whole file is built
+    public void readParticipants(String path, ParticipantSink sink) throws IOException {
         Path p = Path.of(path);
-        if (!Files.exists(p)) return participants;
+        if (!Files.exists(p)) return;
 
         try (BufferedReader br = Files.newBufferedReader(p)) {
             br.readLine(); // skip header
@@ -28,6 +48,7 @@ public class FileService {
                 String[] cols = splitCsvLine(line);
                 if (cols.length < 7) continue;
 
+                Participant parsed;
                 try {
                     String id = cols[0].trim();
                     String name = cols[1].trim();
@@ -43,14 +64,15 @@ public class FileService {
                         try { pType = PersonalityType.valueOf(cols[7].trim().toUpperCase()); } catch (Exception ignored) {}
                     }
 
-                    participants.add(new Participant(id, name, email, game, role, skill, pScore, pType));
+                    parsed = new Participant(id, name, email, game, role, skill, pScore, pType);
 
                 } catch (Exception ex) {
                     AppLogger.warning("Skipping bad participant line " + ln);
+                    continue;
                 }
+                sink.accept(parsed);
             }
         }
-        return participants;
     }
 
     // Loads teams from CSV and maps members using participant list
@@ -90,8 +112,9 @@ public class FileService {
     }
 
     // Saves participant list to CSV
-    public void saveParticipants(List<Participant> participants, String path) throws IOException {
+    public synchronized void saveParticipants(List<Participant> participants, String path) throws IOException {
         Path p = Path.of(path);
+        TeamMateEvents.Persist event = TeamMateEvents.beginPersist();
         try (BufferedWriter bw = Files.newBufferedWriter(p)) {
             bw.write(PARTICIPANT_HEADER);
             bw.newLine();
@@ -106,27 +129,81 @@ public class FileService {
                 bw.newLine();
             }
         }
+        TeamMateEvents.endPersist(event, "csv-participants", p, participants.size(), 0);
     }
 
     // Saves team data to CSV
-    public void saveTeams(List<Team> teams, String path) throws IOException {
+    public synchronized void saveTeams(List<Team> teams, String path) throws IOException {
         Path p = Path.of(path);
-        try (BufferedWriter bw = Files.newBufferedWriter(p)) {
+        TeamMateEvents.Persist event = TeamMateEvents.beginPersist();
+        try (TeamWriter w = openTeamWriter(path)) {
+            for (Team t : teams) w.write(t);
+        }
+        TeamMateEvents.endPersist(event, "csv-teams", p, teams.size(), 0);
+    }
+
+    // Appends teams to the teams CSV without rewriting it (header only if the file is new)
+    public synchronized void appendTeams(List<Team> teams, String path) throws IOException {
+        Path p = Path.of(path);
+        TeamMateEvents.Persist event = TeamMateEvents.beginPersist();
+        boolean fresh = !Files.exists(p) || Files.size(p) == 0;
+        try (TeamWriter w = new TeamWriter(Files.newBufferedWriter(p, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND), fresh)) {
+            for (Team t : teams) w.write(t);
+        }
+        TeamMateEvents.endPersist(event, "csv-teams", p, teams.size(), 0);
+    }
+
+    /** Opens the teams CSV (header written) for teams that arrive one at a time. */
+    public TeamWriter openTeamWriter(String path) throws IOException {
+        return new TeamWriter(Files.newBufferedWriter(Path.of(path)), true);
+    }
+
+    /** Appends one CSV row per team member; same layout as {@link #saveTeams}. */
+    public static class TeamWriter implements Closeable {
+        private final BufferedWriter bw;
+
+        private TeamWriter(BufferedWriter bw, boolean header) throws IOException {
+            this.bw = bw;
+            if (!header) return;
             bw.write(TEAM_HEADER);
             bw.newLine();
+        }
 
-            for (Team t : teams) {
-                for (Participant m : t.getMembers()) {
-                    String[] cols = new String[]{
-                            t.getId(), String.valueOf(t.size()), m.getId(), m.getName(),
-                            m.getInterest(), m.getPreferredRole().name(), String.valueOf(m.getSkillLevel()),
-                            m.getPersonalityType().name()
-                    };
-                    bw.write(joinEscaped(cols));
-                    bw.newLine();
-                }
+        public void write(Team t) throws IOException {
+            for (Participant m : t.getMembers()) {
+                String[] cols = new String[]{
+                        t.getId(), String.valueOf(t.size()), m.getId(), m.getName(),
+                        m.getInterest(), m.getPreferredRole().name(), String.valueOf(m.getSkillLevel()),
+                        m.getPersonalityType().name()
+                };
+                bw.write(joinEscaped(cols));
+                bw.newLine();
             }
         }
+
+        public void flush() throws IOException { bw.flush(); }
+
+        @Override
+        public void close() throws IOException { bw.close(); }
+    }
+
+    // Streams participants, then teams (member IDs only), as JSON Lines
+    public void exportJsonLines(Iterable<Participant> participants, Iterable<Team> teams, String path) throws IOException {
+        TeamMateEvents.Persist event = TeamMateEvents.beginPersist();
+        int records = 0;
+        try (JsonLines.Writer w = new JsonLines.Writer(Path.of(path))) {
+            for (Participant pt : participants) { w.writeParticipant(pt); records++; }
+            for (Team t : teams) { w.writeTeam(t); records++; }
+        }
+        TeamMateEvents.endPersist(event, "jsonl", Path.of(path), records, 0);
+    }
+
+    // Reads a JSON Lines export incrementally; records are handed over one at a time
+    public long importJsonLines(String path, JsonLines.Handler handler) throws IOException {
+        Path p = Path.of(path);
+        if (!Files.exists(p)) return 0;
+        return JsonLines.read(p, handler);
     }
 
     // CSV parsing (handles quoted fields)
@@ -0,0 +1,180 @@
+package TeamMate;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Bounded LRU cache of formation results, keyed by cohort fingerprint, team size, mode, strategy and seed.
+ * Entries hold member IDs only; a hit rebuilds fresh Team objects (new IDs) from the caller's cohort.
+ * Entries for a cohort are dropped as soon as its registry reports the fingerprint as stale.
+ * Size via -Dteammate.cache.size; -Dteammate.cache.persist=true keeps the cache next to the DB.
+ */
+public class FormationCache {
+
+    private static final String CACHE_FILE_NAME = "formation_cache.ser";
+    private static final int CAPACITY = Integer.getInteger("teammate.cache.size", 32);
+    private static final boolean PERSIST = Boolean.getBoolean("teammate.cache.persist");
+
+    private static final FormationCache INSTANCE = new FormationCache(CAPACITY);
+
+    /** Cache key; the fingerprint identifies the exact cohort (see ParticipantRegistry). */
+    public static final class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final long fingerprint;
+        final int teamSize;
+        final FormationMode mode;
+        final FormationStrategy strategy;
+        final long seed;
+
+        public Key(long fingerprint, int teamSize, FormationMode mode, FormationStrategy strategy, long seed) {
+            this.fingerprint = fingerprint;
+            this.teamSize = teamSize;
+            this.mode = mode;
+            this.strategy = strategy;
+            this.seed = seed;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key k)) return false;
+            return fingerprint == k.fingerprint && teamSize == k.teamSize && mode == k.mode
+                    && strategy == k.strategy && seed == k.seed;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fingerprint, teamSize, mode, strategy, seed);
+        }
+    }
+
+    // Formation result reduced to IDs
+    private static final class Entry implements Serializable {
+        private static final long serialVersionUID = 2L; // 2: concrete list types, older cache files are ignored
+        final ArrayList<ArrayList<String>> teams = new ArrayList<>();
+        final ArrayList<String> unformed = new ArrayList<>();
+    }
+
+    private final LinkedHashMap<Key, Entry> entries;
+
+    public FormationCache(int capacity) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public static FormationCache shared() { return INSTANCE; }
+
+    /** Rebuilds a cached result against this cohort, or returns null on a miss. */
+    public TeamBuilder.TeamFormationResult get(Key key, List<Participant> cohort) {
+        return get(key, cohort, Team.defaultIds());
+    }
+
+    // Rebuilt teams take fresh IDs from the requesting event
+    public TeamBuilder.TeamFormationResult get(Key key, List<Participant> cohort, TeamIdAllocator teamIds) {
+        Entry e;
+        synchronized (this) {
+            e = entries.get(key);
+        }
+        if (e == null) return null;
+
+        Map<String, Participant> byId = new HashMap<>(cohort.size() * 2);
+        for (Participant p : cohort) byId.put(p.getId(), p);
+
+        List<Team> teams = new ArrayList<>(e.teams.size());
+        for (List<String> memberIds : e.teams) {
+            Team t = teamIds.newTeam();
+            for (String id : memberIds) t.addMember(byId.get(id));
+            teams.add(t);
+        }
+        List<Participant> unformed = new ArrayList<>(e.unformed.size());
+        for (String id : e.unformed) unformed.add(byId.get(id));
+
+        AppLogger.info("Formation cache hit: " + teams.size() + " team(s) reused");
+        return new TeamBuilder.TeamFormationResult(teams, unformed);
+    }
+
+    public void put(Key key, TeamBuilder.TeamFormationResult res) {
+        Entry e = new Entry();
+        for (Team t : res.formedTeams) {
+            e.teams.add(new ArrayList<>(t.getMemberIds()));
+        }
+        for (Participant p : res.unformedParticipants) e.unformed.add(p.getId());
+
+        synchronized (this) {
+            entries.put(key, e);
+        }
+    }
+
+    /** Drops every entry computed for a cohort that no longer exists. */
+    public synchronized void invalidate(long staleFingerprint) {
+        entries.keySet().removeIf(k -> k.fingerprint == staleFingerprint);
+    }
+
+    public synchronized void clear() { entries.clear(); }
+
+    public synchronized int size() { return entries.size(); }
+
+    /** Order-independent hash of the attributes formation depends on (missing attributes hash as -1). */
+    public static long hashOf(Participant p) {
+        long h = upperHash(p.getId());
+        h = h * 31 + upperHash(p.getInterest());
+        h = h * 31 + ordinal(p.getPreferredRole());
+        h = h * 31 + p.getSkillLevel();
+        h = h * 31 + ordinal(p.getPersonalityType());
+        // Spread the bits so summing per-participant hashes stays collision-resistant (SplitMix64 finalizer)
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    private static int upperHash(String s) {
+        return s == null ? -1 : s.toUpperCase(Locale.ROOT).hashCode();
+    }
+
+    private static int ordinal(Enum<?> e) {
+        return e == null ? -1 : e.ordinal();
+    }
+
+    /** Fingerprint of any cohort list; registry snapshots carry theirs precomputed. */
+    public static long fingerprint(List<Participant> cohort) {
+        if (cohort instanceof ParticipantRegistry.Snapshot snap) return snap.fingerprint();
+        long f = 0;
+        for (Participant p : cohort) f += hashOf(p);
+        return f;
+    }
+
+    // --- PERSISTENCE ---
+
+    @SuppressWarnings("unchecked")
+    public void loadFromDisk() {
+        if (!PERSIST) return;
+        File file = new File(CACHE_FILE_NAME);
+        if (!file.exists()) return;
+
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
+            Map<Key, Entry> read = (Map<Key, Entry>) ois.readObject();
+            synchronized (this) {
+                entries.putAll(read);
+            }
+            AppLogger.info("Formation cache: loaded " + read.size() + " entries from " + CACHE_FILE_NAME);
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            AppLogger.warning("Formation cache: ignoring unreadable " + CACHE_FILE_NAME + ": " + e.getMessage());
+        }
+    }
+
+    public void saveToDisk() {
+        if (!PERSIST) return;
+        Map<Key, Entry> copy;
+        synchronized (this) {
+            copy = new LinkedHashMap<>(entries);
+        }
+        try {
+            TeamMateDB.writeAtomically(CACHE_FILE_NAME, oos -> oos.writeObject(copy));
+        } catch (IOException e) {
+            AppLogger.warning("Formation cache: failed to save " + CACHE_FILE_NAME + ": " + e.getMessage());
+        }
+    }
+}
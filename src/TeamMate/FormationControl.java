@@ -0,0 +1,85 @@
+package TeamMate;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Carries cooperative cancellation, deadline and progress reporting into a single formation run.
+ * The builder calls {@link #checkpoint()} between teams and {@link #teamFormed(int, int)} after each one,
+ * and numbers its teams from {@link #teamIds()} (the event's allocator; shards share their parent's).
+ */
+public class FormationControl {
+
+    /** Control used when the caller does not need cancellation, deadlines or progress. */
+    public static final FormationControl NONE = new FormationControl((Duration) null, null);
+
+    private final FormationControl parent;                    // set for per-shard controls
+    private final long deadlineNanos;                        // 0 = no deadline
+    private final Duration deadline;
+    private final Consumer<TeamFormation.Progress> listener;
+    private final TeamIdAllocator teamIds;                   // null = inherit from parent, else the global one
+    private volatile boolean cancelled;
+    private volatile TeamFormation.Progress lastProgress = new TeamFormation.Progress(0, 0);
+
+    public FormationControl(Duration deadline, Consumer<TeamFormation.Progress> listener) {
+        this(null, deadline, listener, null);
+    }
+
+    // Run for one event: its teams are numbered by the event's allocator
+    public FormationControl(Duration deadline, Consumer<TeamFormation.Progress> listener, TeamIdAllocator teamIds) {
+        this(null, deadline, listener, teamIds);
+    }
+
+    /** Child control for one shard: honours the parent's cancellation and deadline, reports to its own listener. */
+    public FormationControl(FormationControl parent, Consumer<TeamFormation.Progress> listener) {
+        this(parent, null, listener, null);
+    }
+
+    private FormationControl(FormationControl parent, Duration deadline, Consumer<TeamFormation.Progress> listener,
+                             TeamIdAllocator teamIds) {
+        this.parent = parent;
+        this.deadline = deadline;
+        this.deadlineNanos = deadline == null ? 0 : System.nanoTime() + deadline.toNanos();
+        this.listener = listener;
+        this.teamIds = teamIds;
+    }
+
+    public void cancel() {
+        if (this != NONE) cancelled = true;
+    }
+
+    public boolean isCancelled() { return cancelled || (parent != null && parent.isCancelled()); }
+
+    public TeamFormation.Progress lastProgress() { return lastProgress; }
+
+    /** Allocator for the run's team IDs. */
+    public TeamIdAllocator teamIds() {
+        if (teamIds != null) return teamIds;
+        return parent != null ? parent.teamIds() : Team.defaultIds();
+    }
+
+    /** Stops the run if it was cancelled or has passed its deadline. */
+    public void checkpoint() throws TeamMateException {
+        if (parent != null) parent.checkpoint();
+        if (cancelled)
+            throw new TeamMateException("Team formation was cancelled.");
+        if (deadlineNanos != 0 && System.nanoTime() - deadlineNanos > 0) {
+            cancelled = true;
+            throw new TeamMateException("Team formation exceeded its deadline of " + deadline.toSeconds() + "s.");
+        }
+    }
+
+    /** Publishes a progress event after a team has been accepted. */
+    public void teamFormed(int teamsFormed, int poolRemaining) {
+        if (this == NONE) return;
+        TeamFormation.Progress progress = new TeamFormation.Progress(teamsFormed, poolRemaining);
+        lastProgress = progress;
+        if (listener != null) {
+            try {
+                listener.accept(progress);
+            } catch (RuntimeException e) {
+                AppLogger.warning("Formation progress listener failed: " + e.getMessage());
+            }
+        }
+    }
+}
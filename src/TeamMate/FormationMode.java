@@ -0,0 +1,7 @@
+package TeamMate;
+
+/** Formation modes offered to the Organizer */
+public enum FormationMode {
+    STRICT,     // option 7: all participants, strict validation
+    RELAXED     // option 6: unformed participants only, relaxed validation
+}
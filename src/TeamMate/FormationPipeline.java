@@ -0,0 +1,356 @@
+package TeamMate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Streaming import: parse -> validate/classify -> bucket -> form -> persist, as {@link Flow} stages.
+ *
+ * Every stage publishes through a {@link SubmissionPublisher} with a bounded buffer and requests one
+ * item at a time, so a slow stage blocks the one before it all the way back to the CSV reader. Teams are
+ * formed from each bucket (plus what earlier buckets could not place) while later rows are still being
+ * parsed, and each bucket's participants and teams are committed to the DB together and appended to the
+ * team CSV and JSONL files.
+ *
+ * Apart from the buffers, the pipeline keeps two things for the whole run. The first is every ID it has
+ * seen, used to drop duplicate rows, so memory grows with the file. The second is the participants no
+ * bucket could place yet; they are re-offered with every later bucket. Carry is bounded by the cohort,
+ * not the bucket: a file that never supplies a missing type (say, no LEADERs) carries everyone to the end.
+ *
+ * Buffer and bucket sizes come from -Dteammate.pipeline.buffer and -Dteammate.pipeline.bucket.
+ */
+public class FormationPipeline {
+
+    private static final int DEFAULT_BUFFER = Integer.getInteger("teammate.pipeline.buffer", 256);
+    private static final int DEFAULT_BUCKET = Integer.getInteger("teammate.pipeline.bucket", 2_048);
+    private static final int STAGES = 4; // consumer tasks: validate, bucket, form, persist
+
+    /** Totals of one run; the unformed participants are already persisted. */
+    public static class Result {
+        public final long parsed;
+        public final long rejected;
+        public final long buckets;
+        public final long teamsFormed;
+        public final List<Participant> unformedParticipants;
+
+        Result(long parsed, long rejected, long buckets, long teamsFormed, List<Participant> unformedParticipants) {
+            this.parsed = parsed;
+            this.rejected = rejected;
+            this.buckets = buckets;
+            this.teamsFormed = teamsFormed;
+            this.unformedParticipants = unformedParticipants;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Pipeline: %d parsed, %d rejected, %d bucket(s), %d team(s), %d unformed",
+                    parsed, rejected, buckets, teamsFormed, unformedParticipants.size());
+        }
+    }
+
+    // One formed bucket on its way to the persist stage
+    private record Formed(List<Participant> arrivals, List<Team> teams) {}
+
+    private final FileService fileService;
+    private final TeamMateDB db;
+    private final int teamSize;
+    private final FormationMode mode;
+    private TeamIdAllocator teamIds = Team.defaultIds();
+    private Long seed;
+    private int bufferSize = DEFAULT_BUFFER;
+    private int bucketSize = DEFAULT_BUCKET;
+
+    public FormationPipeline(FileService fileService, TeamMateDB db, int teamSize, FormationMode mode)
+            throws TeamMateException {
+        if (teamSize < TeamBuilder.MINIMUM_ACCEPTABLE_SIZE)
+            throw new TeamMateException("Team size must be at least " + TeamBuilder.MINIMUM_ACCEPTABLE_SIZE);
+        this.fileService = fileService;
+        this.db = db;
+        this.teamSize = teamSize;
+        this.mode = mode;
+    }
+
+    public void setTeamIds(TeamIdAllocator teamIds) { this.teamIds = teamIds; }
+
+    // Bucket i is formed with seed + i
+    public void setSeed(long seed) { this.seed = seed; }
+
+    public void setBufferSize(int bufferSize) { this.bufferSize = Math.max(1, bufferSize); }
+
+    public void setBucketSize(int bucketSize) { this.bucketSize = Math.max(teamSize, bucketSize); }
+
+    /**
+     * Runs the pipeline in the background: reads the participants CSV, writes teams to the teams CSV and
+     * participants plus teams to the JSONL file and the DB. Fails on the first stage error.
+     */
+    public CompletableFuture<Result> run(String participantsCsv, String teamsCsv, String jsonlPath) {
+        return new Run().start(participantsCsv, teamsCsv, jsonlPath);
+    }
+
+    // ==================== ONE RUN ====================
+
+    private final class Run {
+        private final CompletableFuture<Result> result = new CompletableFuture<>();
+        private final AtomicLong parsed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong buckets = new AtomicLong();
+        private final AtomicLong teamsFormed = new AtomicLong();
+        private final ExecutorService executor = newPool();
+
+        // Stage state: each is only touched by its own stage's consumer task
+        private final Set<String> seenIds = new HashSet<>();
+        private List<Participant> bucket = new ArrayList<>();
+        private List<Participant> carry = new ArrayList<>();
+        private final CompiledConstraints rules =
+                (mode == FormationMode.RELAXED ? TeamConstraints.relaxed() : TeamConstraints.strict()).compile(teamSize);
+
+        CompletableFuture<Result> start(String participantsCsv, String teamsCsv, String jsonlPath) {
+            SubmissionPublisher<Participant> source = new SubmissionPublisher<>(executor, bufferSize);
+            Stage<Participant, Participant> validate = new Stage<>(this::validate, null);
+            Stage<Participant, List<Participant>> bucketing = new Stage<>(this::bucket, this::flushBucket);
+            Stage<List<Participant>, Formed> form = new Stage<>(this::form, null);
+
+            PersistStage persist;
+            try {
+                persist = new PersistStage(teamsCsv, jsonlPath);
+            } catch (IOException e) {
+                executor.shutdown();
+                return CompletableFuture.failedFuture(e);
+            }
+            source.subscribe(validate);
+            validate.subscribe(bucketing);
+            bucketing.subscribe(form);
+            form.subscribe(persist);
+
+            result.whenComplete((r, err) -> executor.shutdown());
+            Thread reader = new Thread(() -> read(source, participantsCsv), "teammate-pipeline-reader");
+            reader.setDaemon(true);
+            reader.start();
+            return result;
+        }
+
+        // PARSE: submit() blocks while the validate stage's buffer is full
+        private void read(SubmissionPublisher<Participant> source, String path) {
+            try {
+                fileService.readParticipants(path, p -> {
+                    if (result.isDone()) throw new IOException("Pipeline stopped");
+                    parsed.incrementAndGet();
+                    source.submit(p);
+                });
+                source.close();
+            } catch (IOException | RuntimeException e) {
+                source.closeExceptionally(e);
+                result.completeExceptionally(e);
+            }
+        }
+
+        // VALIDATE / CLASSIFY: drops duplicate IDs and out-of-range skills, derives missing personality types
+        private void validate(Participant p, Consumer<Participant> out) {
+            String id = p.getId();
+            if (id == null || id.isEmpty() || !seenIds.add(id) || p.getSkillLevel() < 0 || p.getSkillLevel() > 100) {
+                rejected.incrementAndGet();
+                AppLogger.warning("Pipeline: rejected participant row " + id);
+                return;
+            }
+            if (p.getPersonalityType() == PersonalityType.UNCLASSIFIED && p.getPersonalityScore() > 0)
+                p.setPersonalityType(PersonalityClassifier.classify(p.getPersonalityScore()));
+            out.accept(p);
+        }
+
+        // BUCKET: fixed-size groups in arrival order
+        private void bucket(Participant p, Consumer<List<Participant>> out) {
+            bucket.add(p);
+            if (bucket.size() < bucketSize) return;
+            out.accept(bucket);
+            bucket = new ArrayList<>(bucketSize);
+        }
+
+        private void flushBucket(Consumer<List<Participant>> out) {
+            if (!bucket.isEmpty()) out.accept(bucket);
+            bucket = new ArrayList<>();
+        }
+
+        // FORM: the bucket plus everyone earlier buckets could not place
+        private void form(List<Participant> arrivals, Consumer<Formed> out) throws TeamMateException {
+            long index = buckets.getAndIncrement();
+            List<Participant> pool = new ArrayList<>(carry.size() + arrivals.size());
+            pool.addAll(carry);
+            pool.addAll(arrivals);
+
+            // A pool short of a required type forms nothing yet: carry it instead of failing the run
+            int[] supply = new int[PersonalityType.values().length];
+            for (Participant p : pool) supply[p.getPersonalityType().ordinal()]++;
+            if (rules.supplyShortfall(supply) != null) {
+                carry = pool;
+                out.accept(new Formed(arrivals, List.of()));
+                return;
+            }
+
+            TeamBuilder builder = new TeamBuilder(null);
+            if (seed != null) builder.setSeed(seed + index);
+            FormationControl control = new FormationControl(null, null, teamIds);
+            TeamBuilder.TeamFormationResult res = (mode == FormationMode.RELAXED)
+                    ? builder.buildTeamsFromUnformed(pool, teamSize, control)
+                    : builder.buildTeamsAndValidate(pool, teamSize, control);
+
+            carry = res.unformedParticipants;
+            teamsFormed.addAndGet(res.formedTeams.size());
+            out.accept(new Formed(arrivals, res.formedTeams));
+        }
+
+        private void finish() {
+            result.complete(new Result(parsed.get(), rejected.get(), buckets.get(), teamsFormed.get(),
+                    List.copyOf(carry)));
+        }
+
+        private void fail(Throwable t) {
+            if (result.completeExceptionally(t)) AppLogger.error("Formation pipeline failed: " + t);
+        }
+
+        /** Middle stage: requests one item at a time and republishes through its own bounded buffer. */
+        private final class Stage<I, O> extends SubmissionPublisher<O> implements Flow.Processor<I, O> {
+            private final Handler<I, O> handler;
+            private final Flusher<O> flusher;
+            private Flow.Subscription subscription;
+
+            Stage(Handler<I, O> handler, Flusher<O> flusher) {
+                super(executor, bufferSize);
+                this.handler = handler;
+                this.flusher = flusher;
+            }
+
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription = s;
+                s.request(1);
+            }
+
+            @Override
+            public void onNext(I item) {
+                try {
+                    handler.handle(item, this::submit);
+                    subscription.request(1);
+                } catch (Exception e) {
+                    subscription.cancel();
+                    closeExceptionally(e);
+                    fail(e);
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                closeExceptionally(t);
+                fail(t);
+            }
+
+            @Override
+            public void onComplete() {
+                if (flusher != null) flusher.flush(this::submit);
+                close();
+            }
+        }
+
+        /** Last stage: one DB commit and one round of file appends per formed bucket. */
+        private final class PersistStage implements Flow.Subscriber<Formed> {
+            private final FileService.TeamWriter teamWriter;
+            private final JsonLines.Writer jsonl;
+            private final Path jsonlPath;
+            private Flow.Subscription subscription;
+            private long records;
+
+            PersistStage(String teamsCsv, String jsonlPath) throws IOException {
+                this.jsonlPath = Path.of(jsonlPath);
+                this.teamWriter = fileService.openTeamWriter(teamsCsv);
+                try {
+                    this.jsonl = new JsonLines.Writer(this.jsonlPath);
+                } catch (IOException e) {
+                    teamWriter.close();
+                    throw e;
+                }
+            }
+
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription = s;
+                s.request(1);
+            }
+
+            @Override
+            public void onNext(Formed formed) {
+                TeamMateEvents.Persist event = TeamMateEvents.beginPersist();
+                try {
+                    // Participants and their teams become visible in one version
+                    TeamMateDB.Transaction tx = db.beginTransaction();
+                    for (Participant p : formed.arrivals()) tx.saveParticipant(p);
+                    for (Team t : formed.teams()) tx.saveTeam(t);
+                    tx.commit();
+
+                    // Members are always written before the teams that reference them
+                    for (Participant p : formed.arrivals()) jsonl.writeParticipant(p);
+                    for (Team t : formed.teams()) {
+                        jsonl.writeTeam(t);
+                        teamWriter.write(t);
+                    }
+                    records += formed.arrivals().size() + formed.teams().size();
+                    TeamMateEvents.endPersist(event, "pipeline", jsonlPath, formed.arrivals().size()
+                            + formed.teams().size(), 0);
+                    subscription.request(1);
+                } catch (TeamMateDBException | IOException e) {
+                    subscription.cancel();
+                    closeQuietly();
+                    fail(e);
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                closeQuietly();
+                fail(t);
+            }
+
+            @Override
+            public void onComplete() {
+                try {
+                    teamWriter.close();
+                    jsonl.close();
+                    AppLogger.info("Pipeline: persisted " + records + " record(s)");
+                    finish();
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+
+            private void closeQuietly() {
+                try {
+                    teamWriter.close();
+                    jsonl.close();
+                } catch (IOException e) {
+                    AppLogger.warning("Pipeline: could not close output files: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private interface Handler<I, O> {
+        void handle(I item, Consumer<O> out) throws Exception;
+    }
+
+    private interface Flusher<O> {
+        void flush(Consumer<O> out);
+    }
+
+    // One thread per consumer task, so a stage blocked on a full buffer never starves the stage draining it
+    private static ExecutorService newPool() {
+        AtomicInteger seq = new AtomicInteger(1);
+        return Executors.newFixedThreadPool(STAGES, r -> {
+            Thread t = new Thread(r, "teammate-pipeline-" + seq.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
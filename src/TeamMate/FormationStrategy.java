@@ -0,0 +1,21 @@
+package TeamMate;
+
+/** Algorithms the formation service can run */
+public enum FormationStrategy {
+    SEQUENTIAL,  // one team at a time over the whole pool
+    SHARDED,     // independent round-robin shards formed concurrently, then a merge pass
+    DRAFT,       // all teams filled together, round by round (snake draft)
+    PARITY;      // equal team skill totals via multiway number partitioning
+
+    // Cohort size from which the sharded builder pays off (-Dteammate.shard.threshold)
+    private static final int SHARD_THRESHOLD = Integer.getInteger("teammate.shard.threshold", 20_000);
+
+    // Forces one strategy for every cohort (-Dteammate.formation.strategy=DRAFT, ...)
+    private static final String FORCED = System.getProperty("teammate.formation.strategy");
+
+    /** Picks the default strategy for a cohort of the given size. */
+    public static FormationStrategy forCohort(int participants) {
+        if (FORCED != null) return valueOf(FORCED.trim().toUpperCase());
+        return participants >= SHARD_THRESHOLD ? SHARDED : SEQUENTIAL;
+    }
+}
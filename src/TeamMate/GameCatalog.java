@@ -0,0 +1,53 @@
+package TeamMate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns preferred-game names as small numeric IDs so hot paths can compare games as shorts.
+ * Matching is case-insensitive, like the equalsIgnoreCase checks it replaces.
+ * IDs are process-local: never persist them, persist the name.
+ */
+public class GameCatalog {
+
+    private static final Map<String, Short> IDS = new ConcurrentHashMap<>();
+    private static final List<String> NAMES = new ArrayList<>();
+    // Exact spellings, shared so participants with the same game reference one String
+    private static final Map<String, String> SPELLINGS = new ConcurrentHashMap<>();
+
+    private GameCatalog() {}
+
+    public static short idOf(String game) {
+        String key = game == null ? "" : game.toUpperCase(Locale.ROOT);
+        Short id = IDS.get(key);
+        if (id != null) return id;
+
+        synchronized (NAMES) {
+            return IDS.computeIfAbsent(key, k -> {
+                if (NAMES.size() >= Short.MAX_VALUE)
+                    throw new IllegalStateException("Too many distinct games: " + NAMES.size());
+                NAMES.add(game);
+                return (short) (NAMES.size() - 1);
+            });
+        }
+    }
+
+    public static String canonical(String game) {
+        if (game == null) return null;
+        String shared = SPELLINGS.putIfAbsent(game, game);
+        return shared != null ? shared : game;
+    }
+
+    // First spelling seen for this game
+    public static String nameOf(short id) {
+        synchronized (NAMES) {
+            return NAMES.get(id);
+        }
+    }
+
+    public static int size() {
+        synchronized (NAMES) {
+            return NAMES.size();
+        }
+    }
+}
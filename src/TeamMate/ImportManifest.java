@@ -0,0 +1,102 @@
+package TeamMate;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Properties;
+import java.util.zip.CRC32C;
+
+/**
+ * Remembers the size, modification time and content hash of every input file the DB was last
+ * consistent with, so startup can skip re-importing files that have not changed.
+ *
+ * A file counts as unchanged when its size and mtime match (no read at all), or when only the mtime
+ * moved but the CRC32C of its content still matches. The manifest is a small properties file written
+ * next to the DB file; it is only worth trusting once the DB itself has been flushed, so callers
+ * record files after {@link TeamMateDB#close()} or a checkpoint.
+ */
+public class ImportManifest {
+
+    public static final String MANIFEST_FILE = "import_manifest.properties";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final Properties entries = new Properties();
+
+    public ImportManifest() {
+        this(Path.of(MANIFEST_FILE));
+    }
+
+    public ImportManifest(Path path) {
+        this.path = path;
+        if (!Files.exists(path)) return;
+        try (Reader r = Files.newBufferedReader(path)) {
+            entries.load(r);
+        } catch (IOException | IllegalArgumentException e) {
+            AppLogger.warning("Ignoring unreadable import manifest " + path + ": " + e.getMessage());
+            entries.clear();
+        }
+    }
+
+    /** True if the file exists and is byte-for-byte what was recorded. */
+    public boolean isUnchanged(String file) {
+        Path p = Path.of(file);
+        String size = entries.getProperty(file + ".size");
+        if (size == null || !Files.exists(p)) return false;
+        try {
+            if (Files.size(p) != Long.parseLong(size)) return false;
+            if (String.valueOf(Files.getLastModifiedTime(p).toMillis()).equals(entries.getProperty(file + ".mtime")))
+                return true;
+            // Touched but maybe not edited: let the content decide
+            return String.valueOf(contentHash(p)).equals(entries.getProperty(file + ".hash"));
+        } catch (IOException | NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /** Records the file as it is now (or forgets it if it does not exist). */
+    public void record(String file) throws IOException {
+        Path p = Path.of(file);
+        if (!Files.exists(p)) {
+            forget(file);
+            return;
+        }
+        entries.setProperty(file + ".size", String.valueOf(Files.size(p)));
+        entries.setProperty(file + ".mtime", String.valueOf(Files.getLastModifiedTime(p).toMillis()));
+        entries.setProperty(file + ".hash", String.valueOf(contentHash(p)));
+    }
+
+    public void forget(String file) {
+        entries.remove(file + ".size");
+        entries.remove(file + ".mtime");
+        entries.remove(file + ".hash");
+    }
+
+    /** Writes the manifest atomically (temp file + rename, like the DB). */
+    public void save() throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (Writer w = Files.newBufferedWriter(tmp)) {
+            entries.store(w, "TeamMate import manifest");
+        }
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // CRC32C of the whole file, streamed through one direct buffer
+    static long contentHash(Path p) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ)) {
+            while (ch.read(buf) >= 0) {
+                buf.flip();
+                crc.update(buf);
+                buf.clear();
+            }
+        }
+        return crc.getValue();
+    }
+}
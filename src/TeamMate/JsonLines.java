@@ -0,0 +1,359 @@
+package TeamMate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming JSON Lines codec for participants and teams, one flat object per line:
+ *
+ *   {"type":"participant","id":"P1","name":"...","email":"...","game":"Chess","skill":7,"role":"ATTACKER","personalityScore":85,"personality":"LEADER"}
+ *   {"type":"team","id":"T1","size":3,"members":["P1","P2","P3"]}
+ *
+ * Teams reference members by ID only (no denormalized rows). Both sides work on a FileChannel with a
+ * fixed buffer and encode/decode UTF-8 by hand, so memory stays constant however large the export is.
+ */
+public class JsonLines {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Receives records as they are read; teams arrive as member IDs. */
+    public interface Handler {
+        void onParticipant(Participant p);
+
+        void onTeam(String teamId, List<String> memberIds);
+    }
+
+    // ==================== WRITER ====================
+
+    public static class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        public Writer(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        public void writeParticipant(Participant p) throws IOException {
+            raw("{\"type\":\"participant\",\"id\":");
+            string(p.getId());
+            raw(",\"name\":");
+            string(p.getName());
+            raw(",\"email\":");
+            string(p.getEmail());
+            raw(",\"game\":");
+            string(p.getInterest());
+            raw(",\"skill\":");
+            number(p.getSkillLevel());
+            raw(",\"role\":");
+            string(p.getPreferredRole().name());
+            raw(",\"personalityScore\":");
+            number(p.getPersonalityScore());
+            raw(",\"personality\":");
+            string(p.getPersonalityType().name());
+            raw("}\n");
+        }
+
+        public void writeTeam(Team t) throws IOException {
+            raw("{\"type\":\"team\",\"id\":");
+            string(t.getId());
+            raw(",\"size\":");
+            number(t.size());
+            raw(",\"members\":[");
+            boolean first = true;
+            for (String memberId : t.getMemberIds()) {
+                if (!first) put((byte) ',');
+                string(memberId);
+                first = false;
+            }
+            raw("]}\n");
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) channel.write(buf);
+            buf.clear();
+        }
+
+        private void put(byte b) throws IOException {
+            if (!buf.hasRemaining()) flush();
+            buf.put(b);
+        }
+
+        // ASCII-only literals
+        private void raw(String s) throws IOException {
+            for (int i = 0; i < s.length(); i++) put((byte) s.charAt(i));
+        }
+
+        private void number(int n) throws IOException {
+            if (n < 0) {
+                put((byte) '-');
+                if (n == Integer.MIN_VALUE) { raw("2147483648"); return; }
+                n = -n;
+            }
+            if (n >= 10) number(n / 10);
+            put((byte) ('0' + n % 10));
+        }
+
+        private void string(String s) throws IOException {
+            if (s == null) { raw("null"); return; }
+            put((byte) '"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"': raw("\\\""); break;
+                    case '\\': raw("\\\\"); break;
+                    case '\n': raw("\\n"); break;
+                    case '\r': raw("\\r"); break;
+                    case '\t': raw("\\t"); break;
+                    default:
+                        if (c < 0x20) {
+                            raw("\\u00");
+                            put((byte) Character.forDigit(c >> 4, 16));
+                            put((byte) Character.forDigit(c & 0xF, 16));
+                        } else if (c < 0x80) {
+                            put((byte) c);
+                        } else if (c < 0x800) {
+                            put((byte) (0xC0 | (c >> 6)));
+                            put((byte) (0x80 | (c & 0x3F)));
+                        } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                                && Character.isLowSurrogate(s.charAt(i + 1))) {
+                            int cp = Character.toCodePoint(c, s.charAt(++i));
+                            put((byte) (0xF0 | (cp >> 18)));
+                            put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                            put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                            put((byte) (0x80 | (cp & 0x3F)));
+                        } else {
+                            put((byte) (0xE0 | (c >> 12)));
+                            put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                            put((byte) (0x80 | (c & 0x3F)));
+                        }
+                }
+            }
+            put((byte) '"');
+        }
+    }
+
+    // ==================== READER ====================
+
+    /**
+     * Reads the file line by line and hands each record to the handler. Malformed lines are logged and
+     * skipped, like bad CSV rows. Returns the number of records delivered.
+     */
+    public static long read(Path path, Handler handler) throws IOException {
+        long records = 0;
+        int lineNo = 0;
+        LineParser parser = new LineParser();
+        ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            boolean eof = false;
+            while (!eof) {
+                eof = channel.read(buf) < 0;
+                buf.flip();
+                while (buf.hasRemaining()) {
+                    byte b = buf.get();
+                    if (b != '\n') {
+                        parser.append(b);
+                        continue;
+                    }
+                    lineNo++;
+                    if (parser.deliver(handler, lineNo)) records++;
+                }
+                buf.clear();
+            }
+            if (parser.length > 0 && parser.deliver(handler, ++lineNo)) records++;
+        }
+        return records;
+    }
+
+    // Parses one line at a time out of a reusable byte buffer
+    private static final class LineParser {
+        private byte[] line = new byte[1024];
+        private int length;
+        private int pos;
+        private final StringBuilder sb = new StringBuilder();
+        private final List<String> members = new ArrayList<>();
+
+        // Field values of the current record
+        private String type, id, name, email, game, role, personality;
+        private int skill, personalityScore;
+
+        void append(byte b) {
+            if (length == line.length) line = java.util.Arrays.copyOf(line, length * 2);
+            line[length++] = b;
+        }
+
+        boolean deliver(Handler handler, int lineNo) {
+            try {
+                if (blank()) return false;
+                parse();
+                if ("participant".equals(type)) {
+                    handler.onParticipant(new Participant(id, name, email, game, Role.valueOf(role), skill,
+                            personalityScore, PersonalityType.valueOf(personality)));
+                } else if ("team".equals(type)) {
+                    handler.onTeam(id, new ArrayList<>(members));
+                } else {
+                    throw new IllegalArgumentException("unknown type " + type);
+                }
+                return true;
+            } catch (RuntimeException e) {
+                AppLogger.warning("Skipping bad JSON line " + lineNo + ": " + e.getMessage());
+                return false;
+            } finally {
+                length = 0;
+            }
+        }
+
+        private boolean blank() {
+            for (int i = 0; i < length; i++) if (line[i] > ' ') return false;
+            return true;
+        }
+
+        private void parse() {
+            type = id = name = email = game = role = personality = null;
+            skill = personalityScore = 0;
+            members.clear();
+            pos = 0;
+
+            expect('{');
+            if (peek() != '}') {
+                do {
+                    String key = readString();
+                    expect(':');
+                    switch (key) {
+                        case "type": type = readString(); break;
+                        case "id": id = readString(); break;
+                        case "name": name = readString(); break;
+                        case "email": email = readString(); break;
+                        case "game": game = readString(); break;
+                        case "role": role = readString(); break;
+                        case "personality": personality = readString(); break;
+                        case "skill": skill = readInt(); break;
+                        case "personalityScore": personalityScore = readInt(); break;
+                        case "members": readMembers(); break;
+                        default: skipValue();
+                    }
+                } while (consume(','));
+            }
+            expect('}');
+            if (id == null) throw new IllegalArgumentException("missing id");
+        }
+
+        private void readMembers() {
+            expect('[');
+            if (consume(']')) return;
+            do members.add(readString()); while (consume(','));
+            expect(']');
+        }
+
+        private void skipValue() {
+            byte c = peek();
+            if (c == '"') readString();
+            else if (c == '[') {
+                pos++;
+                if (consume(']')) return;
+                do skipValue(); while (consume(','));
+                expect(']');
+            } else if (c == '{') {
+                pos++;
+                if (consume('}')) return;
+                do { readString(); expect(':'); skipValue(); } while (consume(','));
+                expect('}');
+            } else {
+                while (pos < length && line[pos] != ',' && line[pos] != '}' && line[pos] != ']') pos++;
+            }
+        }
+
+        private int readInt() {
+            peek();
+            boolean neg = consume('-');
+            int start = pos, n = 0;
+            while (pos < length && line[pos] >= '0' && line[pos] <= '9') n = n * 10 + (line[pos++] - '0');
+            if (pos == start) throw new IllegalArgumentException("number expected at " + pos);
+            return neg ? -n : n;
+        }
+
+        private String readString() {
+            if (peek() == 'n') {
+                expectLiteral("null");
+                return null;
+            }
+            expect('"');
+            sb.setLength(0);
+            while (true) {
+                if (pos >= length) throw new IllegalArgumentException("unterminated string");
+                int b = line[pos++] & 0xFF;
+                if (b == '"') return sb.toString();
+                if (b == '\\') {
+                    if (pos >= length) throw new IllegalArgumentException("unterminated escape");
+                    char e = (char) line[pos++];
+                    switch (e) {
+                        case 'n': sb.append('\n'); break;
+                        case 'r': sb.append('\r'); break;
+                        case 't': sb.append('\t'); break;
+                        case 'b': sb.append('\b'); break;
+                        case 'f': sb.append('\f'); break;
+                        case 'u':
+                            if (pos + 4 > length) throw new IllegalArgumentException("bad \\u escape");
+                            sb.append((char) Integer.parseInt(new String(line, pos, 4, java.nio.charset.StandardCharsets.US_ASCII), 16));
+                            pos += 4;
+                            break;
+                        default: sb.append(e);   // \" \\ \/
+                    }
+                } else if (b < 0x80) {
+                    sb.append((char) b);
+                } else if (b < 0xE0) {
+                    sb.append((char) (((b & 0x1F) << 6) | cont()));
+                } else if (b < 0xF0) {
+                    sb.append((char) (((b & 0x0F) << 12) | (cont() << 6) | cont()));
+                } else {
+                    sb.appendCodePoint(((b & 0x07) << 18) | (cont() << 12) | (cont() << 6) | cont());
+                }
+            }
+        }
+
+        private int cont() {
+            if (pos >= length) throw new IllegalArgumentException("truncated UTF-8");
+            return line[pos++] & 0x3F;
+        }
+
+        private byte peek() {
+            while (pos < length && line[pos] <= ' ') pos++;
+            if (pos >= length) throw new IllegalArgumentException("unexpected end of line");
+            return line[pos];
+        }
+
+        private boolean consume(char c) {
+            if (pos < length && peek() == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (peek() != c) throw new IllegalArgumentException("'" + c + "' expected at " + pos);
+            pos++;
+        }
+
+        private void expectLiteral(String lit) {
+            for (int i = 0; i < lit.length(); i++) expect(lit.charAt(i));
+        }
+    }
+}
@@ -1,18 +1,37 @@
 package TeamMate;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class MainApp {
 
     private static final FileService fileService = new FileService();
     private static final ExecutorService executor = Executors.newSingleThreadExecutor();
     private static final TeamMateDB teamMateDB = new TeamMateDB(); // INSTANTIATES & LOADS DB
-    private static List<Participant> unformedParticipantsCache = new CopyOnWriteArrayList<>();
+    private static final ParticipantRegistry unformedParticipantsCache = new ParticipantRegistry();
     private static List<Team> teams = new CopyOnWriteArrayList<>();
-    private static List<Participant> participants = new CopyOnWriteArrayList<>();
+    private static final ParticipantRegistry participants = new ParticipantRegistry();
+    // Teams hold member IDs and resolve them through the participants registry, the one copy of every participant
+    private static final TeamIdAllocator teamIds = new TeamIdAllocator(participants::find);
+    // Held by console formations (options 6 and 7), waitlist teams and HTTP formations
+    private static final ReentrantLock formationLock = new ReentrantLock();
     private static int lastTeamSize = 0;
+    private static final Duration FORMATION_DEADLINE =
+            Duration.ofSeconds(Long.getLong("teammate.formation.deadline.seconds", 300));
+    private static volatile TeamFormation.Progress latestProgress;
+    // One shuffle seed per session (fixed via -Dteammate.formation.seed) so repeat formations hit the cache
+    private static final long FORMATION_SEED =
+            Long.getLong("teammate.formation.seed", new Random().nextLong());
+
+    // Team size for automatic waitlist formation (-Dteammate.waitlist.teamSize, 0 = off)
+    private static final int WAITLIST_TEAM_SIZE = Integer.getInteger("teammate.waitlist.teamSize", 0);
+    private static WaitlistEngine waitlist;
+    // Embedded HTTP API (-Dteammate.http.port, 0 = off; -Dteammate.http.host; -Dteammate.http.token for organizers)
+    private static final int HTTP_PORT = Integer.getInteger("teammate.http.port", 0);
+    private static TeamMateServer httpServer;
 
     public static void main(String[] args) {
         Scanner scanner = new Scanner(System.in);
@@ -23,29 +42,41 @@ public class MainApp {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             AppLogger.info("Application received shutdown signal. Saving data...");
             try {
-                teamMateDB.saveToDisk();
+                teamMateDB.close(); // flushes only the changes since the last checkpoint
                 AppLogger.info("Database saved successfully.");
+                recordImportManifest();
+                FormationCache.shared().saveToDisk();
             } catch (TeamMateDBException e) {
                 AppLogger.error("Failed to save database on shutdown.", e);
             }
+            // The JSONL export is written once per session instead of being rewritten after every change
+            try {
+                fileService.exportJsonLines(participants, teams, FileService.JSONL_FILE);
+            } catch (IOException e) {
+                AppLogger.error("Failed to export " + FileService.JSONL_FILE + " on shutdown.", e);
+            }
         }));
         // ----------------------------------------------------
+        teamMateDB.startCheckpointer();
 
-        // Step 1: Initialize participants list from CSV
-        try {
-            List<Participant> csvParticipants = fileService.loadParticipants(FileService.INPUT_FILE);
-            AppLogger.info("Loaded " + csvParticipants.size() + " participants from CSV.");
+        // Cached formations for a cohort are dropped as soon as that cohort changes
+        FormationCache formationCache = FormationCache.shared();
+        formationCache.loadFromDisk();
+        participants.addStaleFingerprintListener(formationCache::invalidate);
+        unformedParticipantsCache.addStaleFingerprintListener(formationCache::invalidate);
 
-            // Add all CSV participants to the in-memory participant list
-            participants.addAll(csvParticipants);
+        // Inputs the DB was consistent with at the last shutdown: unchanged files are not re-imported
+        ImportManifest manifest = new ImportManifest();
 
-            // Save participants to DB stub (this effectively updates/imports data from CSV into the persistent DB)
-            for (Participant p : participants) {
-                try {
-                    teamMateDB.saveParticipant(p);
-                } catch (TeamMateDBException e) {
-                    AppLogger.error("Failed to save participant " + p.getId() + " to DB on startup", e);
-                }
+        // Step 1: Initialize participants from the DB if the CSV is unchanged, otherwise import the CSV
+        try {
+            List<Participant> stored = teamMateDB.findAllParticipants();
+            if (!stored.isEmpty() && manifest.isUnchanged(FileService.INPUT_FILE)) {
+                stored.sort(Comparator.comparing(Participant::getId));
+                participants.addAll(stored);
+                AppLogger.info("Participants CSV unchanged: loaded " + stored.size() + " participants from DB.");
+            } else {
+                importParticipants(fileService.loadParticipants(FileService.INPUT_FILE));
             }
         } catch (java.io.FileNotFoundException e) {
             // YOUR CUSTOM REQUIREMENT: File not found
@@ -59,26 +90,30 @@ public class MainApp {
         try {
             // Load teams from the DB and update the in-memory teams list
             teams.addAll(teamMateDB.findAllTeams());
-            if (teams.isEmpty()) {
-                // FALLBACK: If DB was empty or failed to load, try to load teams from CSV
-                teams.addAll(fileService.loadTeams(FileService.OUTPUT_FILE, participants));
-                for (Team t : teams) {
-                    try {
-                        teamMateDB.saveTeam(t);
-                    } catch (TeamMateDBException e) {
-                        AppLogger.error("Failed to save imported team " + t.getId() + " to DB", e);
-                    }
+            // FALLBACK: If DB was empty or failed to load, try to load teams from CSV (unless the DB already matched it)
+            if (teams.isEmpty() && !manifest.isUnchanged(FileService.OUTPUT_FILE)) {
+                teams.addAll(fileService.loadTeams(FileService.OUTPUT_FILE, participants.snapshot()));
+                TeamMateDB.Transaction tx = teamMateDB.beginTransaction();
+                try {
+                    for (Team t : teams) tx.saveTeam(t);
+                    tx.commit();
+                } catch (TeamMateDBException e) {
+                    AppLogger.error("Failed to save imported teams to DB", e);
                 }
             }
 
-            Team.initializeCounter(teams);
+            for (Team t : teams) t.setStore(participants::find);
+            teamIds.advancePast(teams);
             AppLogger.info("Initialized with " + teams.size() + " teams.");
 
         } catch (IOException e) {
             AppLogger.warning("No formed teams loaded from CSV or DB.");
-            Team.resetCounter();
+            teamIds.reset();
         }
 
+        startWaitlist();
+        startHttpServer();
+
         boolean exit = false;
         while (!exit) {
             showMainMenu();
@@ -89,6 +124,8 @@ public class MainApp {
                 case "3":
                     exit = true;
                     executor.shutdown(); // Shutdown the executor service
+                    if (httpServer != null) httpServer.stop();
+                    TeamFormation.shutdown();
                     break;
                 default: System.out.println("Invalid choice. Enter a number between 1-3"); break;
             }
@@ -114,9 +151,10 @@ public class MainApp {
             String c = scanner.nextLine().trim();
             switch (c) {
                 case "1":
-                    Future<Participant> f = executor.submit(
-                            new SurveyProcessor(scanner, participants, fileService, unformedParticipantsCache)
-                    );
+                    SurveyProcessor survey =
+                            new SurveyProcessor(scanner, participants, fileService, unformedParticipantsCache, waitlist);
+                    survey.setFormationLock(formationLock);
+                    Future<Participant> f = executor.submit(survey);
                     try {
                         Participant p = f.get();
                         if (p != null) {
@@ -156,10 +194,7 @@ public class MainApp {
             return;
         }
 
-        Participant found = participants.stream()
-                .filter(p -> p.getId().equalsIgnoreCase(input))
-                .findFirst()
-                .orElse(null);
+        Participant found = participants.find(input);
 
         if (found == null) {
             System.out.println("Participant ID is not available in the list.");
@@ -191,24 +226,27 @@ public class MainApp {
             System.out.println("5) View All Participants");
             System.out.println("6) Make Team With Unformed Participants");
             System.out.println("7) Form Teams (From ALL participants)");
-            System.out.println("8) Back");
+            System.out.println("8) Compare Team Sizes (dry run)");
+            System.out.println("9) Back");
             System.out.print("Choice: ");
             String c = scanner.nextLine().trim();
             try {
                 switch (c) {
                     case "1":
-                        ParticipantEditor.editParticipant(participants, scanner);
-                        fileService.saveParticipants(participants, FileService.INPUT_FILE);
+                        ParticipantEditor.editParticipant(participants, unformedParticipantsCache, scanner);
+                        syncWaitlist();
+                        fileService.saveParticipants(participants.snapshot(), FileService.INPUT_FILE);
                         // Save all participants to DB
-                        for (Participant p : participants) teamMateDB.saveParticipant(p);
+                        saveAll(participants, List.of());
                         break;
                     case "2":
                         ParticipantEditor.removeParticipant(participants, teams, unformedParticipantsCache, scanner);
-                        fileService.saveParticipants(participants, FileService.INPUT_FILE);
+                        syncWaitlist();
+                        fileService.saveParticipants(participants.snapshot(), FileService.INPUT_FILE);
                         fileService.saveTeams(teams, FileService.OUTPUT_FILE);
                         // Save all participants/teams to DB
-                        for (Participant p : participants) teamMateDB.saveParticipant(p);
-                        for (Team t : teams) teamMateDB.saveTeam(t);
+                        saveAll(participants, teams);
+                        pruneRemovedParticipants();
                         break;
                     case "3":
                         if (unformedParticipantsCache.isEmpty()) System.out.println("No unformed participants.");
@@ -232,7 +270,7 @@ public class MainApp {
                         } else {
                             System.out.println("\n--- ALL PARTICIPANTS (" + participants.size() + " total) ---");
                             // Sorting by ID before display is helpful for the user
-                            participants.stream()
+                            participants.snapshot().stream()
                                     .sorted(Comparator.comparing(Participant::getId))
                                     .forEach(System.out::println);
                             System.out.println("----------------------------------------------\n");
@@ -245,9 +283,12 @@ public class MainApp {
                         formTeamsFromAll(scanner);
                         break;
                     case "8":
+                        compareTeamSizes(scanner);
+                        break;
+                    case "9":
                         back = true; break;
                     default:
-                        System.out.println("Invalid option. Choose a number between 1 and 8.");
+                        System.out.println("Invalid option. Choose a number between 1 and 9.");
                 }
             } catch (IOException e) {
                 AppLogger.error("File I/O error", e);
@@ -278,27 +319,60 @@ public class MainApp {
 
         lastTeamSize = teamSize;
 
-        TeamBuilder tb = new TeamBuilder();
-        TeamBuilder.TeamFormationResult res = tb.buildTeamsFromUnformed(
-                new ArrayList<>(unformedParticipantsCache), teamSize
-        );
+        formationLock.lock();
+        try {
+            // Instant answer from the live counts before any formation work
+            FeasibilityOracle.Feasibility feasible =
+                    unformedParticipantsCache.feasibility(TeamConstraints.relaxed().compile(teamSize));
+            System.out.println(feasible);
+            if (feasible.maxTeams == 0) return;
+
+            ParticipantRegistry.Snapshot cohort = unformedParticipantsCache.snapshot();
+            TeamBuilder.TeamFormationResult res = awaitFormation(TeamFormation.formTeamsAsync(
+                    cohort, teamSize, FormationMode.RELAXED, FormationStrategy.forCohort(cohort.size()),
+                    FORMATION_SEED, FORMATION_DEADLINE, p -> latestProgress = p, teamIds
+            ));
+
+            if (res.formedTeams.isEmpty()) {
+                System.out.println("No valid team can be formed with the remaining unformed participants.");
+                return;
+            }
+
+            for (Team t : res.formedTeams) System.out.println(t);
+            saveAll(List.of(), res.formedTeams);
 
-        if (res.formedTeams.isEmpty()) {
-            System.out.println("No valid team can be formed with the remaining unformed participants.");
-            return;
+            unformedParticipantsCache.replaceAll(res.unformedParticipants);
+            syncWaitlist();
+            teams.addAll(res.formedTeams);
+            fileService.saveTeams(teams, FileService.OUTPUT_FILE);
+
+            AppLogger.info("Formed " + res.formedTeams.size() + " team(s) from unformed cache.");
+            System.out.println("Formed " + res.formedTeams.size() + " team(s).");
+        } finally {
+            formationLock.unlock();
         }
+    }
 
-        for (Team t : res.formedTeams) {
-            System.out.println(t);
-            teamMateDB.saveTeam(t);
+    // Dry-run sweep over a range of team sizes (strict mode, nothing saved)
+    private static void compareTeamSizes(Scanner scanner) throws TeamMateException {
+        int minSize, maxSize;
+        try {
+            System.out.print("Smallest team size (>= 3): ");
+            minSize = Integer.parseInt(scanner.nextLine().trim());
+            System.out.print("Largest team size: ");
+            maxSize = Integer.parseInt(scanner.nextLine().trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid.");
+            return;
         }
 
-        unformedParticipantsCache = res.unformedParticipants;
-        teams.addAll(res.formedTeams);
-        fileService.saveTeams(teams, FileService.OUTPUT_FILE);
+        List<TeamSizeSweep.Row> rows = new TeamSizeSweep().sweep(
+                participants.snapshot(), minSize, maxSize, FormationMode.STRICT, FORMATION_DEADLINE);
 
-        AppLogger.info("Formed " + res.formedTeams.size() + " team(s) from unformed cache.");
-        System.out.println("Formed " + res.formedTeams.size() + " team(s).");
+        System.out.println("\n--- TEAM SIZE COMPARISON (" + participants.size() + " participants, dry run) ---");
+        System.out.println(TeamSizeSweep.HEADER);
+        rows.forEach(System.out::println);
+        System.out.println("----------------------------------------------\n");
     }
 
     // Form teams using ALL participants (strict mode)
@@ -313,46 +387,172 @@ public class MainApp {
         }
 
         lastTeamSize = teamSize;
-        TeamBuilder tb = new TeamBuilder();
-        // 1. Declare 'res' outside the try-block
-        TeamBuilder.TeamFormationResult res;
 
-        // 2. Wrap the call in a try-catch block for validation handling
+        formationLock.lock();
         try {
-            res = tb.buildTeamsAndValidate(new ArrayList<>(participants), teamSize);
-        } catch (TeamMateException e) {
-            // This block executes if teamSize < 3
-            System.out.println(e.getMessage()); // Prints: "Team size must be at least 3"
-            AppLogger.warning("Team formation failed: " + e.getMessage());
-            return; // Stops execution here
+            if (teamSize >= 3) {
+                // Instant answer from the live counts before any formation work
+                FeasibilityOracle.Feasibility feasible = participants.feasibility(TeamConstraints.strict().compile(teamSize));
+                System.out.println(feasible);
+                if (feasible.maxTeams == 0) return;
+            }
+            // 1. Declare 'res' outside the try-block
+            TeamBuilder.TeamFormationResult res;
+
+            // 2. Wrap the call in a try-catch block for validation handling
+            try {
+                ParticipantRegistry.Snapshot cohort = participants.snapshot();
+                res = awaitFormation(TeamFormation.formTeamsAsync(
+                        cohort, teamSize, FormationMode.STRICT, FormationStrategy.forCohort(cohort.size()),
+                        FORMATION_SEED, FORMATION_DEADLINE, p -> latestProgress = p, teamIds));
+            } catch (TeamMateException e) {
+                // This block executes if teamSize < 3
+                System.out.println(e.getMessage()); // Prints: "Team size must be at least 3"
+                AppLogger.warning("Team formation failed: " + e.getMessage());
+                return; // Stops execution here
+            }
+
+            // Execution only reaches here if validation in TeamBuilder passed.
+
+            if (res.formedTeams.isEmpty()) {
+                System.out.println("No valid teams could be formed from all participants.");
+                return;
+            }
+
+            // Save all formed teams and participants to DB in one atomic commit
+            saveAll(participants, res.formedTeams);
+
+            teams.addAll(res.formedTeams);
+            unformedParticipantsCache.replaceAll(res.unformedParticipants);
+            syncWaitlist();
+
+            fileService.saveTeams(teams, FileService.OUTPUT_FILE);
+            fileService.saveParticipants(participants.snapshot(), FileService.INPUT_FILE);
+
+            AppLogger.info("Formed " + res.formedTeams.size() + " team(s) from all participants.");
+            System.out.println("Formed " + res.formedTeams.size() + " team(s). Unformed participants: " + res.unformedParticipants.size());
+        } finally {
+            formationLock.unlock();
+        }
+    }
+
+    // Waits for a background formation, printing progress so long runs don't look frozen
+    private static TeamBuilder.TeamFormationResult awaitFormation(
+            CompletableFuture<TeamBuilder.TeamFormationResult> future) throws TeamMateException {
+        latestProgress = null;
+        while (true) {
+            try {
+                return future.get(1, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                TeamFormation.Progress p = latestProgress;
+                System.out.println("Forming teams... (" + (p == null ? "starting" : p) + ")");
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new TeamMateException("Team formation interrupted.", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof TeamMateException tme) throw tme;
+                if (cause instanceof TimeoutException)
+                    throw new TeamMateException("Team formation exceeded its deadline of "
+                            + FORMATION_DEADLINE.toSeconds() + "s.", cause);
+                throw new TeamMateException("Team formation failed: " + cause.getMessage(), cause);
+            }
+        }
+    }
+
+    // Applies only the CSV rows that differ from the DB (new or edited) and drops rows the CSV no longer has,
+    // in one commit: the manifest recorded at shutdown then vouches for a DB that matches the CSV
+    private static void importParticipants(List<Participant> csvParticipants) {
+        AppLogger.info("Loaded " + csvParticipants.size() + " participants from CSV.");
+        participants.addAll(csvParticipants);
+        try {
+            teamMateDB.importParticipants(csvParticipants);
+        } catch (TeamMateDBException e) {
+            AppLogger.error("Failed to import participants into DB on startup", e);
         }
+    }
 
-        // Execution only reaches here if validation in TeamBuilder passed.
+    // The DB must not outlive a removal: startup may load participants from it instead of the CSV
+    private static void pruneRemovedParticipants() throws TeamMateDBException {
+        TeamMateDB.Transaction tx = teamMateDB.beginTransaction();
+        for (Participant p : teamMateDB.findAllParticipants())
+            if (!participants.contains(p.getId())) tx.deleteParticipant(p.getId());
+        if (tx.size() > 0) tx.commit();
+    }
 
-        if (res.formedTeams.isEmpty()) {
-            System.out.println("No valid teams could be formed from all participants.");
-            return;
+    // Called once the DB is flushed: the CSV files now match it
+    private static void recordImportManifest() {
+        try {
+            ImportManifest manifest = new ImportManifest();
+            manifest.record(FileService.INPUT_FILE);
+            manifest.record(FileService.OUTPUT_FILE);
+            manifest.save();
+        } catch (IOException e) {
+            AppLogger.warning("Could not write import manifest: " + e.getMessage());
+        }
+    }
+
+    private static void startWaitlist() {
+        if (WAITLIST_TEAM_SIZE == 0) return;
+        try {
+            waitlist = new WaitlistEngine(WAITLIST_TEAM_SIZE, TeamConstraints.relaxed(), MainApp::persistWaitlistTeam,
+                    teamIds);
+            waitlist.reset(unformedParticipantsCache);
+            AppLogger.info("Waitlist forms teams of " + WAITLIST_TEAM_SIZE + " as surveys arrive.");
+        } catch (TeamMateException e) {
+            AppLogger.warning("Waitlist disabled: " + e.getMessage());
         }
+    }
 
-        // Save all formed teams and participants to DB
-        for (Team t : res.formedTeams) teamMateDB.saveTeam(t);
-        for (Participant p : participants) teamMateDB.saveParticipant(p);
+    private static void startHttpServer() {
+        if (HTTP_PORT == 0) return;
+        httpServer = new TeamMateServer(participants, unformedParticipantsCache, teams, teamMateDB, fileService,
+                System.getProperty("teammate.http.token"));
+        httpServer.setWaitlist(waitlist);
+        httpServer.setTeamIds(teamIds);
+        httpServer.setFormationLock(formationLock);
+        try {
+            httpServer.start(System.getProperty("teammate.http.host", "127.0.0.1"), HTTP_PORT);
+        } catch (IOException e) {
+            AppLogger.error("Could not start HTTP API on port " + HTTP_PORT, e);
+            httpServer = null;
+        }
+    }
 
-        teams.addAll(res.formedTeams);
-        unformedParticipantsCache.clear();
-        unformedParticipantsCache.addAll(res.unformedParticipants);
+    // Unformed list changed outside the waitlist (manual formation, edit, removal)
+    private static void syncWaitlist() {
+        if (waitlist != null) waitlist.reset(unformedParticipantsCache);
+    }
 
-        fileService.saveTeams(teams, FileService.OUTPUT_FILE);
-        fileService.saveParticipants(participants, FileService.INPUT_FILE);
+    // Waitlist callback: one commit for the new team and its rows appended to the teams CSV
+    private static void persistWaitlistTeam(Team team) {
+        formationLock.lock();
+        try {
+            for (String memberId : team.getMemberIds()) unformedParticipantsCache.remove(memberId);
+            teams.add(team);
+            saveAll(List.of(), List.of(team));
+            fileService.appendTeams(List.of(team), FileService.OUTPUT_FILE);
+        } catch (TeamMateDBException | IOException e) {
+            AppLogger.error("Failed to persist waitlist team " + team.getId(), e);
+        } finally {
+            formationLock.unlock();
+        }
+    }
 
-        AppLogger.info("Formed " + res.formedTeams.size() + " team(s) from all participants.");
-        System.out.println("Formed " + res.formedTeams.size() + " team(s). Unformed participants: " + res.unformedParticipants.size());
+    // Commits participants and teams as one DB version, so readers never see half a formation
+    private static void saveAll(Iterable<Participant> ps, List<Team> ts) throws TeamMateDBException {
+        TeamMateDB.Transaction tx = teamMateDB.beginTransaction();
+        for (Participant p : ps) tx.saveParticipant(p);
+        for (Team t : ts) tx.saveTeam(t);
+        long version = tx.commit();
+        AppLogger.info("DB: Committed version " + version + " (" + tx.size() + " changes)");
     }
 
     private static Team findTeamByParticipantId(List<Team> teams, String participantId) {
         for (Team t : teams) {
-            for (Participant m : t.getMembers()) {
-                if (m.getId().equalsIgnoreCase(participantId)) return t;
+            for (String memberId : t.getMemberIds()) {
+                if (memberId.equalsIgnoreCase(participantId)) return t;
             }
         }
         return null;
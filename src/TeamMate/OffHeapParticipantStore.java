@@ -0,0 +1,284 @@
+package TeamMate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Participant store outside the Java heap, for cohorts too large to keep as objects.
+ *
+ * Each participant is a fixed 32-byte record (ID number, string refs, game index, role, personality,
+ * skill, personality score); IDs, names and emails that are not the generated defaults go into a
+ * separate string arena. Both regions are direct buffers, or memory-mapped files when the store is
+ * opened on a path, in which case the files are the persistence format. Participant objects are only
+ * created on demand by {@link #get(int)} and the {@link #asList()} view.
+ */
+public class OffHeapParticipantStore implements Closeable {
+
+    private static final int MAGIC = 0x544D5053;   // "TMPS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_GAMES = 1000;
+    private static final int HEADER = 4096;        // magic, version, count, arena used, game count, game refs
+
+    // RECORD LAYOUT
+    private static final int RECORD = 32;
+    private static final int ID_NUMBER = 0;        // n for canonical "P<n>" IDs, -1 otherwise
+    private static final int ID_REF = 4;           // arena offset of a non-canonical ID
+    private static final int NAME_REF = 8;         // -1 = default name
+    private static final int EMAIL_REF = 12;       // -1 = default email
+    private static final int GAME = 16;            // index into the store's game table
+    private static final int ROLE = 18;
+    private static final int PERSONALITY = 19;
+    private static final int SKILL = 20;
+    private static final int SCORE = 24;
+
+    private static final Role[] ROLES = Role.values();
+    private static final PersonalityType[] TYPES = PersonalityType.values();
+
+    private final FileChannel recordFile;          // null for a purely in-memory store
+    private final FileChannel arenaFile;
+    private volatile ByteBuffer records;
+    private volatile ByteBuffer arena;
+    private volatile int count;
+    private int arenaUsed;
+
+    // Game table: store-local index -> spelling and process-local GameCatalog ID
+    private final List<String> games = new ArrayList<>();
+    private final Map<String, Integer> gameIndex = new HashMap<>();
+    private volatile String[] gameNames = new String[0];   // copy-on-write, read without locking
+    private volatile short[] gameIds = new short[0];
+
+    /** In-memory store on direct buffers. */
+    public OffHeapParticipantStore() {
+        this.recordFile = null;
+        this.arenaFile = null;
+        this.records = ByteBuffer.allocateDirect(HEADER + 1024 * RECORD);
+        this.arena = ByteBuffer.allocateDirect(64 * 1024);
+        writeHeader();
+    }
+
+    private OffHeapParticipantStore(FileChannel recordFile, FileChannel arenaFile) throws IOException {
+        this.recordFile = recordFile;
+        this.arenaFile = arenaFile;
+        this.records = map(recordFile, Math.max(recordFile.size(), HEADER + 1024 * RECORD));
+        this.arena = map(arenaFile, Math.max(arenaFile.size(), 64 * 1024));
+    }
+
+    /**
+     * Opens (or creates) a file-backed store: 'base.rec' holds the header and records, 'base.str' the
+     * string arena. Appends are written straight into the mapped files.
+     */
+    public static OffHeapParticipantStore open(Path base) throws IOException {
+        Path rec = base.resolveSibling(base.getFileName() + ".rec");
+        Path str = base.resolveSibling(base.getFileName() + ".str");
+        FileChannel recordFile = FileChannel.open(rec, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        FileChannel arenaFile = FileChannel.open(str, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        boolean fresh = recordFile.size() == 0;
+
+        OffHeapParticipantStore store = new OffHeapParticipantStore(recordFile, arenaFile);
+        if (fresh) store.writeHeader();
+        else store.readHeader(rec);
+        return store;
+    }
+
+    // ==================== WRITES ====================
+
+    /** Appends a participant and returns its index. Writers are serialized; readers never lock. */
+    public synchronized int append(Participant p) throws IOException {
+        ensureRecordCapacity(count + 1);
+        ByteBuffer r = records;
+        int at = HEADER + count * RECORD;
+
+        String id = p.getId();
+        int number = Participant.canonicalNumber(id);
+        r.putInt(at + ID_NUMBER, number);
+        r.putInt(at + ID_REF, number < 0 ? putString(id) : -1);
+        // Same rule as Participant: get() rebuilds with null, which derives the identical default
+        r.putInt(at + NAME_REF, p.hasGeneratedName() ? -1 : putString(p.getName()));
+        r.putInt(at + EMAIL_REF, p.hasGeneratedEmail() ? -1 : putString(p.getEmail()));
+        r.putShort(at + GAME, (short) gameIndexOf(p.getInterest()));
+        r.put(at + ROLE, (byte) p.getPreferredRole().ordinal());
+        r.put(at + PERSONALITY, (byte) p.getPersonalityType().ordinal());
+        r.putInt(at + SKILL, p.getSkillLevel());
+        r.putInt(at + SCORE, p.getPersonalityScore());
+
+        count++;               // publish after the record is complete
+        writeHeader();
+        return count - 1;
+    }
+
+    public void appendAll(Iterable<Participant> ps) throws IOException {
+        for (Participant p : ps) append(p);
+    }
+
+    /** Forces mapped files to disk (no-op for in-memory stores). */
+    public synchronized void flush() {
+        if (recordFile == null) return;
+        ((MappedByteBuffer) arena).force();
+        ((MappedByteBuffer) records).force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (recordFile == null) return;
+        flush();
+        recordFile.close();
+        arenaFile.close();
+    }
+
+    // ==================== READS ====================
+
+    public int size() { return count; }
+
+    public int skill(int i) { return records.getInt(offset(i) + SKILL); }
+
+    public Role role(int i) { return ROLES[records.get(offset(i) + ROLE)]; }
+
+    public PersonalityType personality(int i) { return TYPES[records.get(offset(i) + PERSONALITY)]; }
+
+    public int personalityScore(int i) { return records.getInt(offset(i) + SCORE); }
+
+    /** Process-local GameCatalog ID of the participant's game. */
+    public short gameId(int i) { return gameIds[records.getShort(offset(i) + GAME)]; }
+
+    public String id(int i) {
+        ByteBuffer r = records;
+        int at = offset(i);
+        int number = r.getInt(at + ID_NUMBER);
+        return number >= 0 ? "P" + number : getString(r.getInt(at + ID_REF));
+    }
+
+    /** Materializes one participant as a (short-lived) heap object. */
+    public Participant get(int i) {
+        ByteBuffer r = records;
+        int at = offset(i);
+        int nameRef = r.getInt(at + NAME_REF);
+        int emailRef = r.getInt(at + EMAIL_REF);
+        return new Participant(id(i),
+                nameRef < 0 ? null : getString(nameRef),
+                emailRef < 0 ? null : getString(emailRef),
+                gameNames[r.getShort(at + GAME)], ROLES[r.get(at + ROLE)], r.getInt(at + SKILL), r.getInt(at + SCORE),
+                TYPES[r.get(at + PERSONALITY)]);
+    }
+
+    /**
+     * Read-only list over the store as it is now (size fixed at call time). Each get() materializes a
+     * fresh participant, so the view can be handed to TeamBuilder, FileService or JsonLines directly.
+     */
+    public List<Participant> asList() {
+        int n = count;
+        return new View(n);
+    }
+
+    private final class View extends AbstractList<Participant> implements RandomAccess {
+        private final int n;
+
+        View(int n) { this.n = n; }
+
+        @Override
+        public Participant get(int index) {
+            Objects.checkIndex(index, n);
+            return OffHeapParticipantStore.this.get(index);
+        }
+
+        @Override
+        public int size() { return n; }
+    }
+
+    // ==================== INTERNALS ====================
+
+    private int offset(int i) {
+        Objects.checkIndex(i, count);
+        return HEADER + i * RECORD;
+    }
+
+    private int gameIndexOf(String game) throws IOException {
+        String key = game == null ? "" : game;
+        Integer idx = gameIndex.get(key);
+        if (idx != null) return idx;
+        if (games.size() == MAX_GAMES)
+            throw new IOException("Off-heap store supports at most " + MAX_GAMES + " distinct games");
+
+        int ref = putString(key);
+        records.putInt(20 + games.size() * 4, ref);
+        addGame(key);
+        return games.size() - 1;
+    }
+
+    private void addGame(String game) {
+        gameIndex.put(game, games.size());
+        games.add(game);
+        String[] names = Arrays.copyOf(gameNames, games.size());
+        names[names.length - 1] = game;
+        gameNames = names;
+        short[] ids = Arrays.copyOf(gameIds, games.size());
+        ids[ids.length - 1] = GameCatalog.idOf(game);
+        gameIds = ids;
+    }
+
+    // [length:int][UTF-8 bytes]
+    private int putString(String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        int need = arenaUsed + 4 + bytes.length;
+        if (need > arena.capacity()) arena = grow(arena, arenaFile, need);
+        int at = arenaUsed;
+        arena.putInt(at, bytes.length);
+        arena.put(at + 4, bytes);
+        arenaUsed = need;
+        return at;
+    }
+
+    private String getString(int ref) {
+        ByteBuffer a = arena;
+        byte[] bytes = new byte[a.getInt(ref)];
+        a.get(ref + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void ensureRecordCapacity(int n) throws IOException {
+        long need = HEADER + (long) n * RECORD;
+        if (need > Integer.MAX_VALUE)
+            throw new IOException("Off-heap store is full (" + count + " participants)");
+        if (need > records.capacity()) records = grow(records, recordFile, (int) need);
+    }
+
+    // Doubles a region; mapped regions are re-mapped over the (extended) file, direct ones copied
+    private static ByteBuffer grow(ByteBuffer old, FileChannel file, int need) throws IOException {
+        long capacity = Math.min(Integer.MAX_VALUE, Math.max((long) need, 2L * old.capacity()));
+        if (file != null) return map(file, capacity);
+        ByteBuffer bigger = ByteBuffer.allocateDirect((int) capacity);
+        bigger.put(0, old, 0, old.capacity());
+        return bigger;
+    }
+
+    private static MappedByteBuffer map(FileChannel file, long capacity) throws IOException {
+        return file.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    private void writeHeader() {
+        ByteBuffer r = records;
+        r.putInt(0, MAGIC);
+        r.putInt(4, FORMAT_VERSION);
+        r.putInt(8, count);
+        r.putInt(12, arenaUsed);
+        r.putInt(16, games.size());
+    }
+
+    private void readHeader(Path file) throws IOException {
+        ByteBuffer r = records;
+        if (r.getInt(0) != MAGIC || r.getInt(4) != FORMAT_VERSION)
+            throw new IOException("Not a participant store: " + file);
+        arenaUsed = r.getInt(12);
+        int gameCount = r.getInt(16);
+        for (int g = 0; g < gameCount; g++) addGame(getString(r.getInt(20 + g * 4)));
+        count = r.getInt(8);
+    }
+}
@@ -1,30 +1,58 @@
 package TeamMate;
 
-import java.io.Serializable;
+import java.io.*;
+import java.util.Objects;
 
-public class Participant implements Serializable {
+/**
+ * Survey participant, stored compactly so multi-million cohorts fit in memory:
+ * a canonical ID ("P" + number, zero-padded or not) is kept as an int and its string built once on first
+ * use, name and email are only stored when they differ from the generated defaults (Participant_N /
+ * userN@university.edu, N without padding), game spellings are shared through GameCatalog and enums are
+ * kept as ordinals. The serialized form is unchanged (plain fields).
+ */
+public final class Participant implements Serializable {
 
-    private final String id;              // unique ID
-    private String name;
-    private String email;
-    private String interest;              // preferred game
-    private Role preferredRole;           // attacker/defender/etc.
+    private static final long serialVersionUID = -7316027331427538154L; // pinned: keeps existing .ser files readable
+    private static final Role[] ROLES = Role.values();
+    private static final PersonalityType[] TYPES = PersonalityType.values();
+
+    // Serialized form: same fields as before the compact layout
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("id", String.class),
+            new ObjectStreamField("name", String.class),
+            new ObjectStreamField("email", String.class),
+            new ObjectStreamField("interest", String.class),
+            new ObjectStreamField("preferredRole", Role.class),
+            new ObjectStreamField("skillLevel", int.class),
+            new ObjectStreamField("personalityScore", int.class),
+            new ObjectStreamField("personalityType", PersonalityType.class)
+    };
+
+    private int number;                   // numeric ID for canonical "P<n>" IDs, -1 otherwise
+    private byte idDigits;                // digit count of a zero-padded ID (P001 -> 3), 0 = no padding
+    private String customId;              // any other ID as given
+    private transient String idText;      // getId(), built on first use
+    private String name;                  // null = default name derived from the ID
+    private String email;                 // null = default email derived from the ID
+    private String interest;              // preferred game (shared spelling)
+    private short gameId;                 // GameCatalog ID of the preferred game
+    private byte role;                    // attacker/defender/etc. (ordinal, -1 = none)
+    private byte personality;             // personality type (ordinal, -1 = none)
     private int skillLevel;
     private int personalityScore;
-    private PersonalityType personalityType;
+    private transient volatile int revision;   // bumped by every setter; lets TeamMateDB spot in-place edits
 
     // Full constructor
     public Participant(String id, String name, String email, String interest,
                        Role preferredRole, int skillLevel, int personalityScore,
                        PersonalityType personalityType) {
-        this.id = id;
+        initId(id);
         this.name = name;
         this.email = email;
         this.interest = interest;
-        this.preferredRole = preferredRole;
         this.skillLevel = skillLevel;
         this.personalityScore = personalityScore;
-        this.personalityType = personalityType;
+        compact(preferredRole, personalityType);
     }
 
     // Constructor without personality score
@@ -33,28 +61,166 @@ public class Participant implements Serializable {
         this(id, name, email, interest, preferredRole, skillLevel, 0, personalityType);
     }
 
+    // Copy constructor: edits made through the DB change a copy, never an instance a snapshot may hold
+    public Participant(Participant other) {
+        this.number = other.number;
+        this.idDigits = other.idDigits;
+        this.customId = other.customId;
+        this.idText = other.idText;
+        this.name = other.name;
+        this.email = other.email;
+        this.interest = other.interest;
+        this.gameId = other.gameId;
+        this.role = other.role;
+        this.personality = other.personality;
+        this.skillLevel = other.skillLevel;
+        this.personalityScore = other.personalityScore;
+    }
+
+    // Default name for an ID, e.g. P015 -> Participant_015
+    public static String defaultName(String id) {
+        if (!id.isEmpty() && (id.charAt(0) == 'P' || id.charAt(0) == 'p')) {
+            return "Participant_" + id.substring(1);
+        }
+        return "Participant_" + id;
+    }
+
+    // Default email for an ID, e.g. P101 -> user101@university.edu
+    public static String defaultEmail(String id) {
+        StringBuilder digits = new StringBuilder(id.length());
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c >= '0' && c <= '9') digits.append(c);
+        }
+        String idNumber = digits.toString();
+        if (idNumber.isEmpty()) {
+            return "user@university.edu"; // Fallback
+        }
+        return "user" + idNumber + "@university.edu";
+    }
+
     // Getters
-    public String getId() { return id; }
-    public String getName() { return name; }
-    public String getEmail() { return email; }
+    public String getId() {
+        String id = idText;
+        if (id == null && number >= 0) idText = id = idString(number, idDigits);
+        return id != null ? id : customId;
+    }
+    public String getName() { return name != null ? name : generatedName(); }
+    public String getEmail() { return email != null ? email : generatedEmail(); }
     public String getInterest() { return interest; }
-    public Role getPreferredRole() { return preferredRole; }
+    public Role getPreferredRole() { return role < 0 ? null : ROLES[role]; }
     public int getSkillLevel() { return skillLevel; }
     public int getPersonalityScore() { return personalityScore; }
-    public PersonalityType getPersonalityType() { return personalityType; }
+    public PersonalityType getPersonalityType() { return personality < 0 ? null : TYPES[personality]; }
+
+    // Interned game ID, same as GameCatalog.idOf(getInterest()) without the lookup
+    public short getGameId() { return gameId; }
+
+    public int revision() { return revision; }
+
+    // Name or email equal to the ID-derived default (dropped by compact); stores may skip them the same way
+    public boolean hasGeneratedName() { return name == null; }
+    public boolean hasGeneratedEmail() { return email == null; }
+
+    // Same values in every column the participants CSV carries
+    public boolean sameRow(Participant other) {
+        return other != null && getId().equals(other.getId()) && Objects.equals(getName(), other.getName())
+                && Objects.equals(getEmail(), other.getEmail()) && Objects.equals(interest, other.interest)
+                && skillLevel == other.skillLevel && role == other.role
+                && personalityScore == other.personalityScore && personality == other.personality;
+    }
 
     // Setters
-    public void setName(String name) { this.name = name; }
-    public void setEmail(String email) { this.email = email; }
-    public void setInterest(String interest) { this.interest = interest; }
-    public void setPreferredRole(Role preferredRole) { this.preferredRole = preferredRole; }
-    public void setSkillLevel(int skillLevel) { this.skillLevel = skillLevel; }
-    public void setPersonalityScore(int personalityScore) { this.personalityScore = personalityScore; }
-    public void setPersonalityType(PersonalityType personalityType) { this.personalityType = personalityType; }
+    public void setName(String name) { this.name = name; compact(getPreferredRole(), getPersonalityType()); revision++; }
+    public void setEmail(String email) { this.email = email; compact(getPreferredRole(), getPersonalityType()); revision++; }
+    public void setInterest(String interest) { this.interest = interest; compact(getPreferredRole(), getPersonalityType()); revision++; }
+    public void setPreferredRole(Role preferredRole) { compact(preferredRole, getPersonalityType()); revision++; }
+    public void setSkillLevel(int skillLevel) { this.skillLevel = skillLevel; revision++; }
+    public void setPersonalityScore(int personalityScore) { this.personalityScore = personalityScore; revision++; }
+    public void setPersonalityType(PersonalityType personalityType) { compact(getPreferredRole(), personalityType); revision++; }
 
     @Override
     public String toString() {
         return String.format("%s - %s (%s) / %s / %s / skill=%d / %s",
-                id, name, email, interest, preferredRole, skillLevel, personalityType);
+                getId(), getName(), getEmail(), interest, getPreferredRole(), skillLevel, getPersonalityType());
+    }
+
+    // COMPACT ENCODING
+
+    private void initId(String id) {
+        this.number = paddedNumber(id);
+        this.idDigits = (byte) (number >= 0 && id.length() > 2 && id.charAt(1) == '0' ? id.length() - 1 : 0);
+        this.customId = number < 0 ? id : null;
+        this.idText = null;
+    }
+
+    private static String idString(int number, int digits) {
+        String n = Integer.toString(number);
+        return n.length() >= digits ? "P" + n : "P" + "0".repeat(digits - n.length()) + n;
+    }
+
+    // Defaults the sample CSV uses: the number without padding (P001 -> Participant_1). The survey's
+    // defaultName/defaultEmail keep the padding, so theirs are stored like any other name
+    private String generatedName() {
+        return number >= 0 ? "Participant_" + number : defaultName(customId == null ? "" : customId);
+    }
+
+    private String generatedEmail() {
+        return number >= 0 ? "user" + number + "@university.edu" : defaultEmail(customId == null ? "" : customId);
+    }
+
+    // Drops derivable strings and shares the game spelling
+    private void compact(Role preferredRole, PersonalityType personalityType) {
+        // Prefix checks first: most imported names and emails are not the defaults
+        if (name != null && name.startsWith("Participant_") && name.equals(generatedName())) name = null;
+        if (email != null && email.startsWith("user") && email.equals(generatedEmail())) email = null;
+        interest = GameCatalog.canonical(interest);
+        gameId = GameCatalog.idOf(interest);
+        role = (byte) (preferredRole == null ? -1 : preferredRole.ordinal());
+        personality = (byte) (personalityType == null ? -1 : personalityType.ordinal());
+    }
+
+    // n for "P<n>" written without leading zeros, else -1
+    static int canonicalNumber(String id) {
+        if (id != null && id.length() > 2 && id.charAt(1) == '0') return -1;
+        return paddedNumber(id);
+    }
+
+    // n for "P<n>" with or without leading zeros (at most 9 digits), else -1
+    private static int paddedNumber(String id) {
+        if (id == null || id.length() < 2 || id.length() > 10 || id.charAt(0) != 'P') return -1;
+        int n = 0;
+        for (int i = 1; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            n = n * 10 + (c - '0');
+        }
+        return n;
+    }
+
+    // SERIALIZATION (old field layout)
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField f = out.putFields();
+        f.put("id", getId());
+        f.put("name", getName());
+        f.put("email", getEmail());
+        f.put("interest", interest);
+        f.put("preferredRole", getPreferredRole());
+        f.put("skillLevel", skillLevel);
+        f.put("personalityScore", personalityScore);
+        f.put("personalityType", getPersonalityType());
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField f = in.readFields();
+        initId((String) f.get("id", null));
+        name = (String) f.get("name", null);
+        email = (String) f.get("email", null);
+        interest = (String) f.get("interest", null);
+        skillLevel = f.get("skillLevel", 0);
+        personalityScore = f.get("personalityScore", 0);
+        compact((Role) f.get("preferredRole", null), (PersonalityType) f.get("personalityType", null));
     }
 }
@@ -9,7 +9,7 @@ public class ParticipantEditor {
     private static final List<Role> ROLE_OPTIONS = List.of(Role.ATTACKER, Role.DEFENDER, Role.STRATEGIST, Role.SUPPORTER, Role.COORDINATOR);
 
     // Edit participant
-    public static void editParticipant(List<Participant> participants, Scanner scanner) {
+    public static void editParticipant(ParticipantRegistry participants, ParticipantRegistry unformed, Scanner scanner) {
         System.out.print("Enter participant ID to edit: ");
         String id = scanner.nextLine().trim();
 
@@ -18,13 +18,15 @@ public class ParticipantEditor {
             return;
         }
 
-        Participant p = participants.stream().filter(x -> x.getId().equalsIgnoreCase(id)).findFirst().orElse(null);
-        if (p == null) {
+        Participant current = participants.find(id);
+        if (current == null) {
             System.out.println("ID not available in list.");
             return;
         }
 
-        System.out.println("Editing: " + p);
+        System.out.println("Editing: " + current);
+        // Copy-on-write: the registered instance may already be in a DB snapshot
+        Participant p = new Participant(current);
 
         // Edit Name
         System.out.print("New name (enter to skip): ");
@@ -89,12 +91,15 @@ public class ParticipantEditor {
         }
 
         System.out.println("Personality cannot be edited.");
+        // Re-registering the copy re-fingerprints, so cached formations for the old cohort are dropped
+        participants.add(p);
+        if (unformed.contains(p.getId())) unformed.add(p);
         System.out.println("Participant " + p.getId() + " has been edited.");
         AppLogger.info("Participant edited: " + p.getId());
     }
 
     // Remove participant
-    public static void removeParticipant(List<Participant> participants, List<Team> teams, List<Participant> unformed, Scanner scanner) {
+    public static void removeParticipant(ParticipantRegistry participants, List<Team> teams, ParticipantRegistry unformed, Scanner scanner) {
         System.out.print("Enter participant ID to remove: ");
         String id = scanner.nextLine().trim();
 
@@ -103,22 +108,23 @@ public class ParticipantEditor {
             return;
         }
 
-        Participant p = participants.stream().filter(x -> x.getId().equalsIgnoreCase(id)).findFirst().orElse(null);
+        Participant p = participants.find(id);
         if (p == null) {
             System.out.println("ID not available in list.");
             return;
         }
 
-        // Remove from any team
-        for (Team t : teams) {
-            if (t.getMembers().stream().anyMatch(m -> m.getId().equalsIgnoreCase(id))) {
-                t.removeMember(p);
+        // Remove from any team (replaced by a copy, the saved team is left as it was)
+        for (int i = 0; i < teams.size(); i++) {
+            Team t = teams.get(i);
+            if (t.getMemberIds().stream().anyMatch(memberId -> memberId.equalsIgnoreCase(id))) {
+                teams.set(i, t.withoutMember(id));
                 AppLogger.info("Removed participant " + id + " from team " + t.getId());
             }
         }
 
-        participants.remove(p);
-        unformed.removeIf(x -> x.getId().equalsIgnoreCase(id));
+        participants.remove(id);
+        unformed.remove(id);
         AppLogger.info("Participant removed: " + id);
         System.out.println("Participant " + id + " has been removed successfully.");
 
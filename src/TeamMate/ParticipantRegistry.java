@@ -0,0 +1,284 @@
+package TeamMate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+
+/**
+ * Concurrent, append-friendly participant store with cheap immutable snapshots.
+ *
+ * Participants live in fixed-size chunks that are only ever appended to. A removal copies just the
+ * affected chunk, so slots already visible to a snapshot never change. Writers are serialized and publish
+ * a new {@link Snapshot} (a view over the chunks, no copying) through a volatile field; readers never lock.
+ * IDs are matched case-insensitively, like the rest of the application.
+ *
+ * The registry also keeps an order-independent fingerprint of the formation-relevant attributes of its
+ * participants, updated incrementally on every write (see {@link FormationCache#hashOf(Participant)}),
+ * and live supply counts for {@link #feasibility(CompiledConstraints)}.
+ */
+public class ParticipantRegistry implements Iterable<Participant> {
+
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK = 1 << CHUNK_BITS;   // 1024 participants per chunk
+
+    private final Object writeLock = new Object();
+    private final Map<String, Participant> byId = new ConcurrentHashMap<>();
+    private final Map<String, Integer> slotById = new HashMap<>();   // guarded by writeLock
+    // Per slot, guarded by writeLock: the participant's fingerprint term and supply profile
+    private long[] hashBySlot = new long[CHUNK];
+    private int[] profileBySlot = new int[CHUNK];
+    private final FeasibilityOracle supply = new FeasibilityOracle();
+    private final List<LongConsumer> staleListeners = new CopyOnWriteArrayList<>();
+    private long fingerprint;                                        // guarded by writeLock
+
+    private Participant[][] chunks = new Participant[4][];           // guarded by writeLock
+    private int appended;                                            // slots used, including holes
+    private int holes;                                               // removed slots not yet compacted
+    private volatile Snapshot current = new Snapshot(new Participant[0][], 0, 0, 0L);
+
+    // ==================== WRITES ====================
+
+    public void add(Participant p) {
+        synchronized (writeLock) {
+            append(p);
+            publish();
+        }
+    }
+
+    public void addAll(Collection<Participant> ps) {
+        synchronized (writeLock) {
+            for (Participant p : ps) append(p);
+            publish();
+        }
+    }
+
+    /** Removes the participant with this ID; returns it, or null if it was not registered. */
+    public Participant remove(String id) {
+        synchronized (writeLock) {
+            String key = key(id);
+            Integer slot = slotById.remove(key);
+            if (slot == null) return null;
+            Participant removed = byId.remove(key);
+            fingerprint -= hashBySlot[slot];
+            supply.remove(profileBySlot[slot]);
+
+            // Copy-on-write of one chunk: snapshots holding the old chunk keep seeing the participant
+            int c = slot >>> CHUNK_BITS;
+            chunks = chunks.clone();
+            chunks[c] = chunks[c].clone();
+            chunks[c][slot & (CHUNK - 1)] = null;
+            holes++;
+
+            if (holes > CHUNK && holes > appended / 4) compact();
+            publish();
+            return removed;
+        }
+    }
+
+    /** Replaces the whole content (e.g. the unformed list after a formation). */
+    public void replaceAll(Collection<Participant> ps) {
+        synchronized (writeLock) {
+            resetStorage();
+            for (Participant p : ps) append(p);
+            // Overwritten in place above; only IDs that are gone now leave the lookup map
+            byId.keySet().retainAll(slotById.keySet());
+            publish();
+        }
+    }
+
+    public void clear() {
+        replaceAll(List.of());
+    }
+
+    /** Upper bound on the valid teams this cohort can form under the rules, answered from live counts. */
+    public FeasibilityOracle.Feasibility feasibility(CompiledConstraints rules) {
+        return supply.assess(rules);
+    }
+
+    /** Called with the fingerprint that just went stale, after every change to the cohort. */
+    public void addStaleFingerprintListener(LongConsumer listener) {
+        staleListeners.add(listener);
+    }
+
+    // ==================== READS ====================
+
+    public Participant find(String id) {
+        return id == null ? null : byId.get(key(id));
+    }
+
+    public boolean contains(String id) {
+        return find(id) != null;
+    }
+
+    public int size() { return current.size(); }
+
+    public long fingerprint() { return current.fingerprint(); }
+
+    public boolean isEmpty() { return current.isEmpty(); }
+
+    /** Immutable, consistent view of the registry at this moment. O(1). */
+    public Snapshot snapshot() { return current; }
+
+    @Override
+    public Iterator<Participant> iterator() { return current.iterator(); }
+
+    // ==================== INTERNALS ====================
+
+    private void append(Participant p) {
+        String key = key(p.getId());
+        Integer existing = slotById.get(key);
+        if (existing != null) {
+            // Same ID registered again: replace in place (copy-on-write, like remove)
+            int c = existing >>> CHUNK_BITS;
+            chunks = chunks.clone();
+            chunks[c] = chunks[c].clone();
+            chunks[c][existing & (CHUNK - 1)] = p;
+            byId.put(key, p);
+            long h = FormationCache.hashOf(p);
+            fingerprint += h - hashBySlot[existing];
+            hashBySlot[existing] = h;
+            int profile = FeasibilityOracle.profile(p);
+            if (profile != profileBySlot[existing]) {
+                supply.remove(profileBySlot[existing]);
+                supply.add(profile);
+                profileBySlot[existing] = profile;
+            }
+            return;
+        }
+
+        // Slots >= appended are invisible to existing snapshots, so this write is safe in place
+        chunks = placeAt(chunks, appended, p);
+        slotById.put(key, appended);
+        byId.put(key, p);
+        if (appended == hashBySlot.length) {
+            hashBySlot = Arrays.copyOf(hashBySlot, appended * 2);
+            profileBySlot = Arrays.copyOf(profileBySlot, appended * 2);
+        }
+        long h = FormationCache.hashOf(p);
+        hashBySlot[appended] = h;
+        fingerprint += h;
+        int profile = FeasibilityOracle.profile(p);
+        profileBySlot[appended] = profile;
+        supply.add(profile);
+        appended++;
+    }
+
+    private void compact() {
+        Participant[][] old = chunks;
+        int oldAppended = appended;
+        chunks = new Participant[4][];
+        appended = 0;
+        holes = 0;
+        slotById.clear();   // byId is left alone so concurrent lookups never miss
+        for (int i = 0; i < oldAppended; i++) {
+            Participant p = old[i >>> CHUNK_BITS][i & (CHUNK - 1)];
+            if (p == null) continue;
+            slotById.put(key(p.getId()), appended);
+            // Live slots only move down, so the per-slot values can be shifted in place
+            hashBySlot[appended] = hashBySlot[i];
+            profileBySlot[appended] = profileBySlot[i];
+            chunks = placeAt(chunks, appended++, p);
+        }
+    }
+
+    private void resetStorage() {
+        chunks = new Participant[4][];
+        appended = 0;
+        holes = 0;
+        slotById.clear();   // byId is trimmed by replaceAll so concurrent lookups of kept IDs never miss
+        supply.clear();     // per-slot values are overwritten as slots are appended again
+        fingerprint = 0;
+    }
+
+    private static Participant[][] placeAt(Participant[][] chunks, int slot, Participant p) {
+        int c = slot >>> CHUNK_BITS;
+        if (c == chunks.length) chunks = Arrays.copyOf(chunks, c * 2);
+        if (chunks[c] == null) chunks[c] = new Participant[CHUNK];
+        chunks[c][slot & (CHUNK - 1)] = p;
+        return chunks;
+    }
+
+    private void publish() {
+        long stale = current.fingerprint();
+        current = new Snapshot(chunks, appended, appended - holes, fingerprint);
+        if (stale != fingerprint) for (LongConsumer l : staleListeners) l.accept(stale);
+    }
+
+    private static String key(String id) {
+        return id.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /** Read-only list over the chunks as they were when the snapshot was taken. */
+    public static final class Snapshot extends AbstractList<Participant> implements RandomAccess {
+
+        private final Participant[][] chunks;
+        private final int appended;
+        private final int live;
+        private final long fingerprint;
+        private Participant[] dense;   // built lazily when there are holes and get(i) is used
+
+        private Snapshot(Participant[][] chunks, int appended, int live, long fingerprint) {
+            this.chunks = chunks;
+            this.appended = appended;
+            this.live = live;
+            this.fingerprint = fingerprint;
+        }
+
+        /** Cohort fingerprint matching exactly the participants in this snapshot. */
+        public long fingerprint() { return fingerprint; }
+
+        @Override
+        public int size() { return live; }
+
+        @Override
+        public Participant get(int index) {
+            Objects.checkIndex(index, live);
+            if (live == appended) return chunks[index >>> CHUNK_BITS][index & (CHUNK - 1)];
+            return dense()[index];
+        }
+
+        @Override
+        public Object[] toArray() {
+            return live == appended ? copyLive() : dense().clone();
+        }
+
+        @Override
+        public Iterator<Participant> iterator() {
+            return new Iterator<>() {
+                private int slot = advance(0);
+
+                private int advance(int from) {
+                    while (from < appended && chunks[from >>> CHUNK_BITS][from & (CHUNK - 1)] == null) from++;
+                    return from;
+                }
+
+                @Override
+                public boolean hasNext() { return slot < appended; }
+
+                @Override
+                public Participant next() {
+                    if (slot >= appended) throw new NoSuchElementException();
+                    Participant p = chunks[slot >>> CHUNK_BITS][slot & (CHUNK - 1)];
+                    slot = advance(slot + 1);
+                    return p;
+                }
+            };
+        }
+
+        private synchronized Participant[] dense() {
+            if (dense == null) dense = copyLive();
+            return dense;
+        }
+
+        private Participant[] copyLive() {
+            Participant[] out = new Participant[live];
+            int n = 0;
+            for (int i = 0; i < appended; i++) {
+                Participant p = chunks[i >>> CHUNK_BITS][i & (CHUNK - 1)];
+                if (p != null) out[n++] = p;
+            }
+            return out;
+        }
+    }
+}
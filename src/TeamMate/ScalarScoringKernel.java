@@ -0,0 +1,40 @@
+package TeamMate;
+
+/** Reference kernel: one candidate at a time, float arithmetic in the same order as the vector kernel. */
+public class ScalarScoringKernel implements ScoringKernel {
+
+    @Override
+    public void score(CandidateColumns c, int from, int to, TeamAggregate team, float[] out) {
+        float skillSum = team.skillSum;
+        float target = c.skillTarget;
+        float divisor = team.size + 1;
+        boolean thinkerWanted = team.count(PersonalityType.THINKER) < 2;
+        boolean leaderWanted = team.count(PersonalityType.LEADER) == 0;
+        int thinker = PersonalityType.THINKER.ordinal();
+        int leader = PersonalityType.LEADER.ordinal();
+
+        for (int i = from; i < to; i++) {
+            float s = 0f;
+
+            // role not yet covered
+            s += team.hasRole(c.roles[i]) ? 0f : 2.0f;
+
+            // same-game penalty
+            int sameGame = team.gameCount(c.games[i]);
+            s += sameGame == 0 ? 1.0f : (sameGame == 1 ? 0.2f : 0f);
+
+            // projected skill balance
+            float projected = (c.skills[i] + skillSum) / divisor;
+            s += (1.0f - Math.abs(projected - target) / target) * 2.0f;
+
+            // personality bonuses
+            s += (thinkerWanted && c.personalities[i] == thinker) ? 1.0f : 0f;
+            s += (leaderWanted && c.personalities[i] == leader) ? 5.0f : 0f;
+
+            out[i] = s;
+        }
+    }
+
+    @Override
+    public int lanes() { return 1; }
+}
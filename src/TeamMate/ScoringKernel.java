@@ -0,0 +1,44 @@
+package TeamMate;
+
+/**
+ * Scores a range of candidates against one team.
+ * Every implementation must produce bit-identical scores so rankings never depend on the kernel chosen.
+ */
+public interface ScoringKernel {
+
+    // Default skill target; the draft builder pulls towards the cohort mean instead (CandidateColumns.skillTarget)
+    float SKILL_TARGET = 50.0f;
+
+    /** Writes the score of candidates [from, to) into out[from, to). */
+    void score(CandidateColumns c, int from, int to, TeamAggregate team, float[] out);
+
+    /** Candidates evaluated per instruction (1 for scalar code). */
+    int lanes();
+
+    /**
+     * The scalar kernel, or the SIMD kernel when -Dteammate.scoring.vector=true. Formation ranks a few
+     * hundred candidate classes per team, where the SIMD kernel measured slower, so it is opt-in.
+     */
+    static ScoringKernel select() {
+        return select(Boolean.getBoolean("teammate.scoring.vector"));
+    }
+
+    /**
+     * With vector=true, the SIMD kernel when jdk.incubator.vector is available (--add-modules
+     * jdk.incubator.vector at compile and run time) and the CPU offers at least 256-bit float vectors;
+     * otherwise the scalar kernel.
+     */
+    static ScoringKernel select(boolean vector) {
+        if (vector) {
+            try {
+                // Loaded reflectively so the scalar path never links against the incubator module
+                ScoringKernel kernel = (ScoringKernel) Class.forName("TeamMate.VectorScoringKernel")
+                        .getDeclaredConstructor().newInstance();
+                if (kernel.lanes() >= 8) return kernel;
+            } catch (Throwable e) {
+                AppLogger.debug("Vector scoring unavailable, using scalar kernel: " + e);
+            }
+        }
+        return new ScalarScoringKernel();
+    }
+}
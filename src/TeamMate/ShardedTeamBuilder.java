@@ -0,0 +1,146 @@
+package TeamMate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sharded formation for very large cohorts.
+ * Every personality bucket is dealt round-robin (in skill order) across the shards, so each shard keeps
+ * its share of LEADERs and THINKERs and the same spread of skills as the whole cohort. Shards are formed
+ * concurrently with single-threaded builders, then a merge pass forms teams from all shard leftovers together.
+ */
+public class ShardedTeamBuilder {
+
+    // Smallest number of teams a shard should be able to form before sharding is worth it
+    private static final int MIN_TEAMS_PER_SHARD = Integer.getInteger("teammate.shard.minTeams", 8);
+
+    private final ExecutorService executor;
+    private final int maxShards;
+
+    public ShardedTeamBuilder() {
+        this(TeamFormation.workerPool(), Integer.getInteger("teammate.formation.workers",
+                Runtime.getRuntime().availableProcessors()));
+    }
+
+    public ShardedTeamBuilder(ExecutorService executor, int maxShards) {
+        this.executor = executor;
+        this.maxShards = Math.max(1, maxShards);
+    }
+
+    public TeamBuilder.TeamFormationResult buildTeams(List<Participant> participants, int teamSize,
+                                                      FormationMode mode, FormationControl control)
+            throws TeamMateException {
+        return buildTeams(participants, teamSize, mode, null, control);
+    }
+
+    // seed: null for random shuffles, otherwise shard i uses seed + i
+    public TeamBuilder.TeamFormationResult buildTeams(List<Participant> participants, int teamSize,
+                                                      FormationMode mode, Long seed, FormationControl control)
+            throws TeamMateException {
+
+        if (teamSize < TeamBuilder.MINIMUM_ACCEPTABLE_SIZE)
+            throw new TeamMateException("Team size must be at least " + TeamBuilder.MINIMUM_ACCEPTABLE_SIZE);
+
+        Map<PersonalityType, List<Participant>> byPersonality = new EnumMap<>(PersonalityType.class);
+        for (PersonalityType t : PersonalityType.values()) byPersonality.put(t, new ArrayList<>());
+        for (Participant p : participants) byPersonality.get(p.getPersonalityType()).add(p);
+
+        int shards = shardCount(participants.size(), teamSize,
+                byPersonality.get(PersonalityType.LEADER).size(),
+                byPersonality.get(PersonalityType.THINKER).size());
+
+        // Too small to shard: plain builder
+        if (shards < 2) {
+            TeamBuilder builder = newBuilder(executor, seed, 0);
+            return (mode == FormationMode.RELAXED)
+                    ? builder.buildTeamsFromUnformed(participants, teamSize, control)
+                    : builder.buildTeamsAndValidate(participants, teamSize, control);
+        }
+
+        // ROUND-ROBIN PARTITION: each personality bucket, sorted by skill, is dealt across the shards,
+        // so every shard carries the full skill range and its teams can still be balanced
+        List<List<Participant>> shardPools = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) shardPools.add(new ArrayList<>());
+
+        for (List<Participant> bucket : byPersonality.values()) {
+            bucket.sort(Comparator.comparingInt(Participant::getSkillLevel));
+            for (int j = 0; j < bucket.size(); j++) shardPools.get(j % shards).add(bucket.get(j));
+        }
+
+        // Aggregate shard progress into the caller's control
+        AtomicInteger teamsFormed = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(participants.size());
+
+        List<Callable<TeamBuilder.TeamFormationResult>> tasks = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            List<Participant> shardPool = shardPools.get(i);
+            TeamBuilder shardBuilder = newBuilder(null, seed, i);
+            FormationControl shardControl = new FormationControl(control, p ->
+                    control.teamFormed(teamsFormed.incrementAndGet(), remaining.addAndGet(-teamSize)));
+            // Shards already run on pool workers, so they score on their own thread
+            tasks.add(() -> build(shardBuilder, shardPool, teamSize, mode, shardControl));
+        }
+
+        List<Team> formed = new ArrayList<>();
+        List<Participant> leftovers = new ArrayList<>();
+        try {
+            for (Future<TeamBuilder.TeamFormationResult> f : executor.invokeAll(tasks)) {
+                TeamBuilder.TeamFormationResult res = f.get();
+                formed.addAll(res.formedTeams);
+                leftovers.addAll(res.unformedParticipants);
+            }
+        } catch (InterruptedException e) {
+            control.cancel();
+            Thread.currentThread().interrupt();
+            throw new TeamMateException("Sharded team formation interrupted.", e);
+        } catch (ExecutionException e) {
+            control.cancel();
+            if (e.getCause() instanceof TeamMateException tme) throw tme;
+            throw new TeamMateException("Sharded team formation failed: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        AppLogger.info("Sharded formation: " + shards + " shards formed " + formed.size()
+                + " team(s), " + leftovers.size() + " leftover(s) to merge");
+
+        // MERGE: surplus types stranded in one shard can complete teams with another shard's leftovers
+        control.checkpoint();
+        TeamBuilder.TeamFormationResult merged = build(newBuilder(executor, seed, shards), leftovers, teamSize, mode,
+                new FormationControl(control, p ->
+                        control.teamFormed(teamsFormed.incrementAndGet(), remaining.addAndGet(-teamSize))));
+        formed.addAll(merged.formedTeams);
+
+        return new TeamBuilder.TeamFormationResult(formed, merged.unformedParticipants);
+    }
+
+    private static TeamBuilder newBuilder(ExecutorService executor, Long seed, int salt) {
+        TeamBuilder b = new TeamBuilder(executor);
+        if (seed != null) b.setSeed(seed + salt);
+        return b;
+    }
+
+    // Number of shards such that each keeps enough LEADER/THINKER supply for MIN_TEAMS_PER_SHARD teams
+    private int shardCount(int poolSize, int teamSize, int leaders, int thinkers) {
+        int bySupply = Math.min(leaders, thinkers) / MIN_TEAMS_PER_SHARD;
+        int bySize = poolSize / (teamSize * MIN_TEAMS_PER_SHARD);
+        return Math.min(maxShards, Math.min(bySupply, bySize));
+    }
+
+    private TeamBuilder.TeamFormationResult build(TeamBuilder builder, List<Participant> pool, int teamSize,
+                                                  FormationMode mode, FormationControl control)
+            throws TeamMateException {
+        if (pool.size() < teamSize)
+            return new TeamBuilder.TeamFormationResult(new ArrayList<>(), new ArrayList<>(pool));
+
+        try {
+            return (mode == FormationMode.RELAXED)
+                    ? builder.buildTeamsFromUnformed(pool, teamSize, control)
+                    : builder.buildTeamsAndValidate(pool, teamSize, control);
+        } catch (TeamMateException e) {
+            control.checkpoint(); // cancellation and deadlines still propagate
+            // A shard (or the merge pool) that cannot satisfy the composition rules forms nothing
+            AppLogger.warning("Shard could not form teams: " + e.getMessage());
+            return new TeamBuilder.TeamFormationResult(new ArrayList<>(), new ArrayList<>(pool));
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package TeamMate;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Skill-parity formation: equal team skill totals first, everything else second.
+ *
+ * 1. Skeleton: every team gets the same personality composition (e.g. 1 LEADER, 2 THINKER,
+ *    2 BALANCED), and the team count is the largest the supply allows for it.
+ * 2. Each personality bucket (selected and sorted concurrently) is cut into rows holding one member
+ *    per team, so every team gets its quota from every bucket whatever the rows are merged into.
+ * 3. Balanced largest differencing (Karmarkar-Karp for k-way partitions with equal cardinality)
+ *    merges the rows of all buckets into one group per team, largest spread first.
+ * 4. Teams breaking the role or game rules are repaired by swapping members of equal personality
+ *    and equal skill with other teams (totals are untouched); teams that cannot be repaired are released.
+ *
+ * Everything is sorting plus O(teams) merges, so a run is O(n log n).
+ */
+public class SkillParityTeamBuilder {
+
+    // Swap partners tried per member during repair
+    private static final int REPAIR_ATTEMPTS = 64;
+
+    private final ExecutorService executor;
+    private TeamConstraints strictRules = TeamConstraints.strict();
+    private TeamConstraints relaxedRules = TeamConstraints.relaxed();
+    private Long seed;
+
+    public SkillParityTeamBuilder() {
+        this(TeamFormation.workerPool());
+    }
+
+    // A null executor partitions the buckets on the calling thread
+    public SkillParityTeamBuilder(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public void setSeed(long seed) { this.seed = seed; }
+
+    public void setConstraints(FormationMode mode, TeamConstraints rules) {
+        if (mode == FormationMode.RELAXED) relaxedRules = rules;
+        else strictRules = rules;
+    }
+
+    public TeamBuilder.TeamFormationResult buildTeams(List<Participant> participants, int teamSize,
+                                                      FormationMode mode, FormationControl control)
+            throws TeamMateException {
+
+        if (teamSize < TeamBuilder.MINIMUM_ACCEPTABLE_SIZE)
+            throw new TeamMateException("Team size must be at least " + TeamBuilder.MINIMUM_ACCEPTABLE_SIZE);
+
+        String label = (mode == FormationMode.RELAXED) ? "unformed team" : "team";
+        CompiledConstraints rules = (mode == FormationMode.RELAXED ? relaxedRules : strictRules).compile(teamSize);
+
+        List<Participant> pool = new ArrayList<>(participants);
+        Collections.shuffle(pool, seed == null ? new Random() : new Random(seed));
+
+        PersonalityType[] types = PersonalityType.values();
+        List<List<Participant>> buckets = new ArrayList<>();
+        for (int t = 0; t < types.length; t++) buckets.add(new ArrayList<>());
+        for (Participant p : pool) buckets.get(p.getPersonalityType().ordinal()).add(p);
+        int[] supply = new int[types.length];
+        for (int t = 0; t < types.length; t++) supply[t] = buckets.get(t).size();
+
+        String compositionError = rules.compositionError(supply, mode);
+        if (compositionError != null) throw new TeamMateException(compositionError);
+
+        // SKELETON: largest team count with one composition that fits the supply
+        int teamCount = 0;
+        int[] quota = null;
+        for (int lo = 1, hi = pool.size() / teamSize; lo <= hi; ) {
+            int mid = (lo + hi) >>> 1;
+            int[] q = composition(rules, supply, mid, teamSize);
+            if (q != null) {
+                teamCount = mid;
+                quota = q;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        if (teamCount == 0) {
+            AppLogger.warning("Skill parity: no " + label + " composition of size " + teamSize + " fits this pool");
+            return new TeamBuilder.TeamFormationResult(new ArrayList<>(), sortedById(pool));
+        }
+
+        // ROWS: each bucket is selected and sorted concurrently
+        List<Participant> unformed = new ArrayList<>();
+        List<Callable<List<Partition>>> tasks = new ArrayList<>();
+        for (int t = 0; t < types.length; t++) {
+            if (quota[t] == 0) {
+                unformed.addAll(buckets.get(t));
+                continue;
+            }
+            List<Participant> chosen = new ArrayList<>();
+            unformed.addAll(select(buckets.get(t), quota[t] * teamCount, chosen));
+            int perTeam = quota[t];
+            int teams = teamCount;
+            tasks.add(() -> rows(chosen, teams, perTeam));
+        }
+        List<List<Partition>> rows = runAll(tasks, control);
+        control.checkpoint();
+
+        // PARTITION: every team takes quota[t] members of each bucket, with near-equal skill totals
+        Partition combined = differencing(rows);
+        List<List<Participant>> teams = new ArrayList<>(teamCount);
+        for (int[] members : combined.members) {
+            List<Participant> team = new ArrayList<>(teamSize);
+            for (int m : members) team.add(combined.people.get(m));
+            teams.add(team);
+        }
+
+        // REPAIR role / game violations with equal-skill swaps
+        control.checkpoint();
+        repair(teams, rules);
+
+        List<Team> formed = new ArrayList<>();
+        float minAvg = Float.MAX_VALUE, maxAvg = -Float.MAX_VALUE;
+        try (TeamIdAllocator.Block ids = control.teamIds().block(teams.size())) {
+            for (List<Participant> members : teams) {
+                TeamAggregate agg = new TeamAggregate();
+                for (Participant m : members) agg.add(m);
+                if (!rules.isValid(agg)) {
+                    unformed.addAll(members);
+                    continue;
+                }
+                Team team = ids.newTeam();
+                for (Participant m : members) team.addMember(m);
+                formed.add(team);
+                float avg = (float) agg.skillSum / agg.size;
+                minAvg = Math.min(minAvg, avg);
+                maxAvg = Math.max(maxAvg, avg);
+                control.teamFormed(formed.size(), unformed.size());
+            }
+        }
+
+        AppLogger.info(String.format("Skill parity: %d %s(s) of size %d, %d unformed, average skill spread %.3f",
+                formed.size(), label, teamSize, unformed.size(), formed.isEmpty() ? 0f : maxAvg - minAvg));
+        return new TeamBuilder.TeamFormationResult(formed, sortedById(unformed));
+    }
+
+    // Per-team count of each personality for 'teams' teams, or null if the supply cannot cover it
+    private static int[] composition(CompiledConstraints rules, int[] supply, int teams, int teamSize) {
+        PersonalityType[] types = PersonalityType.values();
+        int[] q = new int[types.length];
+        int left = teamSize;
+        for (PersonalityType t : types) {
+            q[t.ordinal()] = rules.min(t);
+            left -= q[t.ordinal()];
+            if (supply[t.ordinal()] < q[t.ordinal()] * teams) return null;
+        }
+        // Fill the remaining slots from the types with the most spare members per team
+        while (left > 0) {
+            int best = -1, bestSpare = 0;
+            for (PersonalityType t : types) {
+                int i = t.ordinal();
+                int spare = supply[i] / teams - q[i];
+                if (q[i] < rules.max(t) && spare > bestSpare) {
+                    best = i;
+                    bestSpare = spare;
+                }
+            }
+            if (best < 0) return null;
+            q[best]++;
+            left--;
+        }
+        return q;
+    }
+
+    // Picks 'count' members spread evenly over the skill range; returns the ones left out
+    private static List<Participant> select(List<Participant> bucket, int count, List<Participant> chosen) {
+        List<Participant> sorted = new ArrayList<>(bucket);
+        sorted.sort(Comparator.comparingInt(Participant::getSkillLevel));
+        List<Participant> rest = new ArrayList<>();
+        int n = sorted.size();
+        for (int i = 0, taken = 0; i < n; i++) {
+            // Take member i when the even stride reaches it
+            if ((long) (taken + 1) * n <= (long) (i + 1) * count) {
+                chosen.add(sorted.get(i));
+                taken++;
+            } else {
+                rest.add(sorted.get(i));
+            }
+        }
+        return rest;
+    }
+
+    // Cuts the members (by skill, descending) into rows of 'teams' singletons: each row gives one member to every team
+    static List<Partition> rows(List<Participant> people, int teams, int perTeam) {
+        List<Participant> sorted = new ArrayList<>(people);
+        sorted.sort(Comparator.comparingInt(Participant::getSkillLevel).reversed());
+        List<Partition> rows = new ArrayList<>(perTeam);
+        for (int r = 0; r < perTeam; r++) {
+            long[] sums = new long[teams];
+            int[][] members = new int[teams][];
+            for (int g = 0; g < teams; g++) {
+                int i = r * teams + g;
+                sums[g] = sorted.get(i).getSkillLevel();
+                members[g] = new int[]{i};
+            }
+            rows.add(new Partition(sorted, sums, members));
+        }
+        return rows;
+    }
+
+    /**
+     * Balanced largest differencing over the rows of every bucket: the two rows with the largest spread
+     * are merged repeatedly, pairing the largest group of one with the smallest of the other, until a
+     * single row (one group per team) is left. Rows are first moved onto one shared people list.
+     */
+    private static Partition differencing(List<List<Partition>> buckets) {
+        List<Participant> people = new ArrayList<>();
+        PriorityQueue<Partition> rows = new PriorityQueue<>(Comparator.comparingLong(Partition::spread).reversed());
+        for (List<Partition> bucket : buckets) {
+            if (bucket.isEmpty()) continue;
+            int offset = people.size();
+            people.addAll(bucket.get(0).people);
+            for (Partition p : bucket) {
+                int[][] members = new int[p.members.length][];
+                for (int g = 0; g < members.length; g++) {
+                    members[g] = p.members[g].clone();
+                    for (int k = 0; k < members[g].length; k++) members[g][k] += offset;
+                }
+                rows.add(new Partition(people, p.sums, members));
+            }
+        }
+        while (rows.size() > 1) rows.add(Partition.merge(rows.poll(), rows.poll()));
+        return rows.poll();
+    }
+
+    // Groups of one partition row, kept sorted by sum (descending)
+    static final class Partition {
+        final List<Participant> people;
+        final long[] sums;
+        final int[][] members;
+
+        Partition(List<Participant> people, long[] sums, int[][] members) {
+            this.people = people;
+            Integer[] order = new Integer[sums.length];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Long.compare(sums[b], sums[a]));
+            this.sums = new long[sums.length];
+            this.members = new int[sums.length][];
+            for (int i = 0; i < order.length; i++) {
+                this.sums[i] = sums[order[i]];
+                this.members[i] = members[order[i]];
+            }
+        }
+
+        long spread() { return sums[0] - sums[sums.length - 1]; }
+
+        // Largest of a with smallest of b, and so on
+        static Partition merge(Partition a, Partition b) {
+            int n = a.sums.length;
+            long[] sums = new long[n];
+            int[][] members = new int[n][];
+            for (int i = 0; i < n; i++) {
+                int j = n - 1 - i;
+                sums[i] = a.sums[i] + b.sums[j];
+                int[] m = Arrays.copyOf(a.members[i], a.members[i].length + b.members[j].length);
+                System.arraycopy(b.members[j], 0, m, a.members[i].length, b.members[j].length);
+                members[i] = m;
+            }
+            return new Partition(a.people, sums, members);
+        }
+    }
+
+    // Swaps members of equal personality and skill between teams until role and game rules hold.
+    // A swap is taken when it brings the team closer to valid without moving its partner further away,
+    // so a team with several violations is fixed one swap at a time.
+    private static void repair(List<List<Participant>> teams, CompiledConstraints rules) {
+        // (personality, skill) -> every (team, position) holding such a member; swaps keep it accurate
+        Map<Long, List<int[]>> slots = new HashMap<>();
+        for (int t = 0; t < teams.size(); t++) {
+            List<Participant> team = teams.get(t);
+            for (int pos = 0; pos < team.size(); pos++)
+                slots.computeIfAbsent(slotKey(team.get(pos)), k -> new ArrayList<>()).add(new int[]{t, pos});
+        }
+
+        for (int t = 0; t < teams.size(); t++) {
+            List<Participant> team = teams.get(t);
+            int bad = rules.violations(aggregate(team, -1, null));
+            while (bad > 0) {
+                int after = improveOnce(teams, t, bad, slots, rules);
+                if (after < 0) break; // no swap helps: the team is released later
+                bad = after;
+            }
+        }
+    }
+
+    // Applies the first swap that lowers team t's violation count; returns the new count, or -1 if none does
+    private static int improveOnce(List<List<Participant>> teams, int t, int bad, Map<Long, List<int[]>> slots,
+                                   CompiledConstraints rules) {
+        List<Participant> team = teams.get(t);
+        for (int pos = 0; pos < team.size(); pos++) {
+            int tried = 0;
+            for (int[] slot : slots.get(slotKey(team.get(pos)))) {
+                if (slot[0] == t) continue;
+                if (++tried > REPAIR_ATTEMPTS) break;
+                List<Participant> other = teams.get(slot[0]);
+                Participant mine = team.get(pos), theirs = other.get(slot[1]);
+                int after = rules.violations(aggregate(team, pos, theirs));
+                if (after >= bad) continue;
+                if (rules.violations(aggregate(other, slot[1], mine)) > rules.violations(aggregate(other, -1, null)))
+                    continue;
+                team.set(pos, theirs);
+                other.set(slot[1], mine);
+                return after;
+            }
+        }
+        return -1;
+    }
+
+    // Aggregate of a team, optionally with the member at 'pos' replaced
+    private static TeamAggregate aggregate(List<Participant> team, int pos, Participant replacement) {
+        TeamAggregate agg = new TeamAggregate();
+        for (int i = 0; i < team.size(); i++) agg.add(i == pos ? replacement : team.get(i));
+        return agg;
+    }
+
+    private static long slotKey(Participant p) {
+        return ((long) p.getPersonalityType().ordinal() << 32) | (p.getSkillLevel() & 0xffffffffL);
+    }
+
+    private List<List<Partition>> runAll(List<Callable<List<Partition>>> tasks, FormationControl control)
+            throws TeamMateException {
+        List<List<Partition>> out = new ArrayList<>(tasks.size());
+        try {
+            if (executor == null) {
+                for (Callable<List<Partition>> task : tasks) out.add(task.call());
+            } else {
+                for (Future<List<Partition>> f : executor.invokeAll(tasks)) out.add(f.get());
+            }
+        } catch (InterruptedException e) {
+            control.cancel();
+            Thread.currentThread().interrupt();
+            throw new TeamMateException("Skill parity formation interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new TeamMateException("Skill parity formation failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (Exception e) {
+            throw new TeamMateException("Skill parity formation failed: " + e.getMessage(), e);
+        }
+        return out;
+    }
+
+    private static List<Participant> sortedById(List<Participant> ps) {
+        ps.sort(Comparator.comparing(Participant::getId));
+        return ps;
+    }
+}
@@ -1,10 +1,10 @@
 package TeamMate;
 
-import java.util.List;
 import java.util.Scanner;
 import java.util.Set;
 import java.util.Arrays;
 import java.util.concurrent.Callable;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class SurveyProcessor implements Callable<Participant> {
 
@@ -16,17 +16,28 @@ public class SurveyProcessor implements Callable<Participant> {
             .collect(java.util.stream.Collectors.toSet());
 
     private final Scanner scanner;
-    private final List<Participant> participants;
+    private final ParticipantRegistry participants;
     private final FileService fileService;
-    private final List<Participant> unformedCache;
+    private final ParticipantRegistry unformedCache;
+    private final WaitlistEngine waitlist;   // null = new participants wait for a manual formation
+    private ReentrantLock formationLock = new ReentrantLock();
 
-    public SurveyProcessor(Scanner scanner, List<Participant> participants, FileService fileService, List<Participant> unformedCache) {
+    public SurveyProcessor(Scanner scanner, ParticipantRegistry participants, FileService fileService, ParticipantRegistry unformedCache) {
+        this(scanner, participants, fileService, unformedCache, null);
+    }
+
+    public SurveyProcessor(Scanner scanner, ParticipantRegistry participants, FileService fileService,
+                           ParticipantRegistry unformedCache, WaitlistEngine waitlist) {
         this.scanner = scanner;
         this.participants = participants;
         this.fileService = fileService;
         this.unformedCache = unformedCache;
+        this.waitlist = waitlist;
     }
 
+    // Held while the new participant is registered and offered; MainApp passes the lock formations hold
+    public void setFormationLock(ReentrantLock formationLock) { this.formationLock = formationLock; }
+
     @Override
     public Participant call() {
         System.out.println("---- Fill Survey ----");
@@ -35,18 +46,16 @@ public class SurveyProcessor implements Callable<Participant> {
         String id;
         while (true) {
             System.out.print("ID (e.g., P101): ");
-            id = scanner.nextLine().trim();
-            if (id.isEmpty()) {
-                System.out.println("Participant ID is required.");
-            } else if (!id.toUpperCase().matches("P\\d+")) {
-                System.out.println("Invalid ID format. Must start with 'P' followed by digits (e.g., P015).");
+            try {
+                id = validateId(scanner.nextLine());
+            } catch (TeamMateException e) {
+                System.out.println(e.getMessage());
+                continue;
+            }
+            if (participants.contains(id)) {
+                System.out.println("A participant with this ID has already filled the survey.");
             } else {
-                String finalId = id;
-                if (participants.stream().anyMatch(p -> p.getId().equalsIgnoreCase(finalId))) {
-                    System.out.println("A participant with this ID has already filled the survey.");
-                } else {
-                    break;
-                }
+                break;
             }
         }
 
@@ -64,11 +73,11 @@ public class SurveyProcessor implements Callable<Participant> {
 
             String currentEmail = emailInput.isEmpty() ? defaultEmail : emailInput;
 
-            if (currentEmail.isEmpty() || !currentEmail.contains("@") || !currentEmail.contains(".")) {
-                System.out.println("Valid email address is required (e.g., user@university.edu).");
-            } else {
-                email = currentEmail;
+            try {
+                email = validateEmail(currentEmail);
                 break;
+            } catch (TeamMateException e) {
+                System.out.println(e.getMessage());
             }
         }
 
@@ -77,14 +86,11 @@ public class SurveyProcessor implements Callable<Participant> {
         String gameList = String.join(", ", ALLOWED_GAMES);
         while (true) {
             System.out.print("Preferred Game (" + gameList + "): ");
-            game = scanner.nextLine().trim();
-            if (game.isEmpty()) {
-                System.out.println("Preferred game is required.");
-            } else if (!ALLOWED_GAMES.contains(game.toUpperCase())) {
-                System.out.println("Invalid game. Must be one of: " + gameList);
-            } else {
-                game = game.toUpperCase(); // Normalize game name
+            try {
+                game = validateGame(scanner.nextLine()); // Normalized to upper case
                 break;
+            } catch (TeamMateException e) {
+                System.out.println(e.getMessage());
             }
         }
 
@@ -93,12 +99,11 @@ public class SurveyProcessor implements Callable<Participant> {
         String roleList = String.join("/", ALLOWED_ROLES);
         while (true) {
             System.out.print("Role (" + roleList + "): ");
-            String roleInput = scanner.nextLine().trim().toUpperCase();
             try {
-                role = Role.valueOf(roleInput);
+                role = validateRole(scanner.nextLine());
                 break;
-            } catch (IllegalArgumentException e) {
-                System.out.println("Invalid role. Must be one of: " + roleList);
+            } catch (TeamMateException e) {
+                System.out.println(e.getMessage());
             }
         }
 
@@ -108,15 +113,13 @@ public class SurveyProcessor implements Callable<Participant> {
         while (true) {
             System.out.print("Skill (0-10): ");
             try {
-                skillInput = Integer.parseInt(scanner.nextLine().trim());
-                if (skillInput >= 0 && skillInput <= 10) {
-                    skillLevel = skillInput * 10; // Scale 0-10 to 0-100
-                    break;
-                } else {
-                    System.out.println("Skill must be a number between 0 and 10.");
-                }
+                skillInput = validateSkill(Integer.parseInt(scanner.nextLine().trim()));
+                skillLevel = skillInput * 10; // Scale 0-10 to 0-100
+                break;
             } catch (NumberFormatException e) {
                 System.out.println("Invalid input. Skill must be a number.");
+            } catch (TeamMateException e) {
+                System.out.println(e.getMessage());
             }
         }
 
@@ -138,19 +141,92 @@ public class SurveyProcessor implements Callable<Participant> {
 
         // Create and Save Participant
         Participant p = new Participant(id, name, email, game, role, skillLevel, personalityScore, pt);
-        participants.add(p);
-        unformedCache.add(p);
+        Team team = null;
+        formationLock.lock();
+        try {
+            participants.add(p);
+            unformedCache.add(p);
+            // Rolling registration: place the new participant right away if the waitlist completes a team
+            if (waitlist != null) team = waitlist.offer(p);
+        } finally {
+            formationLock.unlock();
+        }
 
         AppLogger.info("New survey added: " + id);
         try {
-            fileService.saveParticipants(participants, FileService.INPUT_FILE);
+            fileService.saveParticipants(participants.snapshot(), FileService.INPUT_FILE);
         } catch (Exception e) {
             AppLogger.warning("Failed to save participants: " + e.getMessage());
         }
         System.out.println("Survey recorded. Thank you!");
+        if (team != null) System.out.println("You have been placed in team " + team.getId() + ".");
         return p;
     }
 
+    /**
+     * Builds a participant from a complete set of answers, with the same validators as the console
+     * survey (used by the HTTP API). Duplicate IDs are the caller's check.
+     */
+    public static Participant fromAnswers(String id, String email, String game, String role, int skill,
+                                          int[] answers) throws TeamMateException {
+        id = validateId(id);
+        email = validateEmail(email == null || email.isBlank() ? Participant.defaultEmail(id) : email);
+        game = validateGame(game);
+        Role r = validateRole(role);
+        validateSkill(skill);
+        if (answers == null || answers.length != 5)
+            throw new TeamMateException("All 5 personality questions must be answered.");
+        int rawScore = 0;
+        for (int a : answers) rawScore += validateRating(a);
+        int personalityScore = rawScore * 4;
+        return new Participant(id, Participant.defaultName(id), email, game, r, skill * 10,
+                personalityScore, calculatePersonalityType(personalityScore));
+    }
+
+    // --- Validators (console survey and fromAnswers): the accepted value, or the message to show ---
+
+    static String validateId(String id) throws TeamMateException {
+        id = id == null ? "" : id.trim();
+        if (id.isEmpty()) throw new TeamMateException("Participant ID is required.");
+        if (!id.toUpperCase().matches("P\\d+"))
+            throw new TeamMateException("Invalid ID format. Must start with 'P' followed by digits (e.g., P015).");
+        return id;
+    }
+
+    static String validateEmail(String email) throws TeamMateException {
+        email = email == null ? "" : email.trim();
+        if (email.isEmpty() || !email.contains("@") || !email.contains("."))
+            throw new TeamMateException("Valid email address is required (e.g., user@university.edu).");
+        return email;
+    }
+
+    // Upper case, the form the console has always stored
+    static String validateGame(String game) throws TeamMateException {
+        game = game == null ? "" : game.trim();
+        if (game.isEmpty()) throw new TeamMateException("Preferred game is required.");
+        if (!ALLOWED_GAMES.contains(game.toUpperCase()))
+            throw new TeamMateException("Invalid game. Must be one of: " + String.join(", ", ALLOWED_GAMES));
+        return game.toUpperCase();
+    }
+
+    static Role validateRole(String role) throws TeamMateException {
+        try {
+            return Role.valueOf(role == null ? "" : role.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new TeamMateException("Invalid role. Must be one of: " + String.join("/", ALLOWED_ROLES));
+        }
+    }
+
+    static int validateSkill(int skill) throws TeamMateException {
+        if (skill < 0 || skill > 10) throw new TeamMateException("Skill must be a number between 0 and 10.");
+        return skill;
+    }
+
+    static int validateRating(int rating) throws TeamMateException {
+        if (rating < 1 || rating > 5) throw new TeamMateException("Rating must be a number between 1 and 5.");
+        return rating;
+    }
+
     // --- Helper Methods ---
 
     /**
@@ -158,23 +234,16 @@ public class SurveyProcessor implements Callable<Participant> {
      * Example: P101 -> user101@university.edu
      */
     private String generateDefaultEmail(String id) {
-        // Extracts digits from ID, e.g., P101 -> 101
-        String idNumber = id.replaceAll("[^0-9]", "");
-        if (idNumber.isEmpty()) {
-            return "user@university.edu"; // Fallback
-        }
-        return "user" + idNumber + "@university.edu";
+        // Same rule Participant uses to avoid storing default emails
+        return Participant.defaultEmail(id);
     }
 
     /**
      * Auto-generates the name based on the participant ID.
      */
     private String generateParticipantName(String id) {
-        // Example: P015 -> Participant_15
-        if (id.toUpperCase().startsWith("P")) {
-            return "Participant_" + id.substring(1);
-        }
-        return "Participant_" + id;
+        // Example: P015 -> Participant_015 (Participant derives the same name on demand)
+        return Participant.defaultName(id);
     }
 
     /**
@@ -186,12 +255,11 @@ public class SurveyProcessor implements Callable<Participant> {
             System.out.print(question + " (1-5): ");
             try {
                 rating = Integer.parseInt(scanner.nextLine().trim());
-                if (rating >= 1 && rating <= 5) {
-                    return rating;
-                }
-                System.out.println("Rating must be a number between 1 and 5.");
+                return validateRating(rating);
             } catch (NumberFormatException e) {
                 System.out.println("Invalid input. Please enter a number.");
+            } catch (TeamMateException e) {
+                System.out.println(e.getMessage());
             }
         }
     }
@@ -199,7 +267,7 @@ public class SurveyProcessor implements Callable<Participant> {
     /**
      * Calculates the PersonalityType based on the scaled score (20-100).
      */
-    private PersonalityType calculatePersonalityType(int scaledScore) {
+    private static PersonalityType calculatePersonalityType(int scaledScore) {
         if (scaledScore >= 90) {
             return PersonalityType.LEADER;
         } else if (scaledScore >= 70) {
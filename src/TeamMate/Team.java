@@ -1,56 +1,146 @@
 package TeamMate;
 
-import java.io.Serializable;
+import java.io.*;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * A team holds its members by participant ID. Members are resolved through the participant store the
+ * team was created with (the owner's registry, see {@link TeamIdAllocator}), so an edit to a participant
+ * is seen by every team at once and a deserialized team never carries its own copy of a participant;
+ * loaded teams are bound with {@link #setStore}. Members added in this process are also kept as
+ * references, used only when the store does not know the ID (previews, tests, cohorts that are not
+ * registered) or when the team has no store.
+ */
 public class Team implements Serializable {
 
-    private static final AtomicInteger COUNTER = new AtomicInteger(1); // auto ID generator
-    private final String id;                                           // team ID (T1, T2, ...)
-    private final List<Participant> members = new ArrayList<>();       // team members
+    private static final long serialVersionUID = 8852764019601334246L; // pinned: keeps existing .ser files readable
+    // Persisted: ID and member IDs. "members" is the old form (whole participants), still read, no longer written
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("id", String.class),
+            new ObjectStreamField("members", List.class),
+            new ObjectStreamField("memberIds", String[].class)
+    };
+    private static final TeamIdAllocator DEFAULT_IDS = new TeamIdAllocator(); // IDs for teams outside any event
+    private static final AtomicLong MODIFICATIONS = new AtomicLong();  // membership changes, all teams
 
+    private String id;                                                 // team ID (T1, T2, ...)
+    private List<String> memberIds = new ArrayList<>();                // team members, by participant ID
+    private transient List<Participant> added = new ArrayList<>();     // parallel to memberIds; null after a restart
+    private transient volatile int revision;                           // bumped on membership changes
+    private transient volatile Function<String, Participant> store;    // owner's store; null = added members only
+
+    // Team without a store: resolves only the participants added to it
     public Team() {
-        this.id = "T" + COUNTER.getAndIncrement();
+        this.id = DEFAULT_IDS.nextId();
+    }
+
+    // Explicit ID, does not consume the counter (dry runs, previews); no store
+    public Team(String id) {
+        this.id = id;
+    }
+
+    // Members resolve through the owner's participant store (MainApp's registry, or an event's)
+    public Team(String id, Function<String, Participant> store) {
+        this.id = id;
+        this.store = store;
     }
 
+    /** Binds a loaded team to its owner's participant store. */
+    public void setStore(Function<String, Participant> store) { this.store = store; }
+
+    /** Allocator behind {@code new Team()}. */
+    public static TeamIdAllocator defaultIds() { return DEFAULT_IDS; }
+
+    /** Counts membership changes across all teams (lets lookup indexes tell they are stale). */
+    public static long modifications() { return MODIFICATIONS.get(); }
+
     // Reset ID counter (used when no teams exist)
-    public static void resetCounter() { COUNTER.set(1); }
+    public static void resetCounter() { DEFAULT_IDS.reset(); }
 
     // Set counter based on existing team IDs
     public static void initializeCounter(List<Team> existing) {
-        int max = existing.stream()
-                .map(Team::getId)
-                .map(id -> id.replaceAll("\\D+", ""))  // keep only digits
-                .filter(s -> !s.isEmpty())
-                .mapToInt(Integer::parseInt)
-                .max().orElse(0);
-        COUNTER.set(max + 1);
+        DEFAULT_IDS.reset();
+        DEFAULT_IDS.advancePast(existing);
     }
 
     // Basic getters
     public String getId() { return id; }
-    public List<Participant> getMembers() { return Collections.unmodifiableList(members); }
-    public int size() { return members.size(); }
+    public int size() { return memberIds.size(); }
+    public int revision() { return revision; }
+
+    public synchronized List<String> getMemberIds() { return List.copyOf(memberIds); }
+
+    /** Current members, resolved through the canonical store; IDs it cannot resolve are skipped. */
+    public synchronized List<Participant> getMembers() {
+        Function<String, Participant> store = this.store;
+        List<Participant> out = new ArrayList<>(memberIds.size());
+        for (int i = 0; i < memberIds.size(); i++) {
+            Participant p = store == null ? null : store.apply(memberIds.get(i));
+            if (p == null && added != null) p = added.get(i);
+            if (p != null) out.add(p);
+        }
+        return Collections.unmodifiableList(out);
+    }
 
     // Modify team
-    public void addMember(Participant p) { members.add(p); }
-    public void removeMember(Participant p) { members.remove(p); }
+    public synchronized void addMember(Participant p) {
+        memberIds.add(p.getId());
+        if (added != null) added.add(p);
+        revision++;
+        MODIFICATIONS.incrementAndGet();
+    }
+
+    /** Copy of this team without the given member; this instance (possibly in a DB snapshot) is unchanged. */
+    public synchronized Team withoutMember(String participantId) {
+        Team copy = new Team(id, store);
+        if (added == null) copy.added = null;
+        for (int i = 0; i < memberIds.size(); i++) {
+            if (memberIds.get(i).equalsIgnoreCase(participantId)) continue;
+            copy.memberIds.add(memberIds.get(i));
+            if (added != null) copy.added.add(added.get(i));
+        }
+        MODIFICATIONS.incrementAndGet();
+        return copy;
+    }
 
     // Simple stats
     public double averageSkill() {
-        return members.stream().mapToInt(Participant::getSkillLevel).average().orElse(0.0);
+        return getMembers().stream().mapToInt(Participant::getSkillLevel).average().orElse(0.0);
     }
 
     public Set<Role> rolesPresent() {
-        return members.stream().map(Participant::getPreferredRole).collect(Collectors.toSet());
+        return getMembers().stream().map(Participant::getPreferredRole).collect(Collectors.toSet());
     }
 
     @Override
     public String toString() {
-        return String.format("%s size=%d avgSkill=%.1f members=%s",
-                id, size(), averageSkill(),
-                members.stream().map(Participant::getId).toList());
+        return String.format("%s size=%d avgSkill=%.1f members=%s", id, size(), averageSkill(), getMemberIds());
+    }
+
+    // ==================== SERIALIZATION ====================
+
+    private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField f = out.putFields();
+        f.put("id", id);
+        f.put("memberIds", memberIds.toArray(new String[0]));
+        out.writeFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField f = in.readFields();
+        id = (String) f.get("id", null);
+        memberIds = new ArrayList<>();
+        String[] ids = (String[]) f.get("memberIds", null);
+        if (ids != null) {
+            memberIds.addAll(Arrays.asList(ids));
+        } else {
+            // Old files: keep the IDs, drop the embedded copies
+            List<Participant> old = (List<Participant>) f.get("members", null);
+            if (old != null) for (Participant p : old) memberIds.add(p.getId());
+        }
     }
 }
@@ -0,0 +1,51 @@
+package TeamMate;
+
+import java.util.Arrays;
+
+/**
+ * Running counters for one team (size, skill sum, roles, personalities, games).
+ * Scoring kernels and {@link CompiledConstraints} read these instead of streaming over the member list.
+ */
+public class TeamAggregate {
+
+    int size;
+    int skillSum;
+    int roleMask;                                                  // bit per Role ordinal
+    final int[] personalityCounts = new int[PersonalityType.values().length];
+    short[] gameIds = new short[4];                                // distinct games in the team
+    int distinctGames;
+    int[] countsByGame = new int[8];                               // indexed by GameCatalog ID
+    int maxGameCount;
+
+    public static TeamAggregate of(Team team) {
+        TeamAggregate agg = new TeamAggregate();
+        for (Participant m : team.getMembers()) agg.add(m);
+        return agg;
+    }
+
+    public void add(Participant p) {
+        size++;
+        skillSum += p.getSkillLevel();
+        roleMask |= 1 << p.getPreferredRole().ordinal();
+        personalityCounts[p.getPersonalityType().ordinal()]++;
+
+        short game = p.getGameId();
+        if (game >= countsByGame.length)
+            countsByGame = Arrays.copyOf(countsByGame, Math.max(game + 1, countsByGame.length * 2));
+        int c = ++countsByGame[game];
+        if (c > maxGameCount) maxGameCount = c;
+        if (c == 1) {
+            if (distinctGames == gameIds.length) gameIds = Arrays.copyOf(gameIds, distinctGames * 2);
+            gameIds[distinctGames++] = game;
+        }
+    }
+
+    public int size() { return size; }
+    public int skillSum() { return skillSum; }
+    public boolean hasRole(int roleOrdinal) { return (roleMask & (1 << roleOrdinal)) != 0; }
+    public int count(PersonalityType type) { return personalityCounts[type.ordinal()]; }
+
+    public int gameCount(short game) {
+        return game < countsByGame.length ? countsByGame[game] : 0;
+    }
+}
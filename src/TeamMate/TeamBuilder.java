@@ -6,335 +6,309 @@ import java.util.stream.Collectors;
 
 public class TeamBuilder {
 
-    private static final int MINIMUM_ACCEPTABLE_SIZE = 3;
-    private static final int MAX_SAME_GAME_PER_TEAM = 2;
+    static final int MINIMUM_ACCEPTABLE_SIZE = 3;
+    private static final PersonalityType[] SEED_ORDER = {
+            PersonalityType.LEADER, PersonalityType.THINKER, PersonalityType.BALANCED, PersonalityType.UNCLASSIFIED
+    };
+
+    // Candidates per scoring task
+    private static final int SCORING_CHUNK = 4096;
+    // Scalar unless -Dteammate.scoring.vector=true (see ScoringKernel.select), chosen once per JVM
+    private static final ScoringKernel KERNEL = ScoringKernel.select();
+
+    // THREAD POOL FOR SCORING (shared, owned by TeamFormation)
+    private final ExecutorService executor;
+
+    // Rule sets per mode; MAX_SAME_GAME_PER_TEAM and the personality limits live here now
+    private TeamConstraints strictRules = TeamConstraints.strict();
+    private TeamConstraints relaxedRules = TeamConstraints.relaxed();
+    private Long seed;                       // null = new random shuffle every run
+    private boolean dryRun;                  // preview teams: no real team IDs, no per-team logging
+
+    public TeamBuilder() {
+        this(TeamFormation.workerPool());
+    }
 
-    // THREAD POOL FOR SCORING
-    private final ExecutorService executor =
-            Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    // A null executor scores candidates on the calling thread (used when the caller is already a pool worker)
+    public TeamBuilder(ExecutorService executor) {
+        this.executor = executor;
+    }
 
     public static class TeamFormationResult {
         public final List<Team> formedTeams;
         public final List<Participant> unformedParticipants;
+        // Ranked candidates skipped because their game was already at MAX_SAME_GAME
+        public final int gameCapRejections;
 
         public TeamFormationResult(List<Team> formedTeams, List<Participant> unformedParticipants) {
+            this(formedTeams, unformedParticipants, 0);
+        }
+
+        public TeamFormationResult(List<Team> formedTeams, List<Participant> unformedParticipants,
+                                   int gameCapRejections) {
             this.formedTeams = formedTeams;
             this.unformedParticipants = unformedParticipants;
+            this.gameCapRejections = gameCapRejections;
         }
     }
 
     // OPTION 7 → STRICT VALIDATION FROM ALL PARTICIPANTS
     public TeamFormationResult buildTeamsAndValidate(List<Participant> participants, int teamSize)
             throws TeamMateException {
+        return buildTeamsAndValidate(participants, teamSize, FormationControl.NONE);
+    }
 
-        if (teamSize < MINIMUM_ACCEPTABLE_SIZE)
-            throw new TeamMateException("Team size must be at least " + MINIMUM_ACCEPTABLE_SIZE);
-
-        // SPECIAL HANDLING FOR SIZE 3
-        if (teamSize == 3) {
-            long leaders = participants.stream().filter(p -> p.getPersonalityType() == PersonalityType.LEADER).count();
-            long thinkers = participants.stream().filter(p -> p.getPersonalityType() == PersonalityType.THINKER).count();
-            long balanced = participants.stream().filter(p -> p.getPersonalityType() == PersonalityType.BALANCED).count();
-
-            if (leaders < 1 || thinkers < 1 || balanced < 1)
-                throw new TeamMateException("Cannot form team of size 3: need 1 LEADER, 1 THINKER, 1 BALANCED.");
-        }
-
-        List<Participant> pool = new ArrayList<>(participants);
-        Collections.shuffle(pool, new Random());
-        List<Team> formed = new ArrayList<>();
-
-        Map<PersonalityType, List<Participant>> byPersonality = pool.stream()
-                .collect(Collectors.groupingBy(Participant::getPersonalityType, Collectors.toCollection(ArrayList::new)));
-
-        // STRICT TEAM FORMATION LOOP
-        while (pool.size() >= teamSize) {
-            Team team = new Team();
-            List<Participant> selected = new ArrayList<>();
-
-            // SIZE 3 EXACT COMPOSITION
-            if (teamSize == 3) {
-                Participant leader = pickAndRemove(byPersonality, pool, PersonalityType.LEADER);
-                Participant thinker = pickAndRemove(byPersonality, pool, PersonalityType.THINKER);
-                Participant balanced = pickAndRemove(byPersonality, pool, PersonalityType.BALANCED);
-
-                team.addMember(leader);
-                team.addMember(thinker);
-                team.addMember(balanced);
-                formed.add(team);
-                continue;
-            }
-
-            // PICK LEADER
-            Participant leader = pickAndRemove(byPersonality, pool, PersonalityType.LEADER);
-            if (leader == null) break;
-            team.addMember(leader);
-            selected.add(leader);
-
-            // PICK THINKER
-            Participant thinker = pickAndRemove(byPersonality, pool, PersonalityType.THINKER);
-            if (thinker == null) {
-                undoRollback(selected, pool, byPersonality);
-                break;
-            }
-            team.addMember(thinker);
-            selected.add(thinker);
-
-            // FILL REMAINING SLOTS using multithreaded ranking
-            int slotsToFill = teamSize - selected.size();
-            List<Participant> candidates = rankCandidatesParallel(pool, team, teamSize);
-
-            for (Participant cand : new ArrayList<>(candidates)) {
-                if (slotsToFill <= 0) break;
-
-                if (!canAddToTeam(cand, team)) continue;
-
-                long leadersCount = countPersonality(team, PersonalityType.LEADER);
-                long thinkersCount = countPersonality(team, PersonalityType.THINKER);
-
-                if (cand.getPersonalityType() == PersonalityType.LEADER && leadersCount >= 1) continue;
-                if (cand.getPersonalityType() == PersonalityType.THINKER && thinkersCount >= 2) continue;
-
-                // ACCEPT
-                team.addMember(cand);
-                selected.add(cand);
-                pool.remove(cand);
-                byPersonality.get(cand.getPersonalityType()).remove(cand);
-                slotsToFill--;
-            }
-
-            if (validateTeamStrict(team, teamSize)) {
-                formed.add(team);
-                AppLogger.info("Formed team " + team.getId() + " size=" + team.size());
-            } else {
-                AppLogger.warning("Dissolving candidate team " + team.getId() + " (constraints not met)");
-                undoRollback(selected, pool, byPersonality);
-                break;
-            }
-        }
+    public TeamFormationResult buildTeamsAndValidate(List<Participant> participants, int teamSize,
+                                                     FormationControl control) throws TeamMateException {
+        return build(participants, teamSize, FormationMode.STRICT, control);
+    }
 
-        List<Participant> unformed = sortedUnformed(pool);
-        return new TeamFormationResult(formed, unformed);
+    // OFF-HEAP COHORTS: participants are materialized from the store as the pool is built
+    public TeamFormationResult buildTeamsAndValidate(OffHeapParticipantStore store, int teamSize)
+            throws TeamMateException {
+        return buildTeamsAndValidate(store.asList(), teamSize, FormationControl.NONE);
     }
 
     // OPTION 6 → RELAXED VALIDATION (ONLY UNFORMED)
     public TeamFormationResult buildTeamsFromUnformed(List<Participant> participants, int teamSize)
             throws TeamMateException {
+        return buildTeamsFromUnformed(participants, teamSize, FormationControl.NONE);
+    }
 
-        if (teamSize < MINIMUM_ACCEPTABLE_SIZE)
-            throw new TeamMateException("Team size must be at least " + MINIMUM_ACCEPTABLE_SIZE);
-
-        // SPECIAL HANDLING FOR SIZE 3
-        if (teamSize == 3) {
-            long leaders = participants.stream().filter(p -> p.getPersonalityType() == PersonalityType.LEADER).count();
-            long thinkers = participants.stream().filter(p -> p.getPersonalityType() == PersonalityType.THINKER).count();
-            long balanced = participants.stream().filter(p -> p.getPersonalityType() == PersonalityType.BALANCED).count();
-
-            if (leaders < 1 || thinkers < 1 || balanced < 1)
-                throw new TeamMateException("Cannot form team of size 3 from unformed participants.");
-        }
-
-        List<Participant> pool = new ArrayList<>(participants);
-        Collections.shuffle(pool);
-        List<Team> formed = new ArrayList<>();
-
-        Map<PersonalityType, List<Participant>> byPersonality =
-                pool.stream().collect(Collectors.groupingBy(Participant::getPersonalityType,
-                        Collectors.toCollection(ArrayList::new)));
-
-        while (pool.size() >= teamSize) {
-            Team team = new Team();
-            List<Participant> selected = new ArrayList<>();
-
-            // EXACT COMBO FOR SIZE 3
-            if (teamSize == 3) {
-                team.addMember(pickAndRemove(byPersonality, pool, PersonalityType.LEADER));
-                team.addMember(pickAndRemove(byPersonality, pool, PersonalityType.THINKER));
-                team.addMember(pickAndRemove(byPersonality, pool, PersonalityType.BALANCED));
-                formed.add(team);
-                continue;
-            }
-
-            Participant leader = pickAndRemove(byPersonality, pool, PersonalityType.LEADER);
-            if (leader == null) break;
-            team.addMember(leader);
-            selected.add(leader);
-
-            Participant thinker = pickAndRemove(byPersonality, pool, PersonalityType.THINKER);
-            if (thinker == null) {
-                undoRollback(selected, pool, byPersonality);
-                break;
-            }
-            team.addMember(thinker);
-            selected.add(thinker);
+    public TeamFormationResult buildTeamsFromUnformed(List<Participant> participants, int teamSize,
+                                                      FormationControl control) throws TeamMateException {
+        return build(participants, teamSize, FormationMode.RELAXED, control);
+    }
 
-            int slotsToFill = teamSize - selected.size();
-            List<Participant> candidates = rankCandidatesParallel(pool, team, teamSize);
+    // Fixed shuffle seed: same cohort + same seed gives the same teams
+    public void setSeed(long seed) { this.seed = seed; }
 
-            for (Participant cand : candidates) {
-                if (slotsToFill <= 0) break;
-                if (!canAddToTeam(cand, team)) continue;
+    // Dry run: teams get preview IDs (D1, D2, ...) so the global team counter is untouched
+    public void setDryRun(boolean dryRun) { this.dryRun = dryRun; }
 
-                long leadersCount = countPersonality(team, PersonalityType.LEADER);
-                long thinkersCount = countPersonality(team, PersonalityType.THINKER);
+    // Replaces the rule set for one mode (per-event configuration)
+    public void setConstraints(FormationMode mode, TeamConstraints rules) {
+        if (mode == FormationMode.RELAXED) relaxedRules = rules;
+        else strictRules = rules;
+    }
 
-                if (cand.getPersonalityType() == PersonalityType.LEADER && leadersCount >= 1) continue;
-                if (cand.getPersonalityType() == PersonalityType.THINKER && thinkersCount >= 2) continue;
+    // SHARED FORMATION LOOP (rules compiled once per run)
+    private TeamFormationResult build(List<Participant> participants, int teamSize, FormationMode mode,
+                                      FormationControl control) throws TeamMateException {
 
-                team.addMember(cand);
-                selected.add(cand);
-                pool.remove(cand);
-                byPersonality.get(cand.getPersonalityType()).remove(cand);
-                slotsToFill--;
-            }
+        if (teamSize < MINIMUM_ACCEPTABLE_SIZE)
+            throw new TeamMateException("Team size must be at least " + MINIMUM_ACCEPTABLE_SIZE);
 
-            if (team.size() == teamSize && validateTeamFinalSize(team)) {
-                formed.add(team);
-                AppLogger.info("Formed unformed team " + team.getId() + " size=" + team.size());
-            } else {
-                AppLogger.warning("Dissolving unformed team " + team.getId());
-                undoRollback(selected, pool, byPersonality);
-                break;
+        CompiledConstraints rules = (mode == FormationMode.RELAXED ? relaxedRules : strictRules).compile(teamSize);
+        String label = (mode == FormationMode.RELAXED) ? "unformed team" : "team";
+        TeamMateEvents.Formation run = new TeamMateEvents.Formation();
+        run.begin();
+
+        TeamMateEvents.FormationPhase phase = TeamMateEvents.beginPhase();
+        List<Participant> shuffled = new ArrayList<>(participants);
+        Collections.shuffle(shuffled, seed == null ? new Random() : new Random(seed));
+        TeamMateEvents.endPhase(phase, "shuffle", shuffled.size(), teamSize);
+        int poolSize = shuffled.size();
+        // The default builder keeps its fixed target; the draft and parity builders aim at the cohort mean
+        float skillTarget = ScoringKernel.SKILL_TARGET;
+        List<Team> formed = new ArrayList<>();
+        int gameCapRejections = 0;
+        int dissolves = 0;
+
+        // Equivalence classes: seeding, ranking and supply counts run per profile, not per person
+        phase = TeamMateEvents.beginPhase();
+        CandidateClasses pool = new CandidateClasses(shuffled);
+        shuffled = null;
+        FeasibilityOracle oracle = pool.oracle();
+        TeamMateEvents.endPhase(phase, "bucketing", pool.size(), teamSize);
+
+        // EXACT COMPOSITIONS (e.g. size 3) must be satisfiable up front
+        String compositionError = rules.compositionError(oracle.supplyByType(), mode);
+        if (compositionError != null) throw new TeamMateException(compositionError);
+
+        // Counting bound: no point building (and dissolving) teams past it
+        FeasibilityOracle.Feasibility feasible = oracle.assess(rules);
+        if (feasible.maxTeams == 0 && !dryRun)
+            AppLogger.info("No " + label + " of size " + teamSize + " can be formed: limited by " + feasible.binding);
+
+        // IDs for every team this run can form, reserved once: parallel workers never share a counter
+        try (TeamIdAllocator.Block ids = control.teamIds().block(dryRun ? 0 : feasible.maxTeams)) {
+            while (formed.size() < feasible.maxTeams && pool.size() >= teamSize) {
+                control.checkpoint();
+                Team team = dryRun ? new Team("D" + (formed.size() + 1)) : ids.newTeam();
+                TeamAggregate agg = new TeamAggregate();
+                List<Participant> selected = new ArrayList<>();
+
+                // SEED REQUIRED PERSONALITIES (LEADER first, then THINKER, ...)
+                phase = TeamMateEvents.beginPhase();
+                boolean seeded = true;
+                for (PersonalityType type : SEED_ORDER) {
+                    for (int i = agg.count(type); i < rules.min(type) && seeded; i++) {
+                        Participant p = pool.takeFirst(type, rules, agg);
+                        if (p == null) seeded = false;
+                        else accept(p, team, agg, selected);
+                    }
+                }
+                TeamMateEvents.endPhase(phase, "seeding", pool.size(), teamSize);
+                if (!seeded) {
+                    undoRollback(selected, pool, teamSize);
+                    dissolves++;
+                    break;
+                }
+
+                // FILL REMAINING SLOTS from the ranked classes
+                if (agg.size() < teamSize) gameCapRejections += fill(pool, agg, rules, skillTarget, team, selected);
+
+                phase = TeamMateEvents.beginPhase();
+                boolean valid = rules.isValid(agg);
+                TeamMateEvents.endPhase(phase, "validation", pool.size(), teamSize);
+                if (valid) {
+                    formed.add(team);
+                    control.teamFormed(formed.size(), pool.size());
+                    if (!dryRun) AppLogger.info("Formed " + label + " " + team.getId() + " size=" + team.size());
+                } else {
+                    if (!dryRun) AppLogger.warning("Dissolving " + label + " " + team.getId() + " (constraints not met)");
+                    undoRollback(selected, pool, teamSize);
+                    dissolves++;
+                    break;
+                }
             }
         }
 
-        List<Participant> unformed = sortedUnformed(pool);
-        return new TeamFormationResult(formed, unformed);
+        List<Participant> unformed = sortedUnformed(pool.remaining());
+        run.end();
+        if (run.shouldCommit()) {
+            run.label = label;
+            run.poolSize = poolSize;
+            run.teamSize = teamSize;
+            run.teamsFormed = formed.size();
+            run.dissolves = dissolves;
+            run.gameCapRejections = gameCapRejections;
+            run.commit();
+        }
+        return new TeamFormationResult(formed, unformed, gameCapRejections);
     }
 
-    // MULTITHREADED SCORING (FAST)
-    private List<Participant> rankCandidatesParallel(List<Participant> pool, Team team, int teamSize) {
-        List<Callable<Map.Entry<Participant, Double>>> tasks = new ArrayList<>();
-
-        for (Participant p : pool) {
-            tasks.add(() -> Map.entry(p, calculateScore(p, team, teamSize)));
+    /**
+     * Ranks the classes once per team and takes members in the order the flat pool would have offered
+     * them: by score, then pool position. Members of one class score the same and pass or fail the
+     * rules together, and a rejected class stays rejected for the rest of the team (adding members
+     * only tightens the rules), so only class heads are ever examined. Returns the number of
+     * candidates the flat walk would have skipped at the same-game cap.
+     */
+    private int fill(CandidateClasses pool, TeamAggregate agg, CompiledConstraints rules, float skillTarget,
+                     Team team, List<Participant> selected) {
+        TeamMateEvents.FormationPhase phase = TeamMateEvents.beginPhase();
+        List<CandidateClasses.Profile> classes = pool.live();
+        float[] scores = scoreParallel(classes, agg, skillTarget);
+        for (int i = 0; i < scores.length; i++) {
+            CandidateClasses.Profile c = classes.get(i);
+            c.score = scores[i];
+            c.rank = rankKey(c);
         }
-
-        try {
-            List<Future<Map.Entry<Participant, Double>>> futures = executor.invokeAll(tasks);
-
-            List<Map.Entry<Participant, Double>> scored = new ArrayList<>();
-            for (Future<Map.Entry<Participant, Double>> f : futures) {
-                scored.add(f.get());
+        PriorityQueue<CandidateClasses.Profile> queue =
+                new PriorityQueue<>(Math.max(1, classes.size()), Comparator.comparingLong(c -> c.rank));
+        queue.addAll(classes);
+        TeamMateEvents.endPhase(phase, "ranking", pool.size(), rules.teamSize());
+
+        List<CandidateClasses.Profile> rejected = new ArrayList<>();
+        List<Long> rejectedFrom = new ArrayList<>();
+        Map<Short, Long> gameCappedAt = new HashMap<>();   // rank key of the pick that filled a game
+        long last = Long.MAX_VALUE;
+        while (agg.size() < rules.teamSize() && !queue.isEmpty()) {
+            CandidateClasses.Profile c = queue.poll();
+            if (!rules.canAdd(agg, c.first())) {
+                rejected.add(c);
+                rejectedFrom.add(c.rank);
+                continue;
             }
 
-            return scored.stream()
-                    .sorted((a, b) -> Double.compare(b.getValue(), a.getValue()))
-                    .map(Map.Entry::getKey)
-                    .collect(Collectors.toList());
-
-        } catch (Exception e) {
-            throw new RuntimeException("Error in threaded scoring", e);
+            // ACCEPT
+            last = c.rank;
+            Participant p = pool.take(c);
+            accept(p, team, agg, selected);
+            if (agg.gameCount(p.getGameId()) == rules.maxSameGame()) gameCappedAt.put(p.getGameId(), last);
+            if (!c.isEmpty()) {
+                c.rank = rankKey(c);
+                queue.add(c);
+            }
         }
-    }
 
-    // HELPER METHODS
-    private void undoRollback(List<Participant> selected, List<Participant> pool,
-                              Map<PersonalityType, List<Participant>> byPersonality) {
-        for (Participant p : selected) {
-            pool.add(p);
-            byPersonality.computeIfAbsent(p.getPersonalityType(), k -> new ArrayList<>()).add(p);
+        // Skipped members sit between their class's first rejection and the pick that completed the team;
+        // the flat walk counted those it met while their game was already at the cap
+        long end = agg.size() >= rules.teamSize() ? last : Long.MAX_VALUE;
+        int capRejections = 0;
+        for (int i = 0; i < rejected.size(); i++) {
+            CandidateClasses.Profile c = rejected.get(i);
+            long from = rejectedFrom.get(i);
+            if (agg.gameCount(c.game()) < rules.maxSameGame()) continue;
+            Long cappedAt = gameCappedAt.get(c.game());
+            if (cappedAt != null) from = Math.max(from, cappedAt + 1);
+            // High half of a rank key is the score, low half the pool position
+            int band = ~sortableBits(c.score);
+            if (end <= from || (int) (from >> 32) != band) continue;
+            int toPos = (int) (end >> 32) == band ? (int) end : Integer.MAX_VALUE;
+            capRejections += c.countBetween((int) from, toPos);
         }
+        return capRejections;
     }
 
-    private List<Participant> sortedUnformed(List<Participant> pool) {
-        return pool.stream().sorted(Comparator.comparing(Participant::getId))
-                .collect(Collectors.toList());
-    }
-
-    private long countPersonality(Team t, PersonalityType type) {
-        return t.getMembers().stream()
-                .filter(m -> m.getPersonalityType() == type).count();
-    }
-
-    private Participant pickAndRemove(Map<PersonalityType, List<Participant>> byPersonality,
-                                      List<Participant> pool, PersonalityType type) {
-
-        List<Participant> list = byPersonality.get(type);
-        if (list == null || list.isEmpty()) return null;
-
-        Participant p = list.remove(0);
-        pool.remove(p);
-        return p;
+    // Score desc, then pool position asc, in one long
+    private static long rankKey(CandidateClasses.Profile c) {
+        return ((long) ~sortableBits(c.score) << 32) | c.firstPosition();
     }
 
-    private boolean canAddToTeam(Participant p, Team t) {
-        long sameGameCount = t.getMembers().stream()
-                .filter(m -> m.getInterest().equalsIgnoreCase(p.getInterest()))
-                .count();
-        return sameGameCount < MAX_SAME_GAME_PER_TEAM;
+    // MULTITHREADED SCORING (FAST): primitive columns, scored in chunks on the worker pool
+    private float[] scoreParallel(List<CandidateClasses.Profile> classes, TeamAggregate agg, float skillTarget) {
+        int n = classes.size();
+        CandidateColumns columns = new CandidateColumns(n);
+        for (int i = 0; i < n; i++) columns.set(i, classes.get(i).first());
+        columns.skillTarget = skillTarget;
+        float[] scores = new float[n];
+
+        if (executor == null || n < 2 * SCORING_CHUNK) {
+            KERNEL.score(columns, 0, n, agg, scores);
+        } else {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int from = 0; from < n; from += SCORING_CHUNK) {
+                int lo = from, hi = Math.min(n, from + SCORING_CHUNK);
+                tasks.add(() -> { KERNEL.score(columns, lo, hi, agg, scores); return null; });
+            }
+            try {
+                for (Future<Void> f : executor.invokeAll(tasks)) f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Scoring interrupted");
+            } catch (Exception e) {
+                throw new RuntimeException("Error in threaded scoring", e);
+            }
+        }
+        return scores;
     }
 
-    // making balancing teams based on leader,thinker and balanced
-    private boolean validateTeamStrict(Team t, int teamSize) {
-        if (t.size() != teamSize) return false;
-
-        long leaders = countPersonality(t, PersonalityType.LEADER);
-        long thinkers = countPersonality(t, PersonalityType.THINKER);
-        long balanced = countPersonality(t, PersonalityType.BALANCED);
-
-        if (leaders != 1) return false;
-        if (thinkers < 1 || thinkers > 2) return false;
-        if (leaders + thinkers + balanced != teamSize) return false;
-
-        if (t.rolesPresent().size() < 3) return false;
-
-        Map<String, Long> byGame = t.getMembers().stream()
-                .collect(Collectors.groupingBy(Participant::getInterest, Collectors.counting()));
-
-        for (Long c : byGame.values()) if (c > MAX_SAME_GAME_PER_TEAM) return false;
-
-        return true;
+    // Maps a float onto an int whose signed order matches the float order
+    private static int sortableBits(float f) {
+        int bits = Float.floatToIntBits(f);
+        return bits ^ ((bits >> 31) & 0x7fffffff);
     }
 
-    //checking for conditions
-    private boolean validateTeamFinalSize(Team t) {
-        if (t.size() < MINIMUM_ACCEPTABLE_SIZE) return false;
-
-        long leaders = countPersonality(t, PersonalityType.LEADER);
-        long thinkers = countPersonality(t, PersonalityType.THINKER);
-
-        if (leaders == 0 || thinkers == 0) return false;
-
-        Map<String, Long> byGame = t.getMembers().stream()
-                .collect(Collectors.groupingBy(Participant::getInterest, Collectors.counting()));
-
-        for (Long c : byGame.values()) if (c > MAX_SAME_GAME_PER_TEAM) return false;
+    // HELPER METHODS
 
-        return true;
+    // Dissolved members go back to the end of the pool
+    private void undoRollback(List<Participant> selected, CandidateClasses pool, int teamSize) {
+        TeamMateEvents.FormationPhase phase = TeamMateEvents.beginPhase();
+        for (Participant p : selected) pool.add(p);
+        TeamMateEvents.endPhase(phase, "rollback", pool.size(), teamSize);
     }
 
-    // calculate score to determine leader,thinker or balanced
-    private double calculateScore(Participant p, Team team, int teamSize) {
-        double score = 0.0;
-
-        if (!team.rolesPresent().contains(p.getPreferredRole()))
-            score += 2.0;
-
-        long sameGame = team.getMembers().stream()
-                .filter(m -> m.getInterest().equalsIgnoreCase(p.getInterest())).count();
-
-        if (sameGame == 0) score += 1.0;
-        else if (sameGame == 1) score += 0.2;
-
-        double avg = team.averageSkill();
-        double projected = ((avg * team.size()) + p.getSkillLevel()) / (team.size() + 1);
-        score += 2.0 * (1.0 - Math.abs(projected - 50.0) / 50.0);
-
-        long thinkers = countPersonality(team, PersonalityType.THINKER);
-        if (p.getPersonalityType() == PersonalityType.THINKER && thinkers < 2)
-            score += 1.0;
-
-        long leaders = countPersonality(team, PersonalityType.LEADER);
-        if (p.getPersonalityType() == PersonalityType.LEADER && leaders == 0)
-            score += 5.0;
-
-        score += Math.random() * 0.01;
-        return score;
+    private List<Participant> sortedUnformed(List<Participant> pool) {
+        return pool.stream().sorted(Comparator.comparing(Participant::getId))
+                .collect(Collectors.toList());
     }
 
-    // OPTIONAL SHUTDOWN
-    public void shutdown() {
-        executor.shutdown();
+    private void accept(Participant p, Team team, TeamAggregate agg, List<Participant> selected) {
+        team.addMember(p);
+        agg.add(p);
+        selected.add(p);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,94 @@
+package TeamMate;
+
+import java.util.*;
+
+/**
+ * Declarative team rules for one event: personality min/max per team, minimum distinct roles,
+ * the same-game cap and exact compositions for specific team sizes.
+ * Rules are compiled once per run with {@link #compile(int)}; the builder only sees the compiled form.
+ */
+public class TeamConstraints {
+
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+    private static final int TYPES = PersonalityType.values().length;
+
+    private final int[] minPerType = new int[TYPES];
+    private final int[] maxPerType = new int[TYPES];
+    private int minDistinctRoles = 0;
+    private int maxSameGame = UNBOUNDED;
+    private final Map<Integer, int[]> exactCompositions = new HashMap<>();
+
+    public TeamConstraints() {
+        Arrays.fill(maxPerType, UNBOUNDED);
+    }
+
+    // Option 7 rules: exactly one LEADER, one or two THINKERs, no UNCLASSIFIED, 3+ roles, game cap
+    public static TeamConstraints strict() {
+        return new TeamConstraints()
+                .personality(PersonalityType.LEADER, 1, 1)
+                .personality(PersonalityType.THINKER, 1, 2)
+                .personality(PersonalityType.UNCLASSIFIED, 0, 0)
+                .minDistinctRoles(3)
+                .maxSameGame(2)
+                .exactComposition(3, Map.of(PersonalityType.LEADER, 1,
+                        PersonalityType.THINKER, 1, PersonalityType.BALANCED, 1));
+    }
+
+    // Option 6 rules: one LEADER, one or two THINKERs, game cap
+    public static TeamConstraints relaxed() {
+        return new TeamConstraints()
+                .personality(PersonalityType.LEADER, 1, 1)
+                .personality(PersonalityType.THINKER, 1, 2)
+                .maxSameGame(2)
+                .exactComposition(3, Map.of(PersonalityType.LEADER, 1,
+                        PersonalityType.THINKER, 1, PersonalityType.BALANCED, 1));
+    }
+
+    public TeamConstraints personality(PersonalityType type, int min, int max) {
+        if (min < 0 || max < min)
+            throw new IllegalArgumentException("Invalid range for " + type + ": " + min + ".." + max);
+        minPerType[type.ordinal()] = min;
+        maxPerType[type.ordinal()] = max;
+        return this;
+    }
+
+    public TeamConstraints minDistinctRoles(int n) {
+        this.minDistinctRoles = n;
+        return this;
+    }
+
+    public TeamConstraints maxSameGame(int n) {
+        this.maxSameGame = n;
+        return this;
+    }
+
+    /**
+     * Teams of exactly this size must have exactly these personality counts (missing types = 0).
+     * Like the original size-3 rule, the composition replaces the role and game rules for that size.
+     */
+    public TeamConstraints exactComposition(int teamSize, Map<PersonalityType, Integer> counts) {
+        int[] exact = new int[TYPES];
+        counts.forEach((type, n) -> exact[type.ordinal()] = n);
+        if (Arrays.stream(exact).sum() != teamSize)
+            throw new IllegalArgumentException("Composition for size " + teamSize + " must add up to " + teamSize);
+        exactCompositions.put(teamSize, exact);
+        return this;
+    }
+
+    /** Resolves the rules for one team size into flat counters. */
+    public CompiledConstraints compile(int teamSize) {
+        int[] min = minPerType.clone();
+        int[] max = maxPerType.clone();
+        int roles = minDistinctRoles;
+        int sameGame = maxSameGame;
+        int[] exact = exactCompositions.get(teamSize);
+        if (exact != null) {
+            min = exact.clone();
+            max = exact.clone();
+            roles = 0;
+            sameGame = UNBOUNDED;
+        }
+        for (int i = 0; i < TYPES; i++) max[i] = Math.min(max[i], teamSize);
+        return new CompiledConstraints(teamSize, min, max, roles, sameGame, exact != null);
+    }
+}
@@ -1,21 +1,136 @@
 package TeamMate;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
+/**
+ * Long-lived formation service. Every formation in the process runs on one shared job pool, and
+ * candidate scoring for all of them runs on one shared worker pool, so no threads are created per run.
+ * Pool sizes are configurable with -Dteammate.formation.jobs and -Dteammate.formation.workers.
+ */
 public class TeamFormation {
 
-    private static final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private static final int JOB_THREADS = Integer.getInteger("teammate.formation.jobs", 2);
+    private static final int WORKER_THREADS =
+            Integer.getInteger("teammate.formation.workers", Runtime.getRuntime().availableProcessors());
 
-    public static List<Team> formTeams(List<Participant> participants, int teamSize) {
-        Callable<List<Team>> job = () -> {
-            TeamBuilder builder = new TeamBuilder();
-            return builder.buildTeams(participants, teamSize);
-        };
+    private static final ExecutorService jobPool = newPool("teammate-formation", JOB_THREADS);
+    private static final ExecutorService workerPool = newPool("teammate-worker", WORKER_THREADS);
+
+    /** Progress event published after each team is formed. */
+    public static class Progress {
+        public final int teamsFormed;
+        public final int poolRemaining;
+
+        public Progress(int teamsFormed, int poolRemaining) {
+            this.teamsFormed = teamsFormed;
+            this.poolRemaining = poolRemaining;
+        }
+
+        @Override
+        public String toString() {
+            return teamsFormed + " team(s) formed, " + poolRemaining + " participant(s) remaining";
+        }
+    }
+
+    // Shared pool used by TeamBuilder for candidate scoring
+    public static ExecutorService workerPool() { return workerPool; }
+
+    /**
+     * Runs a formation asynchronously on the shared job pool.
+     * Cancelling the returned future stops the builder at its next checkpoint; a non-null deadline
+     * completes the future with a TimeoutException and stops the builder the same way.
+     */
+    public static CompletableFuture<TeamBuilder.TeamFormationResult> formTeamsAsync(
+            List<Participant> participants, int teamSize, FormationMode mode,
+            Duration deadline, Consumer<Progress> listener) {
+        return formTeamsAsync(participants, teamSize, mode,
+                FormationStrategy.forCohort(participants.size()), deadline, listener);
+    }
+
+    public static CompletableFuture<TeamBuilder.TeamFormationResult> formTeamsAsync(
+            List<Participant> participants, int teamSize, FormationMode mode, FormationStrategy strategy,
+            Duration deadline, Consumer<Progress> listener) {
+        return formTeamsAsync(participants, teamSize, mode, strategy, null, deadline, listener);
+    }
+
+    /**
+     * With a non-null seed the run is deterministic, so its result is memoized in the shared
+     * {@link FormationCache} and an identical later request completes immediately.
+     */
+    public static CompletableFuture<TeamBuilder.TeamFormationResult> formTeamsAsync(
+            List<Participant> participants, int teamSize, FormationMode mode, FormationStrategy strategy,
+            Long seed, Duration deadline, Consumer<Progress> listener) {
+        return formTeamsAsync(participants, teamSize, mode, strategy, seed, deadline, listener, Team.defaultIds());
+    }
+
+    // Formation for one event: teams are numbered by the event's allocator
+    public static CompletableFuture<TeamBuilder.TeamFormationResult> formTeamsAsync(
+            List<Participant> participants, int teamSize, FormationMode mode, FormationStrategy strategy,
+            Long seed, Duration deadline, Consumer<Progress> listener, TeamIdAllocator teamIds) {
 
-        Future<List<Team>> future = executor.submit(job);
+        FormationCache.Key key = (seed == null) ? null : new FormationCache.Key(
+                FormationCache.fingerprint(participants), teamSize, mode, strategy, seed);
+        if (key != null) {
+            TeamBuilder.TeamFormationResult cached = FormationCache.shared().get(key, participants, teamIds);
+            if (cached != null) return CompletableFuture.completedFuture(cached);
+        }
+
+        // Consistent input for the whole run; registry snapshots are already immutable
+        List<Participant> snapshot = (participants instanceof ParticipantRegistry.Snapshot)
+                ? participants : List.copyOf(participants);
+        FormationControl control = new FormationControl(deadline, listener, teamIds);
+        CompletableFuture<TeamBuilder.TeamFormationResult> future = new CompletableFuture<>();
+
+        jobPool.execute(() -> {
+            if (future.isDone()) return; // cancelled before it started
+            try {
+                TeamBuilder.TeamFormationResult res = run(snapshot, teamSize, mode, strategy, seed, control);
+                if (key != null) FormationCache.shared().put(key, res);
+                future.complete(res);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+
+        if (deadline != null) future.orTimeout(deadline.toMillis(), TimeUnit.MILLISECONDS);
+        future.whenComplete((res, err) -> {
+            if (err != null) control.cancel(); // cancellation or timeout: let the worker stop early
+        });
+        return future;
+    }
+
+    private static TeamBuilder.TeamFormationResult run(List<Participant> participants, int teamSize,
+                                                       FormationMode mode, FormationStrategy strategy,
+                                                       Long seed, FormationControl control) throws TeamMateException {
+        if (strategy == FormationStrategy.SHARDED)
+            return new ShardedTeamBuilder().buildTeams(participants, teamSize, mode, seed, control);
+        if (strategy == FormationStrategy.DRAFT) {
+            DraftTeamBuilder draft = new DraftTeamBuilder();
+            if (seed != null) draft.setSeed(seed);
+            return draft.buildTeams(participants, teamSize, mode, control);
+        }
+        if (strategy == FormationStrategy.PARITY) {
+            SkillParityTeamBuilder parity = new SkillParityTeamBuilder();
+            if (seed != null) parity.setSeed(seed);
+            return parity.buildTeams(participants, teamSize, mode, control);
+        }
+
+        TeamBuilder builder = new TeamBuilder();
+        if (seed != null) builder.setSeed(seed);
+        return (mode == FormationMode.RELAXED)
+                ? builder.buildTeamsFromUnformed(participants, teamSize, control)
+                : builder.buildTeamsAndValidate(participants, teamSize, control);
+    }
+
+    // Blocking convenience used by callers that only need the teams
+    public static List<Team> formTeams(List<Participant> participants, int teamSize) {
         try {
-            return future.get();
+            return formTeamsAsync(participants, teamSize, FormationMode.STRICT, null, null)
+                    .get().formedTeams;
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             System.err.println("Team formation interrupted.");
@@ -26,6 +141,16 @@ public class TeamFormation {
     }
 
     public static void shutdown() {
-        executor.shutdown();
+        jobPool.shutdownNow();
+        workerPool.shutdownNow();
+    }
+
+    private static ExecutorService newPool(String name, int threads) {
+        AtomicInteger seq = new AtomicInteger(1);
+        return Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, name + "-" + seq.getAndIncrement());
+            t.setDaemon(true); // never keeps the JVM alive on exit
+            return t;
+        });
     }
 }
@@ -0,0 +1,97 @@
+package TeamMate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Hands out team IDs (T1, T2, ...) for one event. Teams it creates resolve their members through the
+ * event's own participant store.
+ *
+ * A formation worker takes a {@link Block} of IDs up front and numbers its teams from it without
+ * touching the shared counter again, so parallel workers never contend. Closing a block gives its
+ * unused tail back when no other block was taken after it, which keeps sequential runs gap-free.
+ */
+public class TeamIdAllocator {
+
+    private final AtomicInteger next = new AtomicInteger(1);
+    private final Function<String, Participant> store;   // null = teams resolve only the members added to them
+
+    public TeamIdAllocator() {
+        this(null);
+    }
+
+    public TeamIdAllocator(Function<String, Participant> store) {
+        this.store = store;
+    }
+
+    /** Next single ID (one atomic increment). */
+    public String nextId() { return "T" + next.getAndIncrement(); }
+
+    public Team newTeam() { return new Team(nextId(), store); }
+
+    /** Reserves 'size' consecutive IDs for one worker (0 reserves nothing until the first team). */
+    public Block block(int size) {
+        int n = Math.max(0, size);
+        int start = next.getAndAdd(n);
+        return new Block(start, start + n);
+    }
+
+    /** Next ID starts at 1 again (used when no teams exist). */
+    public void reset() { next.set(1); }
+
+    /** Moves past every numeric ID in use, so new teams never collide with loaded ones. */
+    public void advancePast(Iterable<Team> existing) {
+        int max = 0;
+        for (Team t : existing) max = Math.max(max, number(t.getId()));
+        int floor = max + 1;
+        next.accumulateAndGet(floor, Math::max);
+    }
+
+    public int peek() { return next.get(); }
+
+    // Digits of the ID read as one number (T12 -> 12); 0 when there are none or they overflow
+    static int number(String id) {
+        long n = 0;
+        boolean digits = false;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') continue;
+            n = n * 10 + (c - '0');
+            digits = true;
+            if (n > Integer.MAX_VALUE) return 0;
+        }
+        return digits ? (int) n : 0;
+    }
+
+    /** A range of IDs owned by one worker thread; not thread-safe. */
+    public final class Block implements AutoCloseable {
+        private final int size;
+        private int cursor;
+        private int end;
+
+        private Block(int start, int end) {
+            this.size = Math.max(1, end - start);
+            this.cursor = start;
+            this.end = end;
+        }
+
+        /** Next ID of the block; reserves another range of the same size once this one is used up. */
+        public String nextId() {
+            if (cursor == end) {
+                cursor = next.getAndAdd(size);
+                end = cursor + size;
+            }
+            return "T" + cursor++;
+        }
+
+        public Team newTeam() { return new Team(nextId(), store); }
+
+        public int remaining() { return end - cursor; }
+
+        /** Returns the unused tail if nothing was allocated after this block. */
+        @Override
+        public void close() {
+            next.compareAndSet(end, cursor);
+        }
+    }
+}
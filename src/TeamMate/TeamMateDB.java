@@ -2,85 +2,314 @@ package TeamMate;
 
 import java.io.*;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.nio.file.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 /**
  * A light-weight in-memory database stub, now persistent via Java Serialization.
  * Data is saved to 'teammate_data.ser' in the project root.
+ *
+ * Storage is multi-versioned: every key holds a short chain of (version, value) entries. A
+ * {@link Transaction} installs all its writes under one new version and then publishes that version,
+ * so readers and {@link #saveToDisk()} either see the whole batch or none of it, and never block writers.
+ *
+ * Commits mark the written keys dirty. A background checkpointer persists only what changed since the
+ * last full save into 'teammate_data.ser.delta', on an interval (-Dteammate.checkpoint.seconds) or once
+ * enough keys are dirty (-Dteammate.checkpoint.dirty). Both files are written to a temp file and renamed
+ * atomically; when the delta grows past half the database it is folded into a new full file.
  */
 public class TeamMateDB {
 
     // File name where the database object will be saved
-    private static final String DB_FILE_NAME = "teammate_data.ser";
-
-    private final Map<String, Participant> participants = new ConcurrentHashMap<>();
-    private final Map<String, Team> teams = new ConcurrentHashMap<>();
+    public static final String DB_FILE_NAME = "teammate_data.ser";
+    private static final long CHECKPOINT_SECONDS = Long.getLong("teammate.checkpoint.seconds", 30);
+    private static final int CHECKPOINT_DIRTY = Integer.getInteger("teammate.checkpoint.dirty", 500);
+    // Deltas smaller than this are never worth a full rewrite
+    private static final int COMPACT_MIN = 1024;
+
+    private final Map<String, Versioned<Participant>> participants = new ConcurrentHashMap<>();
+    private final Map<String, Versioned<Team>> teams = new ConcurrentHashMap<>();
+
+    private final Object commitLock = new Object();
+    private volatile long committedVersion = 0;
+    // Open snapshot versions -> number of readers; old versions are kept until no snapshot needs them
+    private final ConcurrentSkipListMap<Long, Integer> activeSnapshots = new ConcurrentSkipListMap<>();
+
+    // CHECKPOINTING
+    private final String fileName;
+    private final String deltaFileName;
+    private final DirtyTracker<Participant> participantChanges = new DirtyTracker<>(participants, Participant::revision);
+    private final DirtyTracker<Team> teamChanges = new DirtyTracker<>(teams, Team::revision);
+    private final Object checkpointLock = new Object();
+    private long baseSequence;                  // identifies the full file a delta belongs to
+    private ScheduledExecutorService checkpointer;
+    private final AtomicBoolean checkpointQueued = new AtomicBoolean();
 
     // Constructor: loads data from disk on creation
     public TeamMateDB() {
+        this(DB_FILE_NAME);
+    }
+
+    public TeamMateDB(String fileName) {
+        this.fileName = fileName;
+        this.deltaFileName = fileName + ".delta";
         loadFromDisk();
     }
 
     // --- PERSISTENCE METHODS ---
 
-    /** Loads the entire database state from the serialization file. */
+    /** Loads the full file, then the delta written on top of it (if any). */
     @SuppressWarnings("unchecked")
     private void loadFromDisk() {
-        File file = new File(DB_FILE_NAME);
+        File file = new File(fileName);
         if (!file.exists()) {
-            AppLogger.info("DB: No existing data file found (" + DB_FILE_NAME + "). Starting fresh.");
+            AppLogger.info("DB: No existing data file found (" + fileName + "). Starting fresh.");
             return;
         }
 
         try (FileInputStream fis = new FileInputStream(file);
-             ObjectInputStream ois = new ObjectInputStream(fis)) {
+             ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(fis))) {
 
             // Read the data in the exact order it was saved
             Object readParticipants = ois.readObject();
             Object readTeams = ois.readObject();
+            baseSequence = readSequence(ois);
 
+            Transaction tx = new Transaction();
             if (readParticipants instanceof ConcurrentHashMap) {
-                participants.putAll((ConcurrentHashMap<String, Participant>) readParticipants);
+                for (Participant p : ((ConcurrentHashMap<String, Participant>) readParticipants).values())
+                    tx.saveParticipant(p);
             }
             if (readTeams instanceof ConcurrentHashMap) {
-                teams.putAll((ConcurrentHashMap<String, Team>) readTeams);
+                for (Team t : ((ConcurrentHashMap<String, Team>) readTeams).values())
+                    tx.saveTeam(t);
             }
+            tx.commit();
+            loadDelta();
+
+            // Everything loaded is on disk already
+            participantChanges.markAllPersisted();
+            teamChanges.markAllPersisted();
 
             AppLogger.info("DB: Loaded " + participants.size() + " participants and " + teams.size() + " teams from disk.");
+            // Team IDs are the owner's business: MainApp re-initializes the global counter, events their allocator
 
-            // Re-initialize Team counter to prevent ID conflicts on new teams
-            Team.initializeCounter(findAllTeams());
+        } catch (IOException | ClassNotFoundException | TeamMateDBException e) {
+            AppLogger.error("DB: Failed to load data from " + fileName + ". Starting fresh.", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadDelta() throws IOException, ClassNotFoundException, TeamMateDBException {
+        File file = new File(deltaFileName);
+        if (!file.exists()) return;
+
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            long forBase = ois.readLong();
+            if (forBase != baseSequence) {
+                // Left over from a crash between writing a new full file and removing the old delta
+                AppLogger.warning("DB: Ignoring stale delta " + deltaFileName);
+                return;
+            }
+            Map<String, Participant> ps = (Map<String, Participant>) ois.readObject();
+            Map<String, Team> ts = (Map<String, Team>) ois.readObject();
 
-        } catch (IOException | ClassNotFoundException e) {
-            AppLogger.error("DB: Failed to load data from " + DB_FILE_NAME + ". Starting fresh.", e);
+            Transaction tx = new Transaction();
+            for (Map.Entry<String, Participant> e : ps.entrySet()) {
+                if (e.getValue() != null) tx.saveParticipant(e.getValue());
+                else if (readLatest(participants, e.getKey()) != null) tx.deleteParticipant(e.getKey());
+            }
+            for (Map.Entry<String, Team> e : ts.entrySet()) {
+                if (e.getValue() != null) tx.saveTeam(e.getValue());
+                else if (readLatest(teams, e.getKey()) != null) tx.deleteTeam(e.getKey());
+            }
+            tx.commit();
+
+            // Still only in the delta: keep them in the next delta until the next full save
+            participantChanges.sinceBase.addAll(ps.keySet());
+            teamChanges.sinceBase.addAll(ts.keySet());
+            AppLogger.info("DB: Applied delta with " + (ps.size() + ts.size()) + " change(s).");
+        }
+    }
+
+    // Files written before checkpointing existed end after the two maps
+    private static long readSequence(ObjectInputStream ois) throws IOException {
+        try {
+            return ois.readLong();
+        } catch (EOFException e) {
+            return 0;
         }
     }
 
-    /** Saves the entire database state to the serialization file. Called by the Shutdown Hook. */
+    /**
+     * Saves a consistent snapshot of the whole database to the serialization file.
+     * Writers keep committing while the snapshot is written; their changes go into the next save.
+     */
     public void saveToDisk() throws TeamMateDBException {
-        try (FileOutputStream fos = new FileOutputStream(DB_FILE_NAME);
-             ObjectOutputStream oos = new ObjectOutputStream(fos)) {
+        checkpoint(true);
+    }
+
+    /** Persists what changed since the last checkpoint (a delta, or a full save once the delta is large). */
+    public void checkpoint() throws TeamMateDBException {
+        checkpoint(false);
+    }
+
+    /** Starts the background checkpointer (interval and dirty threshold from system properties). */
+    public void startCheckpointer() {
+        synchronized (checkpointLock) {
+            if (checkpointer != null) return;
+            checkpointer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "teammate-checkpointer");
+                t.setDaemon(true);
+                return t;
+            });
+            checkpointer.scheduleWithFixedDelay(this::checkpointQuietly,
+                    CHECKPOINT_SECONDS, CHECKPOINT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /** Stops the checkpointer and flushes the remaining delta. Called by the Shutdown Hook. */
+    public void close() throws TeamMateDBException {
+        ScheduledExecutorService s;
+        synchronized (checkpointLock) {
+            s = checkpointer;
+            checkpointer = null;
+        }
+        if (s != null) s.shutdownNow();
+        checkpoint(false);
+    }
+
+    public int dirtyCount() {
+        return participantChanges.dirty.size() + teamChanges.dirty.size();
+    }
+
+    private void checkpointQuietly() {
+        checkpointQueued.set(false);
+        try {
+            checkpoint(false);
+        } catch (TeamMateDBException e) {
+            AppLogger.error("DB: Background checkpoint failed", e);
+        }
+    }
+
+    private void checkpoint(boolean full) throws TeamMateDBException {
+        TeamMateEvents.Persist event = TeamMateEvents.beginPersist();
+        long waitStart = System.nanoTime();
+        synchronized (checkpointLock) {
+            long lockWait = System.nanoTime() - waitStart;
+            // Drain before snapshotting: every drained key was committed before the snapshot opens
+            List<String> dirtyParticipants = participantChanges.drain();
+            List<String> dirtyTeams = teamChanges.drain();
+            try (Snapshot snap = snapshot()) {
+                boolean changed = participantChanges.collect(dirtyParticipants, snap::findParticipant)
+                        | teamChanges.collect(dirtyTeams, snap::findTeam);
+                long oldest = oldestNeededVersion();
+                participantChanges.vacuum(dirtyParticipants, oldest);
+                teamChanges.vacuum(dirtyTeams, oldest);
+                if (!changed && !full) return;
+
+                int pending = participantChanges.sinceBase.size() + teamChanges.sinceBase.size();
+                int total = participants.size() + teams.size();
+                // A delta is only readable on top of a full file
+                boolean noBase = !new File(fileName).exists();
+                if (full || noBase || pending > Math.max(COMPACT_MIN, total / 2)) {
+                    writeFull(snap);
+                    TeamMateEvents.endPersist(event, "db-full", Path.of(fileName), total, lockWait);
+                } else {
+                    writeDelta(snap);
+                    TeamMateEvents.endPersist(event, "db-delta", Path.of(deltaFileName), pending, lockWait);
+                }
+            } catch (IOException e) {
+                throw new TeamMateDBException("Failed to save database to disk.", e);
+            }
+        }
+    }
+
+    private void writeFull(Snapshot snap) throws IOException {
+        long sequence = baseSequence + 1;
+        writeAtomically(fileName, oos -> {
+            // Same on-disk format as before (one map per entity type), plus the file's sequence number
+            ConcurrentHashMap<String, Participant> ps = new ConcurrentHashMap<>();
+            for (Participant p : snap.findAllParticipants()) ps.put(p.getId(), p);
+            ConcurrentHashMap<String, Team> ts = new ConcurrentHashMap<>();
+            for (Team t : snap.findAllTeams()) ts.put(t.getId(), t);
 
             // Write the data
-            oos.writeObject(participants);
-            oos.writeObject(teams);
+            oos.writeObject(ps);
+            oos.writeObject(ts);
+            oos.writeLong(sequence);
+        });
+        baseSequence = sequence;
+        Files.deleteIfExists(Path.of(deltaFileName));
+        participantChanges.sinceBase.clear();
+        teamChanges.sinceBase.clear();
+        AppLogger.info("DB: Database version " + snap.version() + " successfully serialized to " + fileName);
+    }
 
-            AppLogger.info("DB: Database successfully serialized to " + DB_FILE_NAME);
+    private void writeDelta(Snapshot snap) throws IOException {
+        Map<String, Participant> ps = new HashMap<>();
+        for (String id : participantChanges.sinceBase) ps.put(id, snap.findParticipant(id));
+        Map<String, Team> ts = new HashMap<>();
+        for (String id : teamChanges.sinceBase) ts.put(id, snap.findTeam(id));
+
+        writeAtomically(deltaFileName, oos -> {
+            oos.writeLong(baseSequence);
+            oos.writeObject(ps);
+            oos.writeObject(ts);
+        });
+        AppLogger.info("DB: Checkpointed " + (ps.size() + ts.size()) + " change(s) at version " + snap.version());
+    }
+
+    interface StreamWriter {
+        void write(ObjectOutputStream oos) throws IOException;
+    }
 
-        } catch (IOException e) {
-            throw new TeamMateDBException("Failed to save database to disk.", e);
+    // Write to a temp file, force it to disk, then rename over the target: readers see old or new, never half
+    static void writeAtomically(String target, StreamWriter writer) throws IOException {
+        Path path = Path.of(target).toAbsolutePath();
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp.toFile());
+             ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(fos))) {
+            writer.write(oos);
+            oos.flush();
+            fos.getFD().sync();
         }
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // ==================== TRANSACTIONS & SNAPSHOTS ====================
+
+    /** Starts a batch of writes that becomes visible atomically on {@link Transaction#commit()}. */
+    public Transaction beginTransaction() {
+        return new Transaction();
     }
 
+    /** Opens a stable read view at the latest committed version. Close it when done. */
+    public Snapshot snapshot() {
+        while (true) {
+            long v = committedVersion;
+            activeSnapshots.merge(v, 1, Integer::sum);
+            // A commit published in between may already have pruned version v: retry on the newer one
+            if (v == committedVersion) return new Snapshot(v);
+            release(v);
+        }
+    }
+
+    public long currentVersion() { return committedVersion; }
+
     // ==================== PARTICIPANT OPERATIONS ====================
 
     public void saveParticipant(Participant p) throws TeamMateDBException {
-        if (p == null)
-            throw new TeamMateDBException("Cannot save NULL participant");
-        if (p.getId() == null || p.getId().isBlank())
-            throw new TeamMateDBException("Participant ID cannot be empty");
-
-        participants.put(p.getId(), p);
+        Transaction tx = beginTransaction();
+        tx.saveParticipant(p);
+        tx.commit();
         AppLogger.info("DB: Saved participant " + p.getId());
     }
 
@@ -88,7 +317,7 @@ public class TeamMateDB {
         if (id == null || id.isBlank())
             throw new TeamMateDBException("Participant ID cannot be empty");
 
-        Participant p = participants.get(id);
+        Participant p = readLatest(participants, id);
         if (p == null)
             throw new TeamMateDBException("Participant " + id + " not found");
 
@@ -96,35 +325,60 @@ public class TeamMateDB {
     }
 
     public List<Participant> findAllParticipants() {
-        return new ArrayList<>(participants.values());
+        try (Snapshot snap = snapshot()) {
+            return snap.findAllParticipants();
+        }
     }
 
     public void deleteParticipant(String id) throws TeamMateDBException {
-        if (!participants.containsKey(id))
-            throw new TeamMateDBException("Participant does not exist: " + id);
-
-        participants.remove(id);
+        Transaction tx = beginTransaction();
+        tx.deleteParticipant(id);
+        tx.commit();
         AppLogger.warning("DB: Deleted participant " + id);
     }
 
+    /**
+     * Makes the stored participants match an imported list (the participants CSV) in one commit: new or
+     * edited rows are saved, and stored participants the list no longer has are deleted, so a row removed
+     * from the file while the app was down does not come back from the DB. Returns the rows written or deleted.
+     */
+    public int importParticipants(Collection<Participant> imported) throws TeamMateDBException {
+        Transaction tx = beginTransaction();
+        Set<String> ids = new HashSet<>(imported.size() * 2);
+        int saved = 0, deleted = 0;
+        try (Snapshot snap = snapshot()) {
+            for (Participant p : imported) {
+                ids.add(p.getId());
+                if (p.sameRow(snap.findParticipant(p.getId()))) continue;
+                tx.saveParticipant(p);
+                saved++;
+            }
+            for (Participant p : snap.findAllParticipants()) {
+                if (ids.contains(p.getId())) continue;
+                tx.deleteParticipant(p.getId());
+                deleted++;
+            }
+        }
+        if (tx.size() > 0) tx.commit();
+        AppLogger.info("DB: Imported " + saved + " new or changed participant(s), deleted " + deleted
+                + " no longer in the source.");
+        return saved + deleted;
+    }
+
     // ==================== TEAM OPERATIONS ====================
 
     public void saveTeam(Team team) throws TeamMateDBException {
-        if (team == null)
-            throw new TeamMateDBException("Cannot save NULL team");
-
-        if (team.getId() == null || team.getId().isBlank()) // CORRECTED: team.getId()
-            throw new TeamMateDBException("Team ID cannot be empty");
-
-        teams.put(team.getId(), team); // CORRECTED: team.getId()
-        AppLogger.info("DB: Saved team " + team.getId()); // CORRECTED: team.getId()
+        Transaction tx = beginTransaction();
+        tx.saveTeam(team);
+        tx.commit();
+        AppLogger.info("DB: Saved team " + team.getId());
     }
 
     public Team findTeam(String id) throws TeamMateDBException {
         if (id == null || id.isBlank())
             throw new TeamMateDBException("Team ID cannot be empty");
 
-        Team t = teams.get(id);
+        Team t = readLatest(teams, id);
         if (t == null)
             throw new TeamMateDBException("Team not found: " + id);
 
@@ -132,14 +386,261 @@ public class TeamMateDB {
     }
 
     public List<Team> findAllTeams() {
-        return new ArrayList<>(teams.values());
+        try (Snapshot snap = snapshot()) {
+            return snap.findAllTeams();
+        }
     }
 
     public void deleteTeam(String id) throws TeamMateDBException {
-        if (!teams.containsKey(id))
-            throw new TeamMateDBException("Team does not exist: " + id);
-
-        teams.remove(id);
+        Transaction tx = beginTransaction();
+        tx.deleteTeam(id);
+        tx.commit();
         AppLogger.warning("DB: Deleted team " + id);
     }
-}
\ No newline at end of file
+
+    // ==================== VERSIONED STORAGE ====================
+
+    /** Immutable version chain node, newest first. A null value marks a delete. */
+    private static final class Versioned<T> {
+        final long version;
+        final T value;
+        final Versioned<T> older;
+
+        Versioned(long version, T value, Versioned<T> older) {
+            this.version = version;
+            this.value = value;
+            this.older = older;
+        }
+    }
+
+    /** Batch of writes committed under a single version. Not thread-safe; use one per thread. */
+    public class Transaction {
+        private final Map<String, Participant> participantWrites = new LinkedHashMap<>();
+        private final Map<String, Team> teamWrites = new LinkedHashMap<>();
+        private boolean committed;
+
+        public Transaction saveParticipant(Participant p) throws TeamMateDBException {
+            if (p == null)
+                throw new TeamMateDBException("Cannot save NULL participant");
+            if (p.getId() == null || p.getId().isBlank())
+                throw new TeamMateDBException("Participant ID cannot be empty");
+            participantWrites.put(p.getId(), p);
+            return this;
+        }
+
+        public Transaction deleteParticipant(String id) throws TeamMateDBException {
+            boolean pending = participantWrites.get(id) != null;
+            if (!pending && readLatest(participants, id) == null)
+                throw new TeamMateDBException("Participant does not exist: " + id);
+            participantWrites.put(id, null);
+            return this;
+        }
+
+        public Transaction saveTeam(Team team) throws TeamMateDBException {
+            if (team == null)
+                throw new TeamMateDBException("Cannot save NULL team");
+            if (team.getId() == null || team.getId().isBlank())
+                throw new TeamMateDBException("Team ID cannot be empty");
+            teamWrites.put(team.getId(), team);
+            return this;
+        }
+
+        public Transaction deleteTeam(String id) throws TeamMateDBException {
+            boolean pending = teamWrites.get(id) != null;
+            if (!pending && readLatest(teams, id) == null)
+                throw new TeamMateDBException("Team does not exist: " + id);
+            teamWrites.put(id, null);
+            return this;
+        }
+
+        public int size() { return participantWrites.size() + teamWrites.size(); }
+
+        /** Installs every write under one new version, then publishes it. Returns that version. */
+        public long commit() throws TeamMateDBException {
+            if (committed)
+                throw new TeamMateDBException("Transaction already committed");
+            committed = true;
+            if (size() == 0) return committedVersion;
+
+            long version;
+            synchronized (commitLock) {
+                version = committedVersion + 1;
+                long oldest = oldestNeededVersion();
+                install(participants, participantWrites, version, oldest);
+                install(teams, teamWrites, version, oldest);
+                committedVersion = version; // publish: readers see all writes of this batch from here on
+            }
+            // Marked after publishing, so a checkpoint that drains these keys also sees their values
+            participantChanges.dirty.addAll(participantWrites.keySet());
+            teamChanges.dirty.addAll(teamWrites.keySet());
+            if (dirtyCount() >= CHECKPOINT_DIRTY) requestCheckpoint();
+            return version;
+        }
+    }
+
+    /** Read view pinned to one committed version. */
+    public class Snapshot implements AutoCloseable {
+        private final long version;
+        private boolean closed;
+
+        private Snapshot(long version) { this.version = version; }
+
+        public long version() { return version; }
+
+        public Participant findParticipant(String id) {
+            return visible(participants.get(id), version);
+        }
+
+        public Team findTeam(String id) {
+            return visible(teams.get(id), version);
+        }
+
+        public List<Participant> findAllParticipants() { return readAll(participants, version); }
+
+        public List<Team> findAllTeams() { return readAll(teams, version); }
+
+        @Override
+        public void close() {
+            if (closed) return;
+            closed = true;
+            release(version);
+        }
+    }
+
+    private <T> void install(Map<String, Versioned<T>> map, Map<String, T> writes, long version, long oldest) {
+        for (Map.Entry<String, T> w : writes.entrySet()) {
+            map.compute(w.getKey(), (k, head) -> new Versioned<>(version, w.getValue(), prune(head, oldest)));
+        }
+    }
+
+    // Drops entries no open snapshot can see: keeps everything newer than 'oldest' plus the newest one at/below it
+    private static <T> Versioned<T> prune(Versioned<T> node, long oldest) {
+        if (node == null) return null;
+        if (node.version <= oldest) {
+            if (node.value == null) return null;          // delete visible to everyone: forget the key
+            return node.older == null ? node : new Versioned<>(node.version, node.value, null);
+        }
+        Versioned<T> older = prune(node.older, oldest);
+        return older == node.older ? node : new Versioned<>(node.version, node.value, older);
+    }
+
+    private long oldestNeededVersion() {
+        Map.Entry<Long, Integer> first = activeSnapshots.firstEntry();
+        return first == null ? committedVersion : Math.min(first.getKey(), committedVersion);
+    }
+
+    private void release(long version) {
+        activeSnapshots.computeIfPresent(version, (v, n) -> n == 1 ? null : n - 1);
+    }
+
+    private static <T> T visible(Versioned<T> node, long version) {
+        while (node != null && node.version > version) node = node.older;
+        return node == null ? null : node.value;
+    }
+
+    // Latest committed value without pinning a snapshot (read-committed)
+    private <T> T readLatest(Map<String, Versioned<T>> map, String id) {
+        while (true) {
+            long v = committedVersion;
+            Versioned<T> head = map.get(id);
+            T value = visible(head, v);
+            // Nothing visible but newer entries exist: if a commit was published meanwhile, v may be pruned
+            if (value != null || head == null || v == committedVersion) return value;
+        }
+    }
+
+    private <T> List<T> readAll(Map<String, Versioned<T>> map, long version) {
+        List<T> out = new ArrayList<>(map.size());
+        for (Versioned<T> head : map.values()) {
+            T value = visible(head, version);
+            if (value != null) out.add(value);
+        }
+        return out;
+    }
+
+    private void requestCheckpoint() {
+        ScheduledExecutorService s = checkpointer;
+        if (s != null && checkpointQueued.compareAndSet(false, true)) {
+            try {
+                s.execute(this::checkpointQuietly);
+            } catch (RejectedExecutionException e) {
+                checkpointQueued.set(false); // shutting down: close() flushes
+            }
+        }
+    }
+
+    /**
+     * Dirty keys of one entity type. 'dirty' is filled by commits; a checkpoint moves the keys whose
+     * value really changed (another object, or the same object edited in place) into 'sinceBase',
+     * the set written to the delta until the next full save.
+     */
+    private static final class DirtyTracker<T> {
+        final Map<String, Versioned<T>> map;
+        final ToIntFunction<T> revision;
+        final Set<String> dirty = ConcurrentHashMap.newKeySet();
+        final Set<String> sinceBase = new HashSet<>();                 // guarded by checkpointLock
+        final Set<String> unpruned = new HashSet<>();                  // guarded by checkpointLock
+        final Map<String, Stamp> persisted = new HashMap<>();          // guarded by checkpointLock
+
+        DirtyTracker(Map<String, Versioned<T>> map, ToIntFunction<T> revision) {
+            this.map = map;
+            this.revision = revision;
+        }
+
+        List<String> drain() {
+            List<String> ids = new ArrayList<>(dirty.size());
+            for (Iterator<String> it = dirty.iterator(); it.hasNext(); ) {
+                ids.add(it.next());
+                it.remove();
+            }
+            return ids;
+        }
+
+        // Compares drained keys against the checkpoint snapshot; true if anything new has to be written
+        boolean collect(List<String> ids, Function<String, T> atSnapshot) {
+            boolean changed = false;
+            for (String id : ids) {
+                T value = atSnapshot.apply(id);
+                Stamp now = value == null ? null : new Stamp(value, revision.applyAsInt(value));
+                Stamp before = now == null ? persisted.remove(id) : persisted.put(id, now);
+                if (now == null ? before != null : !now.equals(before)) {
+                    sinceBase.add(id);
+                    changed = true;
+                }
+            }
+            return changed;
+        }
+
+        /*
+         * Removes delete markers and stale versions of the keys drained by this checkpoint, one key at a
+         * time and without the commit lock (prune keeps every version a snapshot at 'oldest' or later can
+         * see). Keys an open snapshot still holds old versions of are retried at the next checkpoint.
+         */
+        void vacuum(List<String> ids, long oldest) {
+            unpruned.addAll(ids);
+            for (Iterator<String> it = unpruned.iterator(); it.hasNext(); ) {
+                Versioned<T> head = map.computeIfPresent(it.next(), (k, h) -> prune(h, oldest));
+                if (head == null || head.older == null) it.remove();
+            }
+        }
+
+        void markAllPersisted() {
+            dirty.clear();
+            for (Map.Entry<String, Versioned<T>> e : map.entrySet()) {
+                T value = e.getValue().value;
+                if (value != null) persisted.put(e.getKey(), new Stamp(value, revision.applyAsInt(value)));
+            }
+        }
+    }
+
+    // Identity + revision of the value last handed to a checkpoint
+    private record Stamp(Object ref, int revision) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Stamp s && s.ref == ref && s.revision == revision;
+        }
+
+        @Override
+        public int hashCode() { return System.identityHashCode(ref) * 31 + revision; }
+    }
+}
@@ -0,0 +1,114 @@
+package TeamMate;
+
+import jdk.jfr.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Java Flight Recorder events for formation and persistence phases.
+ *
+ * Every event is disabled by default, so a normal run (or a recording with the stock settings) pays
+ * only for an empty begin/commit pair. Enable them in the recording settings, e.g.
+ * <pre>
+ *   -XX:StartFlightRecording:filename=teammate.jfr,+teammate.Formation#enabled=true,
+ *       +teammate.FormationPhase#enabled=true,+teammate.Persist#enabled=true,+teammate.Log#enabled=true
+ * </pre>
+ * or with {@code jcmd <pid> JFR.start} and the same options, then open the file in JDK Mission Control
+ * or {@code jfr print --categories TeamMate}.
+ */
+public final class TeamMateEvents {
+
+    private TeamMateEvents() {}
+
+    @Name("teammate.Formation")
+    @Label("Team Formation")
+    @Category("TeamMate")
+    @Description("One formation run of TeamBuilder")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class Formation extends Event {
+        @Label("Label") public String label;
+        @Label("Pool Size") public int poolSize;
+        @Label("Team Size") public int teamSize;
+        @Label("Teams Formed") public int teamsFormed;
+        @Label("Dissolves") public int dissolves;
+        @Label("Game Cap Rejections") public int gameCapRejections;
+    }
+
+    @Name("teammate.FormationPhase")
+    @Label("Formation Phase")
+    @Category("TeamMate")
+    @Description("Shuffle, bucketing, seeding, ranking, validation or rollback inside a formation run")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class FormationPhase extends Event {
+        @Label("Phase") public String phase;
+        @Label("Pool Size") public int poolSize;
+        @Label("Team Size") public int teamSize;
+    }
+
+    @Name("teammate.Persist")
+    @Label("Persist")
+    @Category("TeamMate")
+    @Description("A CSV/JSONL export or a database save")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class Persist extends Event {
+        @Label("Target") public String target;        // csv-participants, csv-teams, jsonl, db-full, db-delta
+        @Label("Path") public String path;
+        @Label("Records") public int records;
+        @Label("Bytes Written") @DataAmount public long bytesWritten;
+        @Label("Lock Wait") @Timespan(Timespan.NANOSECONDS) public long lockWait;
+    }
+
+    @Name("teammate.Log")
+    @Label("Log Entry")
+    @Category("TeamMate")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class Log extends Event {
+        @Label("Level") public String level;
+        @Label("Message") public String message;
+    }
+
+    // ==================== HELPERS ====================
+
+    static FormationPhase beginPhase() {
+        FormationPhase e = new FormationPhase();
+        e.begin();
+        return e;
+    }
+
+    static void endPhase(FormationPhase e, String phase, int poolSize, int teamSize) {
+        e.end();
+        if (!e.shouldCommit()) return;
+        e.phase = phase;
+        e.poolSize = poolSize;
+        e.teamSize = teamSize;
+        e.commit();
+    }
+
+    static Persist beginPersist() {
+        Persist e = new Persist();
+        e.begin();
+        return e;
+    }
+
+    // Size is read back from the file, only when the event is actually recorded
+    static void endPersist(Persist e, String target, Path path, int records, long lockWait) {
+        e.end();
+        if (!e.shouldCommit()) return;
+        e.target = target;
+        e.path = path.toString();
+        e.records = records;
+        try {
+            e.bytesWritten = Files.size(path);
+        } catch (IOException ignored) {
+            e.bytesWritten = -1;
+        }
+        e.lockWait = lockWait;
+        e.commit();
+    }
+}
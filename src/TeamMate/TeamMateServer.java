@@ -0,0 +1,469 @@
+package TeamMate;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional embedded HTTP API over the same stores as the console UI, so check-in traffic does not
+ * queue behind one console. Every exchange runs on its own virtual thread.
+ *
+ *   GET  /api/teams/{participantId}          team of a participant (404 if not placed)
+ *   POST /api/surveys                        {"id":"P101","email":"...","game":"Chess","role":"ATTACKER",
+ *                                             "skill":7,"answers":[5,4,3,4,5]} (console survey rules)
+ *   POST /api/formations?size=5&mode=strict  organizer formation trigger (X-Organizer-Token header)
+ *
+ * Lookups go through a participant-to-team index rebuilt only when team membership has changed.
+ * Organizer endpoints are refused unless a token is configured (-Dteammate.http.token).
+ *
+ * A survey is durable once its DB commit returns; the participants CSV is then rewritten by one export
+ * thread, so a burst of surveys costs one rewrite instead of one concurrent rewrite each. Formations, and
+ * the registration and waitlist offer of a survey, hold the formation lock shared with the console (see
+ * {@link #setFormationLock}): a formation's snapshot never misses a survey it then overwrites.
+ */
+public class TeamMateServer {
+
+    private static final int MAX_BODY = 16 * 1024;
+
+    static {
+        // Without TCP_NODELAY small responses wait out delayed ACKs (~40 ms per keep-alive request).
+        // Read once by the JDK server, so it must be set before the first HttpServer is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final ParticipantRegistry participants;
+    private final ParticipantRegistry unformed;
+    private final List<Team> teams;
+    private final TeamMateDB db;
+    private final FileService files;               // null = no CSV export (tests)
+    private final String organizerToken;
+    private WaitlistEngine waitlist;
+    private TeamIdAllocator teamIds = Team.defaultIds();
+    // A lock rather than a monitor: a virtual thread blocked inside synchronized would pin its carrier
+    private ReentrantLock formationLock = new ReentrantLock();
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private ExecutorService exporter;              // participants CSV, one rewrite at a time
+    private final AtomicBoolean exportQueued = new AtomicBoolean();
+    private volatile TeamIndex index = new TeamIndex(-1, -1, Map.of());
+
+    // participant ID (upper case) -> team, valid while no team membership changed
+    private record TeamIndex(long modifications, int teamCount, Map<String, Team> byParticipant) {}
+
+    public TeamMateServer(ParticipantRegistry participants, ParticipantRegistry unformed, List<Team> teams,
+                          TeamMateDB db, FileService files, String organizerToken) {
+        this.participants = participants;
+        this.unformed = unformed;
+        this.teams = teams;
+        this.db = db;
+        this.files = files;
+        this.organizerToken = organizerToken;
+    }
+
+    public void setWaitlist(WaitlistEngine waitlist) { this.waitlist = waitlist; }
+
+    // Formed teams take IDs (and their participant store) from the owner's allocator
+    public void setTeamIds(TeamIdAllocator teamIds) { this.teamIds = teamIds; }
+
+    // Held for a whole formation and its bookkeeping; MainApp passes the lock its console formations use
+    public void setFormationLock(ReentrantLock formationLock) { this.formationLock = formationLock; }
+
+    /** Binds and starts serving; port 0 picks a free port (see {@link #port()}). */
+    public synchronized void start(String host, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(host, port), 1024);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        exporter = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "teammate-http-export");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/api/teams/", ex -> handle(ex, this::lookupTeam));
+        server.createContext("/api/surveys", ex -> handle(ex, this::submitSurvey));
+        server.createContext("/api/formations", ex -> handle(ex, this::triggerFormation));
+        server.start();
+        AppLogger.info("HTTP API listening on " + host + ":" + port());
+    }
+
+    public int port() { return server.getAddress().getPort(); }
+
+    public synchronized void stop() {
+        if (server == null) return;
+        server.stop(0);
+        executor.shutdown();
+        exporter.shutdown(); // a queued export still runs
+        try {
+            if (!exporter.awaitTermination(30, TimeUnit.SECONDS))
+                AppLogger.warning("HTTP: participants export did not finish");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+        AppLogger.info("HTTP API stopped.");
+    }
+
+    // ==================== HANDLERS ====================
+
+    private interface Handler {
+        Response handle(HttpExchange ex) throws IOException, TeamMateException, TeamMateDBException;
+    }
+
+    private record Response(int status, String json) {}
+
+    private void handle(HttpExchange ex, Handler handler) throws IOException {
+        Response res;
+        try {
+            res = handler.handle(ex);
+        } catch (TeamMateException e) {
+            res = error(400, e.getMessage());
+        } catch (TeamMateDBException e) {
+            AppLogger.error("HTTP: database error", e);
+            res = error(500, e.getMessage());
+        } catch (RuntimeException e) {
+            AppLogger.error("HTTP: " + ex.getRequestMethod() + " " + ex.getRequestURI() + " failed", e);
+            res = error(500, "internal error");
+        }
+        byte[] body = res.json().getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(res.status(), body.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private Response lookupTeam(HttpExchange ex) {
+        if (!"GET".equals(ex.getRequestMethod())) return error(405, "use GET");
+        String id = ex.getRequestURI().getPath().substring("/api/teams/".length()).trim();
+        if (id.isEmpty()) return error(400, "participant ID required");
+
+        Team team = teamIndex().get(id.toUpperCase(Locale.ROOT));
+        if (team == null) {
+            return participants.contains(id) ? error(404, "You are not yet assigned to a team.")
+                    : error(404, "Participant " + id + " not found");
+        }
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("{\"participant\":");
+        string(sb, id);
+        sb.append(",\"team\":");
+        string(sb, team.getId());
+        sb.append(",\"members\":[");
+        List<Participant> members = team.getMembers();
+        for (int i = 0; i < members.size(); i++) {
+            if (i > 0) sb.append(',');
+            participant(sb, members.get(i));
+        }
+        return new Response(200, sb.append("]}").toString());
+    }
+
+    private Response submitSurvey(HttpExchange ex) throws IOException, TeamMateException, TeamMateDBException {
+        if (!"POST".equals(ex.getRequestMethod())) return error(405, "use POST");
+        Map<String, Object> body = new FlatJson(readBody(ex)).parse();
+
+        Participant p = SurveyProcessor.fromAnswers(str(body, "id"), str(body, "email"), str(body, "game"),
+                str(body, "role"), integer(body, "skill"), ints(body, "answers"));
+        Team placed;
+        formationLock.lock();
+        try {
+            synchronized (participants) {
+                if (participants.contains(p.getId()))
+                    return error(409, "A participant with this ID has already filled the survey.");
+                participants.add(p);
+                unformed.add(p);
+            }
+            db.saveParticipant(p);
+            placed = waitlist == null ? null : waitlist.offer(p);
+        } finally {
+            formationLock.unlock();
+        }
+        requestParticipantsExport();
+        AppLogger.info("New survey added via HTTP: " + p.getId());
+
+        StringBuilder sb = new StringBuilder("{\"participant\":");
+        participant(sb, p);
+        sb.append(",\"team\":");
+        string(sb, placed == null ? null : placed.getId());
+        return new Response(201, sb.append('}').toString());
+    }
+
+    private Response triggerFormation(HttpExchange ex) throws IOException, TeamMateException, TeamMateDBException {
+        if (!"POST".equals(ex.getRequestMethod())) return error(405, "use POST");
+        if (organizerToken == null || organizerToken.isEmpty())
+            return error(403, "organizer endpoints are disabled (no token configured)");
+        if (!organizerToken.equals(ex.getRequestHeaders().getFirst("X-Organizer-Token")))
+            return error(403, "invalid organizer token");
+
+        Map<String, String> query = query(ex.getRequestURI().getRawQuery());
+        int teamSize;
+        try {
+            teamSize = Integer.parseInt(query.getOrDefault("size", ""));
+        } catch (NumberFormatException e) {
+            throw new TeamMateException("size must be a number");
+        }
+        FormationMode mode = "relaxed".equalsIgnoreCase(query.get("mode")) ? FormationMode.RELAXED : FormationMode.STRICT;
+        TeamBuilder.TeamFormationResult res;
+        formationLock.lock();
+        try {
+            ParticipantRegistry.Snapshot cohort = (mode == FormationMode.RELAXED ? unformed : participants).snapshot();
+
+            try {
+                res = TeamFormation.formTeamsAsync(cohort, teamSize, mode, FormationStrategy.forCohort(cohort.size()),
+                        null, null, null, teamIds).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TeamMateException("Team formation interrupted.");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof TeamMateException tme) throw tme;
+                throw new TeamMateException("Team formation failed: " + cause.getMessage(), cause);
+            }
+
+            // Same bookkeeping as the console options 6 and 7, under the same lock
+            TeamMateDB.Transaction tx = db.beginTransaction();
+            if (mode == FormationMode.STRICT) for (Participant p : participants) tx.saveParticipant(p);
+            for (Team t : res.formedTeams) tx.saveTeam(t);
+            tx.commit();
+            teams.addAll(res.formedTeams);
+            unformed.replaceAll(res.unformedParticipants);
+            if (waitlist != null) waitlist.reset(unformed);
+            if (files != null) files.saveTeams(teams, FileService.OUTPUT_FILE);
+        } finally {
+            formationLock.unlock();
+        }
+        AppLogger.info("Formed " + res.formedTeams.size() + " team(s) via HTTP (" + mode + ").");
+
+        StringBuilder sb = new StringBuilder("{\"formed\":").append(res.formedTeams.size())
+                .append(",\"unformed\":").append(res.unformedParticipants.size()).append(",\"teams\":[");
+        for (int i = 0; i < res.formedTeams.size(); i++) {
+            if (i > 0) sb.append(',');
+            string(sb, res.formedTeams.get(i).getId());
+        }
+        return new Response(200, sb.append("]}").toString());
+    }
+
+    // ==================== HELPERS ====================
+
+    // Coalesces survey writes: one rewrite covers every survey registered before it takes its snapshot
+    private void requestParticipantsExport() {
+        if (files == null || !exportQueued.compareAndSet(false, true)) return;
+        try {
+            exporter.execute(this::exportParticipants);
+        } catch (RejectedExecutionException e) {
+            exportQueued.set(false); // stopping
+        }
+    }
+
+    private void exportParticipants() {
+        exportQueued.set(false);
+        try {
+            files.saveParticipants(participants.snapshot(), FileService.INPUT_FILE);
+        } catch (IOException e) {
+            AppLogger.warning("HTTP: could not export participants: " + e.getMessage());
+        }
+    }
+
+    private Map<String, Team> teamIndex() {
+        TeamIndex current = index;
+        long mods = Team.modifications();
+        int count = teams.size();
+        if (current.modifications() == mods && current.teamCount() == count) return current.byParticipant();
+
+        Map<String, Team> byParticipant = new HashMap<>();
+        for (Team t : teams)
+            for (String memberId : t.getMemberIds()) byParticipant.put(memberId.toUpperCase(Locale.ROOT), t);
+        index = new TeamIndex(mods, count, byParticipant);
+        return byParticipant;
+    }
+
+    private static String readBody(HttpExchange ex) throws IOException, TeamMateException {
+        try (InputStream in = ex.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY + 1);
+            if (bytes.length > MAX_BODY) throw new TeamMateException("request body too large");
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> out = new HashMap<>();
+        if (raw == null) return out;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq < 0) continue;
+            out.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return out;
+    }
+
+    private static String str(Map<String, Object> body, String key) throws TeamMateException {
+        Object v = body.get(key);
+        if (v == null || v instanceof String) return (String) v;
+        throw new TeamMateException(key + " must be a string");
+    }
+
+    private static int integer(Map<String, Object> body, String key) throws TeamMateException {
+        if (body.get(key) instanceof Integer i) return i;
+        throw new TeamMateException(key + " must be a number");
+    }
+
+    private static int[] ints(Map<String, Object> body, String key) throws TeamMateException {
+        if (!(body.get(key) instanceof List<?> list)) throw new TeamMateException(key + " must be an array");
+        int[] out = new int[list.size()];
+        for (int i = 0; i < out.length; i++) {
+            if (!(list.get(i) instanceof Integer n)) throw new TeamMateException(key + " must hold numbers");
+            out[i] = n;
+        }
+        return out;
+    }
+
+    private static Response error(int status, String message) {
+        StringBuilder sb = new StringBuilder("{\"error\":");
+        string(sb, message);
+        return new Response(status, sb.append('}').toString());
+    }
+
+    private static void participant(StringBuilder sb, Participant p) {
+        sb.append("{\"id\":");
+        string(sb, p.getId());
+        sb.append(",\"name\":");
+        string(sb, p.getName());
+        sb.append(",\"game\":");
+        string(sb, p.getInterest());
+        sb.append(",\"role\":\"").append(p.getPreferredRole().name());
+        sb.append("\",\"skill\":").append(p.getSkillLevel());
+        sb.append(",\"personality\":\"").append(p.getPersonalityType().name()).append("\"}");
+    }
+
+    private static void string(StringBuilder sb, String s) {
+        if (s == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    // Request bodies: one flat object of strings, integers and integer arrays
+    private static final class FlatJson {
+        private final String s;
+        private int pos;
+
+        FlatJson(String s) { this.s = s; }
+
+        Map<String, Object> parse() throws TeamMateException {
+            Map<String, Object> out = new HashMap<>();
+            expect('{');
+            if (!consume('}')) {
+                do {
+                    String key = string();
+                    expect(':');
+                    out.put(key, value());
+                } while (consume(','));
+                expect('}');
+            }
+            return out;
+        }
+
+        private Object value() throws TeamMateException {
+            char c = peek();
+            if (c == '"') return string();
+            if (c == '[') {
+                pos++;
+                List<Object> list = new ArrayList<>();
+                if (consume(']')) return list;
+                do list.add(value()); while (consume(','));
+                expect(']');
+                return list;
+            }
+            if (s.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            int start = pos;
+            if (c == '-') pos++;
+            while (pos < s.length() && Character.isDigit(s.charAt(pos))) pos++;
+            try {
+                return Integer.parseInt(s.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw new TeamMateException("Malformed JSON at " + start);
+            }
+        }
+
+        private String string() throws TeamMateException {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (pos < s.length()) {
+                char c = s.charAt(pos++);
+                if (c == '"') return sb.toString();
+                if (c == '\\' && pos < s.length()) {
+                    char e = s.charAt(pos++);
+                    switch (e) {
+                        case 'n': sb.append('\n'); break;
+                        case 'r': sb.append('\r'); break;
+                        case 't': sb.append('\t'); break;
+                        case 'u':
+                            if (pos + 4 > s.length()) throw new TeamMateException("Malformed JSON escape");
+                            try {
+                                sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                            } catch (NumberFormatException ex) {
+                                throw new TeamMateException("Malformed JSON escape");
+                            }
+                            pos += 4;
+                            break;
+                        default: sb.append(e);
+                    }
+                } else {
+                    sb.append(c);
+                }
+            }
+            throw new TeamMateException("Unterminated JSON string");
+        }
+
+        private char peek() throws TeamMateException {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+            if (pos >= s.length()) throw new TeamMateException("Unexpected end of JSON");
+            return s.charAt(pos);
+        }
+
+        private boolean consume(char c) throws TeamMateException {
+            if (pos < s.length() && peek() == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) throws TeamMateException {
+            if (peek() != c) throw new TeamMateException("'" + c + "' expected at " + pos + " in JSON body");
+            pos++;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package TeamMate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Dry-run comparison of several team sizes on the same cohort.
+ * Every size is formed concurrently on the worker pool (one size per worker, scoring inline), and
+ * nothing is persisted or logged per team: the result is only a quality report for the organizer.
+ */
+public class TeamSizeSweep {
+
+    /** Quality figures for one team size. */
+    public static class Row {
+        public final int teamSize;
+        public final int teamsFormed;
+        public final int unformed;
+        public final double skillMean;         // mean of the team average skills
+        public final double skillVariance;     // variance of the team average skills (lower = fairer)
+        public final double roleCoverage;      // average share of all roles present per team
+        public final int gameCapRejections;    // candidates skipped to respect MAX_SAME_GAME
+        public final String error;             // why this size cannot be formed, or null
+
+        Row(int teamSize, TeamBuilder.TeamFormationResult res) {
+            this.teamSize = teamSize;
+            this.teamsFormed = res.formedTeams.size();
+            this.unformed = res.unformedParticipants.size();
+            this.gameCapRejections = res.gameCapRejections;
+            this.error = null;
+
+            double sum = 0, sumSq = 0, coverage = 0;
+            for (Team t : res.formedTeams) {
+                double avg = t.averageSkill();
+                sum += avg;
+                sumSq += avg * avg;
+                coverage += (double) t.rolesPresent().size() / Role.values().length;
+            }
+            int n = Math.max(1, teamsFormed);
+            this.skillMean = sum / n;
+            this.skillVariance = Math.max(0.0, sumSq / n - skillMean * skillMean);
+            this.roleCoverage = coverage / n;
+        }
+
+        Row(int teamSize, int cohortSize, String error) {
+            this.teamSize = teamSize;
+            this.teamsFormed = 0;
+            this.unformed = cohortSize;
+            this.skillMean = 0;
+            this.skillVariance = 0;
+            this.roleCoverage = 0;
+            this.gameCapRejections = 0;
+            this.error = error;
+        }
+
+        @Override
+        public String toString() {
+            if (error != null) return String.format("%4d | %s", teamSize, error);
+            return String.format("%4d | %6d | %8d | %6.2f | %8.3f | %6.0f%% | %8d",
+                    teamSize, teamsFormed, unformed, skillMean, skillVariance, roleCoverage * 100, gameCapRejections);
+        }
+    }
+
+    public static final String HEADER = "Size |  Teams | Unformed | Skill  | Variance | Roles  | Game cap";
+
+    private final ExecutorService executor;
+
+    public TeamSizeSweep() {
+        this(TeamFormation.workerPool());
+    }
+
+    public TeamSizeSweep(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /** Forms every size in [minSize, maxSize] without touching team IDs or storage. */
+    public List<Row> sweep(List<Participant> participants, int minSize, int maxSize, FormationMode mode,
+                           Duration deadline) throws TeamMateException {
+        if (minSize < TeamBuilder.MINIMUM_ACCEPTABLE_SIZE)
+            throw new TeamMateException("Team size must be at least " + TeamBuilder.MINIMUM_ACCEPTABLE_SIZE);
+        if (maxSize < minSize)
+            throw new TeamMateException("Invalid size range: " + minSize + "-" + maxSize);
+
+        List<Participant> cohort = (participants instanceof ParticipantRegistry.Snapshot)
+                ? participants : List.copyOf(participants);
+        FormationControl control = new FormationControl(deadline, null);
+
+        List<Callable<Row>> tasks = new ArrayList<>();
+        for (int size = minSize; size <= maxSize; size++) {
+            int teamSize = size;
+            tasks.add(() -> evaluate(cohort, teamSize, mode, control));
+        }
+
+        List<Row> rows = new ArrayList<>(tasks.size());
+        try {
+            for (Future<Row> f : executor.invokeAll(tasks)) rows.add(f.get());
+        } catch (InterruptedException e) {
+            control.cancel();
+            Thread.currentThread().interrupt();
+            throw new TeamMateException("Team size sweep interrupted.", e);
+        } catch (ExecutionException e) {
+            control.cancel();
+            if (e.getCause() instanceof TeamMateException tme) throw tme;
+            throw new TeamMateException("Team size sweep failed: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        AppLogger.info("Team size sweep " + minSize + "-" + maxSize + " over " + cohort.size() + " participants done");
+        return rows;
+    }
+
+    private static Row evaluate(List<Participant> cohort, int teamSize, FormationMode mode, FormationControl control)
+            throws TeamMateException {
+        // Already on a pool worker: score on this thread
+        TeamBuilder builder = new TeamBuilder(null);
+        builder.setDryRun(true);
+        try {
+            TeamBuilder.TeamFormationResult res = (mode == FormationMode.RELAXED)
+                    ? builder.buildTeamsFromUnformed(cohort, teamSize, control)
+                    : builder.buildTeamsAndValidate(cohort, teamSize, control);
+            return new Row(teamSize, res);
+        } catch (TeamMateException e) {
+            control.checkpoint(); // deadline/cancel fail the whole sweep
+            return new Row(teamSize, cohort.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package TeamMate.Test;
+
+import TeamMate.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Allocation budgets for the hot paths: bytes allocated on the calling thread per parsed participant,
+ * per formed team and per log call, measured on generated cohorts after a warm-up run.
+ * Budgets can be adjusted with -Dteammate.alloc.parse / .team / .log (bytes).
+ */
+public class AllocationBudgetTest {
+
+    private static final long PARSE_BUDGET = Long.getLong("teammate.alloc.parse", 1_536);
+    private static final long TEAM_BUDGET = Long.getLong("teammate.alloc.team", 65_536);
+    private static final long LOG_BUDGET = Long.getLong("teammate.alloc.log", 512);
+
+    private static final int COHORT = 5_000;
+    private static com.sun.management.ThreadMXBean threads;
+
+    @BeforeAll
+    static void enableAllocationCounting() {
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported(), "JVM must support per-thread allocation counters");
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    private interface Work {
+        void run() throws Exception;
+    }
+
+    // Bytes allocated by the current thread while running the work
+    private static long allocated(Work work) throws Exception {
+        long id = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(id);
+        work.run();
+        return threads.getThreadAllocatedBytes(id) - before;
+    }
+
+    // Generated cohort mixing every role, personality and a handful of games
+    private static List<Participant> cohort(int n) {
+        String[] games = {"Chess", "FIFA", "DOTA 2", "Valorant", "Basketball"};
+        PersonalityType[] types = {PersonalityType.LEADER, PersonalityType.THINKER, PersonalityType.BALANCED,
+                PersonalityType.BALANCED, PersonalityType.BALANCED};
+        Random random = new Random(42);
+        List<Participant> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(new Participant("P" + i, "Name " + i, "p" + i + "@university.edu", games[random.nextInt(games.length)],
+                    Role.values()[random.nextInt(Role.values().length)], 1 + random.nextInt(10),
+                    types[random.nextInt(types.length)]));
+        }
+        return out;
+    }
+
+    @Test
+    void testParsingStaysWithinBudgetPerParticipant(TestReporter reporter) throws Exception {
+        Path csv = Files.createTempFile("teammate_alloc", ".csv");
+        try {
+            FileService files = new FileService();
+            files.saveParticipants(cohort(COHORT), csv.toString());
+            files.loadParticipants(csv.toString()); // warm-up
+
+            long bytes = allocated(() -> assertEquals(COHORT, files.loadParticipants(csv.toString()).size()));
+            long perParticipant = bytes / COHORT;
+            reporter.publishEntry("bytes per parsed participant", String.valueOf(perParticipant));
+            assertTrue(perParticipant <= PARSE_BUDGET,
+                    "Parsing allocates " + perParticipant + " bytes per participant (budget " + PARSE_BUDGET + ")");
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    @Test
+    void testFormationStaysWithinBudgetPerTeam(TestReporter reporter) throws Exception {
+        List<Participant> cohort = cohort(COHORT);
+        // Inline scoring, so all of the work is counted on this thread
+        TeamBuilder builder = new TeamBuilder(null);
+        builder.setDryRun(true);
+        builder.setSeed(7);
+        builder.buildTeamsAndValidate(cohort, 5); // warm-up
+
+        int[] formed = new int[1];
+        long bytes = allocated(() -> formed[0] = builder.buildTeamsAndValidate(cohort, 5).formedTeams.size());
+        assertTrue(formed[0] > 0);
+        long perTeam = bytes / formed[0];
+        reporter.publishEntry("bytes per formed team", String.valueOf(perTeam));
+        assertTrue(perTeam <= TEAM_BUDGET, "Formation allocates " + perTeam + " bytes per team (budget " + TEAM_BUDGET + ")");
+    }
+
+    @Test
+    void testLoggingStaysWithinBudgetPerCall(TestReporter reporter) throws Exception {
+        int calls = 10_000;
+        for (int i = 0; i < calls; i++) AppLogger.debug("warm-up " + i);
+
+        String message = "Formed team T42 size=5";
+        long bytes = allocated(() -> {
+            for (int i = 0; i < calls; i++) AppLogger.info(message);
+        });
+        long perCall = bytes / calls;
+        reporter.publishEntry("bytes per log call", String.valueOf(perCall));
+        assertTrue(perCall <= LOG_BUDGET, "Logging allocates " + perCall + " bytes per call (budget " + LOG_BUDGET + ")");
+    }
+}
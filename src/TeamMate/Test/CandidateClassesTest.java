@@ -0,0 +1,37 @@
+package TeamMate.Test;
+
+import TeamMate.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CandidateClassesTest {
+
+    @Test
+    void testEquivalenceClassesCollapseLargeCohorts() {
+        List<Participant> cohort = Cohorts.repeated(3000);
+        CandidateClasses classes = new CandidateClasses(cohort);
+        assertEquals(3000, classes.size());
+        assertEquals(12, classes.live().size());
+
+        // Seeding takes the earliest acceptable member of a personality, in pool order
+        CompiledConstraints rules = TeamConstraints.strict().compile(3);
+        assertEquals("P0", classes.takeFirst(PersonalityType.LEADER, rules, new TeamAggregate()).getId());
+        assertEquals("P3", classes.takeFirst(PersonalityType.LEADER, rules, new TeamAggregate()).getId());
+        assertEquals(2998, classes.remaining().size());
+    }
+
+    @Test
+    void testFormationFromClassesPlacesEveryoneOnce() throws TeamMateException {
+        List<Participant> cohort = Cohorts.repeated(3000);
+        TeamBuilder builder = new TeamBuilder(null);
+        builder.setDryRun(true);
+        builder.setSeed(11);
+        TeamBuilder.TeamFormationResult res = builder.buildTeamsAndValidate(cohort, 3);
+
+        assertFalse(res.formedTeams.isEmpty());
+        Cohorts.assertValidPartition(cohort, res, TeamConstraints.strict().compile(3));
+    }
+}
@@ -0,0 +1,73 @@
+package TeamMate.Test;
+
+import TeamMate.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Cohorts shared by the builder tests, and the checks every formation result must pass. */
+final class Cohorts {
+
+    private static final String[] GAMES = {"Chess", "FIFA", "DOTA 2", "Valorant", "CS:GO"};
+
+    private Cohorts() {}
+
+    // Deterministic mix: every role, five games, skills 1-10, LEADER : THINKER : BALANCED = 1 : 2 : 2
+    static List<Participant> mixed(int n) {
+        Role[] roles = Role.values();
+        PersonalityType[] types = {PersonalityType.LEADER, PersonalityType.THINKER, PersonalityType.THINKER,
+                PersonalityType.BALANCED, PersonalityType.BALANCED};
+        List<Participant> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            out.add(new Participant("P" + i, "TestName", "test@a.com", GAMES[(i / 5) % GAMES.length],
+                    roles[i % roles.length], 1 + (i * 7) % 10, types[i % types.length]));
+        return out;
+    }
+
+    // Seeded random mix: every role, five games, skills 1-10, LEADER : THINKER : BALANCED = 1 : 1 : 3
+    static List<Participant> random(int n, long seed) {
+        PersonalityType[] types = {PersonalityType.LEADER, PersonalityType.THINKER, PersonalityType.BALANCED,
+                PersonalityType.BALANCED, PersonalityType.BALANCED};
+        Random random = new Random(seed);
+        List<Participant> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(new Participant("P" + i, "Name " + i, "p" + i + "@university.edu", GAMES[random.nextInt(GAMES.length)],
+                    Role.values()[random.nextInt(Role.values().length)], 1 + random.nextInt(10),
+                    types[random.nextInt(types.length)]));
+        }
+        return out;
+    }
+
+    // Twelve profiles repeated: LEADER/THINKER/BALANCED in turn, two roles, two games, skill 5
+    static List<Participant> repeated(int n) {
+        PersonalityType[] types = {PersonalityType.LEADER, PersonalityType.THINKER, PersonalityType.BALANCED};
+        List<Participant> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            out.add(new Participant("P" + i, "TestName", "test@a.com", i % 2 == 0 ? "Chess" : "FIFA",
+                    i % 4 < 2 ? Role.ATTACKER : Role.DEFENDER, 5, types[i % 3]));
+        return out;
+    }
+
+    /** Every team satisfies the rules and every participant is placed or unformed, exactly once. */
+    static void assertValidPartition(List<Participant> cohort, TeamBuilder.TeamFormationResult res,
+                                     CompiledConstraints rules) {
+        Set<String> seen = new HashSet<>();
+        for (Team t : res.formedTeams) {
+            assertTrue(rules.isValid(TeamAggregate.of(t)), "Invalid team " + t);
+            for (String id : t.getMemberIds()) assertTrue(seen.add(id), "Placed twice: " + id);
+        }
+        for (Participant p : res.unformedParticipants) assertTrue(seen.add(p.getId()), "Placed and unformed: " + p.getId());
+        assertEquals(cohort.size(), seen.size(), "Everyone is placed or unformed");
+    }
+
+    /** Largest minus smallest team average skill. */
+    static double averageSpread(List<Team> teams) {
+        double min = Double.MAX_VALUE, max = -Double.MAX_VALUE;
+        for (Team t : teams) {
+            min = Math.min(min, t.averageSkill());
+            max = Math.max(max, t.averageSkill());
+        }
+        return teams.isEmpty() ? 0 : max - min;
+    }
+}
@@ -0,0 +1,36 @@
+package TeamMate.Test;
+
+import TeamMate.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DraftTeamBuilderTest {
+
+    @Test
+    void testDraftFormsValidTeamsAndAccountsForEveryone() throws TeamMateException {
+        List<Participant> cohort = Cohorts.mixed(200);
+        DraftTeamBuilder draft = new DraftTeamBuilder();
+        draft.setSeed(3L);
+        TeamBuilder.TeamFormationResult res = draft.buildTeams(cohort, 5, FormationMode.STRICT, FormationControl.NONE);
+
+        assertFalse(res.formedTeams.isEmpty());
+        Cohorts.assertValidPartition(cohort, res, TeamConstraints.strict().compile(5));
+    }
+
+    @Test
+    void testDraftIsDeterministicForASeed() throws TeamMateException {
+        List<Participant> cohort = Cohorts.random(300, 5);
+        DraftTeamBuilder a = new DraftTeamBuilder();
+        DraftTeamBuilder b = new DraftTeamBuilder();
+        a.setSeed(9L);
+        b.setSeed(9L);
+        List<Team> first = a.buildTeams(cohort, 4, FormationMode.STRICT, FormationControl.NONE).formedTeams;
+        List<Team> second = b.buildTeams(cohort, 4, FormationMode.STRICT, FormationControl.NONE).formedTeams;
+
+        assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); i++) assertEquals(first.get(i).getMemberIds(), second.get(i).getMemberIds());
+    }
+}
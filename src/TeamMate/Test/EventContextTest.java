@@ -0,0 +1,141 @@
+package TeamMate.Test;
+
+import TeamMate.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventContextTest {
+
+    // Same IDs in every event, names tell the events apart
+    private static List<Participant> cohort(String event, int n) {
+        String[] games = {"Chess", "FIFA", "DOTA 2", "Valorant"};
+        PersonalityType[] types = {PersonalityType.LEADER, PersonalityType.THINKER, PersonalityType.BALANCED,
+                PersonalityType.BALANCED};
+        Random random = new Random(event.hashCode());
+        List<Participant> out = new ArrayList<>(n);
+        for (int i = 1; i <= n; i++) {
+            out.add(new Participant("P" + i, event + " " + i, "p" + i + "@university.edu", games[random.nextInt(games.length)],
+                    Role.values()[random.nextInt(Role.values().length)], 1 + random.nextInt(10),
+                    types[random.nextInt(types.length)]));
+        }
+        return out;
+    }
+
+    private static EventContext openWithParticipants(Path root, String name) throws Exception {
+        EventContext event = EventContext.open(root, name);
+        new FileService().saveParticipants(cohort(name, 60), event.file(FileService.INPUT_FILE));
+        assertEquals(60, event.importParticipants());
+        return event;
+    }
+
+    private static Duration deadline() { return Duration.ofSeconds(30); }
+
+    @Test
+    void testEventsAreIsolated(@TempDir Path root) throws Exception {
+        Team.resetCounter();
+        String globalNext = Team.defaultIds().nextId();
+
+        try (EventContext spring = openWithParticipants(root, "spring-cup");
+             EventContext autumn = openWithParticipants(root, "autumn_cup")) {
+
+            for (EventContext event : List.of(spring, autumn)) {
+                TeamBuilder.TeamFormationResult res = event.formTeamsAsync(
+                        5, FormationMode.STRICT, FormationStrategy.SEQUENTIAL, 7L, deadline()).get();
+                assertFalse(res.formedTeams.isEmpty());
+                event.apply(res);
+
+                // Every event numbers from T1 and resolves members through its own store
+                assertEquals("T1", event.teams().get(0).getId());
+                for (Team t : event.teams()) {
+                    for (Participant p : t.getMembers()) assertTrue(p.getName().startsWith(event.name()));
+                }
+                assertTrue(Files.exists(event.directory().resolve(FileService.OUTPUT_FILE)));
+            }
+            assertNotEquals(spring.directory(), autumn.directory());
+        }
+        // Closing flushes each event to its own DB file
+        assertTrue(Files.exists(root.resolve("spring-cup").resolve(TeamMateDB.DB_FILE_NAME)));
+        assertTrue(Files.exists(root.resolve("autumn_cup").resolve(TeamMateDB.DB_FILE_NAME)));
+        // The process-wide counter was not touched
+        assertEquals("T" + (Integer.parseInt(globalNext.substring(1)) + 1), Team.defaultIds().nextId());
+        Team.resetCounter();
+    }
+
+    @Test
+    void testReopenRestoresTeamsAndContinuesIds(@TempDir Path root) throws Exception {
+        int formed;
+        try (EventContext event = openWithParticipants(root, "league")) {
+            event.apply(event.formTeamsAsync(4, FormationMode.STRICT, FormationStrategy.SEQUENTIAL, 3L, deadline()).get());
+            formed = event.teams().size();
+            assertTrue(formed > 0);
+        }
+
+        try (EventContext event = EventContext.open(root, "league")) {
+            assertEquals(60, event.participants().size());
+            assertEquals(formed, event.teams().size());
+            assertEquals(60 - 4 * formed, event.unformed().size());
+            assertEquals(4, event.teams().get(0).getMembers().size(), "Loaded teams resolve through the event store");
+            assertEquals("T" + (formed + 1), event.teamIds().nextId());
+            assertEquals(0, event.importParticipants(), "Unchanged CSV rows are not written again");
+        }
+    }
+
+    @Test
+    void testInvalidEventNameIsRejected(@TempDir Path root) throws Exception {
+        assertThrows(TeamMateException.class, () -> EventContext.open(root, "../escape"));
+        assertThrows(TeamMateException.class, () -> EventContext.open(root, ""));
+    }
+
+    // ==================== BLOCK ALLOCATION ====================
+
+    @Test
+    void testBlocksGiveUniqueIdsToParallelWorkers() throws Exception {
+        TeamIdAllocator ids = new TeamIdAllocator();
+        int workers = 8, perWorker = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            futures.add(pool.submit(() -> {
+                List<String> out = new ArrayList<>();
+                try (TeamIdAllocator.Block block = ids.block(16)) {
+                    for (int i = 0; i < perWorker; i++) out.add(block.nextId()); // refills every 16 IDs
+                }
+                return out;
+            }));
+        }
+        Set<String> seen = new HashSet<>();
+        for (Future<List<String>> f : futures) {
+            for (String id : f.get()) assertTrue(seen.add(id), "Duplicate team ID " + id);
+        }
+        pool.shutdown();
+        assertEquals(workers * perWorker, seen.size());
+    }
+
+    @Test
+    void testClosingLastBlockReturnsUnusedIds() {
+        TeamIdAllocator ids = new TeamIdAllocator();
+        try (TeamIdAllocator.Block block = ids.block(10)) {
+            assertEquals("T1", block.newTeam().getId());
+            assertEquals("T2", block.nextId());
+            assertEquals(8, block.remaining());
+        }
+        assertEquals("T3", ids.nextId(), "The unused tail goes back to the allocator");
+
+        // A block taken after another keeps the earlier block's tail reserved
+        TeamIdAllocator.Block first = ids.block(5);
+        TeamIdAllocator.Block second = ids.block(5);
+        assertEquals("T4", first.nextId());
+        assertEquals("T9", second.nextId());
+        first.close();
+        second.close();
+        assertEquals("T10", ids.nextId());
+    }
+}
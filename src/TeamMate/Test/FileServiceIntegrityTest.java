@@ -2,8 +2,10 @@ package TeamMate.Test;
 
 import TeamMate.*;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import java.io.IOException;
 import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
 
 import static org.junit.Assert.assertTrue;
@@ -51,4 +53,83 @@ public class FileServiceIntegrityTest {
         // Cleanup
         Files.deleteIfExists(tempPath);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testJsonLinesExportAndImportRoundTrip() throws IOException {
+        Path tempPath = Files.createTempFile("teammate_export", ".jsonl");
+        Participant escaped = createEscapedParticipant();
+        Participant unicode = new Participant("P102", "Zoë \"Q\" Ng\u00e9 \uD83C\uDFAE", "zoe@test.org",
+                "Chess", Role.ATTACKER, 9, 88, PersonalityType.LEADER);
+        Team team = new Team("T900");
+        team.addMember(escaped);
+        team.addMember(unicode);
+
+        fileService.exportJsonLines(List.of(escaped, unicode), List.of(team), tempPath.toString());
+
+        List<Participant> loaded = new java.util.ArrayList<>();
+        List<List<String>> teamMembers = new java.util.ArrayList<>();
+        long records = fileService.importJsonLines(tempPath.toString(), new JsonLines.Handler() {
+            @Override
+            public void onParticipant(Participant p) { loaded.add(p); }
+
+            @Override
+            public void onTeam(String teamId, List<String> memberIds) {
+                assertEquals("T900", teamId);
+                teamMembers.add(memberIds);
+            }
+        });
+        Files.deleteIfExists(tempPath);
+
+        assertEquals(3, records);
+        assertEquals(unicode.getName(), loaded.get(1).getName());
+        assertEquals(escaped.getName(), loaded.get(0).getName());
+        assertEquals(88, loaded.get(1).getPersonalityScore());
+        assertEquals(PersonalityType.LEADER, loaded.get(1).getPersonalityType());
+        assertEquals(List.of(List.of("P101", "P102")), teamMembers);
+    }
+
+    @Test
+    void testAppendTeamsKeepsOneHeader(@TempDir Path dir) throws IOException {
+        Participant p1 = createEscapedParticipant();
+        Participant p2 = new Participant("P102", "Other", "other@test.org", "Chess", Role.ATTACKER, 40, PersonalityType.LEADER);
+        Team first = new Team("T1");
+        first.addMember(p1);
+        Team second = new Team("T2");
+        second.addMember(p2);
+        String csv = dir.resolve(FileService.OUTPUT_FILE).toString();
+
+        fileService.appendTeams(List.of(first), csv); // new file: header written
+        fileService.appendTeams(List.of(second), csv);
+
+        assertEquals(3, Files.readAllLines(Path.of(csv)).size(), "One header and one row per member");
+        List<Team> loaded = fileService.loadTeams(csv, List.of(p1, p2));
+        assertEquals(List.of("T1", "T2"), loaded.stream().map(Team::getId).toList());
+    }
+
+    @Test
+    void testImportManifestDetectsContentChanges() throws IOException {
+        Path csv = Files.createTempFile("teammate_manifest", ".csv");
+        Path manifestPath = Files.createTempFile("teammate_manifest", ".properties");
+        fileService.saveParticipants(List.of(createEscapedParticipant()), csv.toString());
+
+        ImportManifest manifest = new ImportManifest(manifestPath);
+        assertFalse(manifest.isUnchanged(csv.toString()), "Unrecorded files must be imported");
+        manifest.record(csv.toString());
+        manifest.save();
+
+        ImportManifest reloaded = new ImportManifest(manifestPath);
+        assertTrue("Recorded file is unchanged", reloaded.isUnchanged(csv.toString()));
+
+        // Touched but identical content still counts as unchanged
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(Files.getLastModifiedTime(csv).toMillis() + 5000));
+        assertTrue("Same content after touch", reloaded.isUnchanged(csv.toString()));
+
+        // Same size, different content
+        String text = Files.readString(csv);
+        Files.writeString(csv, text.replace("P101", "P109"));
+        assertFalse(reloaded.isUnchanged(csv.toString()));
+
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(manifestPath);
+    }
+}
@@ -0,0 +1,78 @@
+package TeamMate.Test;
+
+import TeamMate.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FormationCacheTest {
+
+    private static final Role[] ROLES = Role.values();
+    private static final String[] GAMES = {"Chess", "FIFA", "DOTA 2", "Valorant", "CS:GO", "Basketball"};
+
+    // Helper method to quickly create a cohort that can form several strict teams
+    private ParticipantRegistry createCohort(int n) {
+        PersonalityType[] types = {PersonalityType.LEADER, PersonalityType.THINKER, PersonalityType.BALANCED};
+        List<Participant> ps = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            ps.add(new Participant("P" + i, "TestName", "test@a.com", GAMES[i % GAMES.length],
+                    ROLES[i % ROLES.length], 1 + i % 10, types[i % types.length]));
+        }
+        ParticipantRegistry registry = new ParticipantRegistry();
+        registry.addAll(ps);
+        return registry;
+    }
+
+    private static List<String> memberIds(TeamBuilder.TeamFormationResult res) {
+        List<String> ids = new ArrayList<>();
+        for (Team t : res.formedTeams) for (Participant p : t.getMembers()) ids.add(p.getId());
+        return ids;
+    }
+
+    @Test
+    void testFingerprint_IsOrderIndependentAndTracksEdits() {
+        ParticipantRegistry registry = createCohort(30);
+        List<Participant> reversed = new ArrayList<>(registry.snapshot());
+        java.util.Collections.reverse(reversed);
+        assertEquals(registry.fingerprint(), FormationCache.fingerprint(reversed));
+
+        // Edits are copy-on-write, as in ParticipantEditor: the copy replaces the registered participant
+        long before = registry.fingerprint();
+        Participant edited = new Participant(registry.find("P4"));
+        edited.setSkillLevel(edited.getSkillLevel() % 10 + 1);
+        registry.add(edited);
+        assertNotEquals(before, registry.fingerprint());
+    }
+
+    @Test
+    void testHashOf_ToleratesMissingAttributes() {
+        Participant bare = new Participant("P1", "TestName", "test@a.com", null, null, 5, null);
+        assertDoesNotThrow(() -> FormationCache.hashOf(bare));
+        assertNotEquals(FormationCache.hashOf(bare),
+                FormationCache.hashOf(new Participant("P1", "TestName", "test@a.com", "Chess", null, 5, null)));
+    }
+
+    @Test
+    void testSeededFormation_IsCachedAndInvalidatedOnChange() throws Exception {
+        ParticipantRegistry registry = createCohort(60);
+        FormationCache cache = FormationCache.shared();
+        cache.clear();
+        registry.addStaleFingerprintListener(cache::invalidate);
+
+        TeamBuilder.TeamFormationResult first = TeamFormation.formTeamsAsync(registry.snapshot(), 3,
+                FormationMode.STRICT, FormationStrategy.SEQUENTIAL, 42L, null, null).get();
+        assertEquals(1, cache.size());
+
+        // Same cohort and seed: identical compositions, fresh Team objects
+        TeamBuilder.TeamFormationResult second = TeamFormation.formTeamsAsync(registry.snapshot(), 3,
+                FormationMode.STRICT, FormationStrategy.SEQUENTIAL, 42L, null, null).get();
+        assertEquals(memberIds(first), memberIds(second));
+        assertNotSame(first.formedTeams.get(0), second.formedTeams.get(0));
+
+        registry.remove("P0");
+        assertEquals(0, cache.size());
+    }
+}
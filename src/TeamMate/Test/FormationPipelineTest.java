@@ -0,0 +1,139 @@
+package TeamMate.Test;
+
+import TeamMate.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FormationPipelineTest {
+
+    private final FileService fileService = new FileService();
+
+    private static List<Participant> cohort(int n) {
+        String[] games = {"Chess", "FIFA", "DOTA 2", "Valorant", "Basketball"};
+        PersonalityType[] types = {PersonalityType.LEADER, PersonalityType.THINKER, PersonalityType.BALANCED,
+                PersonalityType.BALANCED, PersonalityType.BALANCED};
+        Random random = new Random(11);
+        List<Participant> out = new ArrayList<>(n);
+        for (int i = 1; i <= n; i++) {
+            out.add(new Participant("P" + i, "Name " + i, "p" + i + "@university.edu", games[random.nextInt(games.length)],
+                    Role.values()[random.nextInt(Role.values().length)], 1 + random.nextInt(10),
+                    types[random.nextInt(types.length)]));
+        }
+        return out;
+    }
+
+    @Test
+    void testPipelinePersistsEveryParticipantAndTeam(@TempDir Path dir) throws Exception {
+        String csv = dir.resolve(FileService.INPUT_FILE).toString();
+        String teamsCsv = dir.resolve(FileService.OUTPUT_FILE).toString();
+        String jsonl = dir.resolve(FileService.JSONL_FILE).toString();
+        fileService.saveParticipants(cohort(5_000), csv);
+
+        TeamMateDB db = new TeamMateDB(dir.resolve(TeamMateDB.DB_FILE_NAME).toString());
+        FormationPipeline pipeline = new FormationPipeline(fileService, db, 5, FormationMode.STRICT);
+        pipeline.setTeamIds(new TeamIdAllocator());
+        pipeline.setSeed(3);
+        pipeline.setBucketSize(500);
+        pipeline.setBufferSize(8); // small buffers: every stage has to wait on the next one
+        FormationPipeline.Result res = pipeline.run(csv, teamsCsv, jsonl).get(60, TimeUnit.SECONDS);
+
+        assertEquals(5_000, res.parsed);
+        assertEquals(0, res.rejected);
+        assertEquals(10, res.buckets);
+        assertTrue(res.teamsFormed > 0);
+        assertEquals(5_000, res.teamsFormed * 5 + res.unformedParticipants.size());
+
+        // DB: everyone, and every team with distinct members
+        assertEquals(5_000, db.findAllParticipants().size());
+        List<Team> teams = db.findAllTeams();
+        assertEquals(res.teamsFormed, teams.size());
+        Set<String> placed = new HashSet<>();
+        for (Team t : teams) {
+            for (String id : t.getMemberIds()) assertTrue(placed.add(id), "Participant in two teams: " + id);
+        }
+        for (Participant p : res.unformedParticipants) assertFalse(placed.contains(p.getId()));
+
+        // Files: one CSV row per placed member, JSONL members always before their teams
+        assertEquals(placed.size() + 1, Files.readAllLines(Path.of(teamsCsv)).size());
+        Set<String> written = new HashSet<>();
+        long records = fileService.importJsonLines(jsonl, new JsonLines.Handler() {
+            @Override
+            public void onParticipant(Participant p) { written.add(p.getId()); }
+
+            @Override
+            public void onTeam(String teamId, List<String> memberIds) {
+                assertTrue(written.containsAll(memberIds), "Team " + teamId + " written before its members");
+            }
+        });
+        assertEquals(5_000 + res.teamsFormed, records);
+    }
+
+    @Test
+    void testValidateStageDropsDuplicatesAndClassifies(@TempDir Path dir) throws Exception {
+        String csv = dir.resolve(FileService.INPUT_FILE).toString();
+        List<Participant> rows = new ArrayList<>(cohort(40));
+        rows.add(new Participant("P7", "Again", "again@a.com", "Chess", Role.ATTACKER, 5, PersonalityType.LEADER));
+        rows.add(new Participant("P900", "Late", "late@a.com", "Chess", Role.DEFENDER, 5, 95, PersonalityType.UNCLASSIFIED));
+        fileService.saveParticipants(rows, csv);
+
+        TeamMateDB db = new TeamMateDB(dir.resolve(TeamMateDB.DB_FILE_NAME).toString());
+        FormationPipeline pipeline = new FormationPipeline(fileService, db, 4, FormationMode.STRICT);
+        pipeline.setTeamIds(new TeamIdAllocator());
+        FormationPipeline.Result res = pipeline.run(csv, dir.resolve("teams.csv").toString(),
+                dir.resolve("out.jsonl").toString()).get(60, TimeUnit.SECONDS);
+
+        assertEquals(42, res.parsed);
+        assertEquals(1, res.rejected, "The second P7 row is a duplicate");
+        assertEquals("Name 7", db.findParticipant("P7").getName());
+        assertEquals(PersonalityType.LEADER, db.findParticipant("P900").getPersonalityType());
+    }
+
+    @Test
+    void testBucketShortOfATypeIsCarriedInsteadOfFailing(@TempDir Path dir) throws Exception {
+        String csv = dir.resolve(FileService.INPUT_FILE).toString();
+        fileService.saveParticipants(List.of(
+                new Participant("P1", "A", "a@a.com", "Chess", Role.ATTACKER, 5, PersonalityType.LEADER),
+                new Participant("P2", "B", "b@a.com", "FIFA", Role.DEFENDER, 5, PersonalityType.THINKER),
+                new Participant("P3", "C", "c@a.com", "DOTA 2", Role.SUPPORTER, 5, PersonalityType.BALANCED),
+                new Participant("P4", "D", "d@a.com", "Valorant", Role.ATTACKER, 5, PersonalityType.BALANCED)), csv);
+
+        TeamMateDB db = new TeamMateDB(dir.resolve(TeamMateDB.DB_FILE_NAME).toString());
+        FormationPipeline pipeline = new FormationPipeline(fileService, db, 3, FormationMode.STRICT);
+        pipeline.setTeamIds(new TeamIdAllocator());
+        pipeline.setBucketSize(3); // the second bucket is a lone BALANCED
+        FormationPipeline.Result res = pipeline.run(csv, dir.resolve("teams.csv").toString(),
+                dir.resolve("out.jsonl").toString()).get(60, TimeUnit.SECONDS);
+
+        assertEquals(2, res.buckets);
+        assertEquals(1, res.teamsFormed);
+        assertEquals(List.of("P4"), res.unformedParticipants.stream().map(Participant::getId).toList());
+        assertEquals(4, db.findAllParticipants().size());
+    }
+
+    @Test
+    void testPersistFailureFailsTheRun(@TempDir Path dir) throws Exception {
+        String csv = dir.resolve(FileService.INPUT_FILE).toString();
+        fileService.saveParticipants(cohort(100), csv);
+
+        FormationPipeline pipeline = new FormationPipeline(fileService,
+                new TeamMateDB(dir.resolve(TeamMateDB.DB_FILE_NAME).toString()), 4, FormationMode.STRICT);
+        // The teams CSV path is a directory, so the persist stage cannot open it
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> pipeline.run(csv, dir.toString(), dir.resolve("out.jsonl").toString()).get(60, TimeUnit.SECONDS));
+        assertInstanceOf(java.io.IOException.class, e.getCause());
+    }
+
+    @Test
+    void testTeamSizeBelowMinimumIsRejected(@TempDir Path dir) {
+        TeamMateDB db = new TeamMateDB(dir.resolve(TeamMateDB.DB_FILE_NAME).toString());
+        assertThrows(TeamMateException.class, () -> new FormationPipeline(fileService, db, 2, FormationMode.STRICT));
+    }
+}
@@ -0,0 +1,76 @@
+package TeamMate.Test;
+
+import TeamMate.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapParticipantStoreTest {
+
+    // Helper method to quickly create a test participant
+    private Participant createParticipant(String id, String name, String game, PersonalityType type) {
+        return new Participant(id, name, Participant.defaultEmail(id), game, Role.DEFENDER, 7, 42, type);
+    }
+
+    @Test
+    void testRecordsRoundTrip() throws Exception {
+        OffHeapParticipantStore store = new OffHeapParticipantStore();
+        store.append(createParticipant("P1", "Participant_1", "Chess", PersonalityType.LEADER));
+        store.append(createParticipant("X-7", "Zoë", "DOTA 2", PersonalityType.THINKER));
+
+        assertEquals(2, store.size());
+        Participant custom = store.get(1);
+        assertEquals("X-7", custom.getId());
+        assertEquals("Zoë", custom.getName());
+        assertEquals("DOTA 2", custom.getInterest());
+        assertEquals(PersonalityType.THINKER, store.personality(1));
+        assertEquals(GameCatalog.idOf("chess"), store.gameId(0));
+        assertEquals("Participant_1", store.asList().get(0).getName());
+    }
+
+    @Test
+    void testPaddedIdsKeepTheirNamesAndEmails() throws Exception {
+        OffHeapParticipantStore store = new OffHeapParticipantStore();
+        // Survey defaults keep the padding; sample CSV defaults drop it
+        Participant survey = new Participant("P001", Participant.defaultName("P001"), Participant.defaultEmail("P001"),
+                "Chess", Role.ATTACKER, 5, 60, PersonalityType.LEADER);
+        Participant sample = new Participant("P002", "Participant_2", "user2@university.edu",
+                "FIFA", Role.DEFENDER, 5, 60, PersonalityType.THINKER);
+        store.append(survey);
+        store.append(sample);
+
+        assertEquals("P001", store.get(0).getId());
+        assertEquals("Participant_001", store.get(0).getName());
+        assertEquals("user001@university.edu", store.get(0).getEmail());
+        assertEquals("P002", store.get(1).getId());
+        assertEquals("Participant_2", store.get(1).getName());
+        assertEquals("user2@university.edu", store.get(1).getEmail());
+    }
+
+    @Test
+    void testFileBackedStoreReopensAndGrows() throws Exception {
+        Path dir = Files.createTempDirectory("teammate_store");
+        Path base = dir.resolve("cohort");
+
+        try (OffHeapParticipantStore store = OffHeapParticipantStore.open(base)) {
+            // Past the initial 1024-record mapping
+            for (int i = 0; i < 3000; i++)
+                store.append(createParticipant("P" + i, "Participant_" + i, i % 2 == 0 ? "Chess" : "FIFA",
+                        PersonalityType.BALANCED));
+        }
+
+        try (OffHeapParticipantStore store = OffHeapParticipantStore.open(base)) {
+            assertEquals(3000, store.size());
+            assertEquals("P2999", store.id(2999));
+            assertEquals("FIFA", store.get(2999).getInterest());
+            assertEquals(42, store.personalityScore(1500));
+        }
+
+        for (String suffix : new String[]{".rec", ".str"})
+            Files.deleteIfExists(dir.resolve("cohort" + suffix));
+        Files.deleteIfExists(dir);
+    }
+}
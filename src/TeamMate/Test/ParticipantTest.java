@@ -0,0 +1,71 @@
+package TeamMate.Test;
+
+import TeamMate.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParticipantTest {
+
+    @Test
+    void testCompactEncodingKeepsGetterValues() {
+        Participant generated = new Participant("P42", "Participant_42", "user42@university.edu",
+                "Chess", Role.DEFENDER, 7, 80, PersonalityType.LEADER);
+        assertEquals("P42", generated.getId());
+        assertEquals("Participant_42", generated.getName());
+        assertEquals("user42@university.edu", generated.getEmail());
+        assertEquals(Role.DEFENDER, generated.getPreferredRole());
+        assertEquals(PersonalityType.LEADER, generated.getPersonalityType());
+
+        // Non-canonical IDs and custom names are kept exactly
+        Participant custom = new Participant("P007", "Ada", "ada@x.org", "chess", Role.ATTACKER, 3, PersonalityType.BALANCED);
+        assertEquals("P007", custom.getId());
+        assertEquals("Ada", custom.getName());
+        assertEquals("chess", custom.getInterest());
+        assertEquals(generated.getGameId(), custom.getGameId(), "Games match case-insensitively");
+
+        custom.setName(Participant.defaultName("P007"));
+        assertEquals("Participant_007", custom.getName());
+    }
+
+    @Test
+    void testZeroPaddedIdsUseTheGeneratorDefaults() throws Exception {
+        // Rows as the sample CSV has them: padded ID, unpadded default name and email
+        Participant padded = new Participant("P001", "Participant_1", "user1@university.edu",
+                "Chess", Role.STRATEGIST, 2, 95, PersonalityType.LEADER);
+        assertEquals("P001", padded.getId());
+        assertSame(padded.getId(), padded.getId(), "The ID string is built once");
+        assertEquals("Participant_1", padded.getName());
+        assertEquals("user1@university.edu", padded.getEmail());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(padded);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(padded.toString(), in.readObject().toString());
+        }
+        assertEquals("P0", new Participant("P0", null, null, "Chess", Role.ATTACKER, 1, null).getId());
+    }
+
+    @Test
+    void testSerializedFormRoundTrips() throws Exception {
+        Participant original = new Participant("P9", "Participant_9", "other@mail.com",
+                "FIFA", Role.SUPPORTER, 5, 61, PersonalityType.THINKER);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(original);
+        }
+        Participant copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (Participant) in.readObject();
+        }
+
+        assertEquals(original.toString(), copy.toString());
+        assertEquals(61, copy.getPersonalityScore());
+        assertEquals(original.getGameId(), copy.getGameId());
+    }
+}
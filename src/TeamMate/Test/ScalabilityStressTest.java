@@ -0,0 +1,234 @@
+package TeamMate.Test;
+
+import TeamMate.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Scalability stress suite: drives TeamMateDB, AppLogger and team creation at 1, 2, 4, ... N threads,
+ * reports ops/sec and tail latency per level through TestReporter, flags sublinear scaling, and checks invariants (no lost
+ * updates, atomic snapshots, unique team IDs) under contention.
+ *
+ * -Dteammate.stress.threads sets N (default: twice the CPU count, at least 4), -Dteammate.stress.ops the
+ * operations per thread, and -Dteammate.stress.strict=true turns scaling flags into failures.
+ */
+public class ScalabilityStressTest {
+
+    private static final int CPUS = Runtime.getRuntime().availableProcessors();
+    private static final int MAX_THREADS = Integer.getInteger("teammate.stress.threads", Math.max(4, 2 * CPUS));
+    private static final int OPS = Integer.getInteger("teammate.stress.ops", 2_000);
+    private static final boolean STRICT = Boolean.getBoolean("teammate.stress.strict");
+    // Speedup over one thread, relative to the ideal min(threads, CPUs), below which a level is flagged
+    private static final double MIN_EFFICIENCY = 0.6;
+
+    private interface Op {
+        void run(int thread, int i) throws Exception;
+    }
+
+    private record Level(int threads, double opsPerSec, long p50Micros, long p99Micros) {}
+
+    // Runs OPS operations on each of 'threads' threads, all released at once
+    private static Level measure(int threads, Op op) throws Exception {
+        long[][] latencies = new long[threads][OPS];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                ready.countDown();
+                go.await();
+                for (int i = 0; i < OPS; i++) {
+                    long start = System.nanoTime();
+                    op.run(thread, i);
+                    latencies[thread][i] = System.nanoTime() - start;
+                }
+                return null;
+            }));
+        }
+        ready.await();
+        long start = System.nanoTime();
+        go.countDown();
+        for (Future<?> f : futures) f.get(); // rethrows the first failure of any worker
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Level(threads, all.length / seconds,
+                all[all.length / 2] / 1_000, all[(int) (all.length * 0.99)] / 1_000);
+    }
+
+    // Thread counts to run: an unreported single-thread warm-up (JIT), then 1, 2, 4, ... N
+    private static List<Integer> threadLevels() {
+        List<Integer> levels = new ArrayList<>();
+        levels.add(1);
+        for (int n = 1; n < MAX_THREADS; n *= 2) levels.add(n);
+        levels.add(MAX_THREADS);
+        return levels;
+    }
+
+    // Publishes the table (warm-up excluded) and returns the flagged levels
+    private static List<String> report(TestReporter reporter, String name, List<Level> measured) {
+        List<Level> levels = measured.subList(1, measured.size());
+        List<String> flagged = new ArrayList<>();
+        double base = levels.get(0).opsPerSec();
+        StringBuilder table = new StringBuilder(String.format("%d CPU(s), %d ops/thread%n%8s %12s %9s %9s %10s%n",
+                CPUS, OPS, "threads", "ops/sec", "p50 us", "p99 us", "speedup"));
+        for (Level l : levels) {
+            double speedup = l.opsPerSec() / base;
+            double efficiency = speedup / Math.min(l.threads(), CPUS);
+            String flag = "";
+            if (efficiency < MIN_EFFICIENCY) {
+                flag = String.format("  SUBLINEAR (%.0f%% of ideal)", efficiency * 100);
+                flagged.add(name + " @" + l.threads() + flag);
+            }
+            table.append(String.format("%8d %12.0f %9d %9d %9.2fx%s%n",
+                    l.threads(), l.opsPerSec(), l.p50Micros(), l.p99Micros(), speedup, flag));
+        }
+        reporter.publishEntry(name, table.toString());
+        return flagged;
+    }
+
+    private static void checkScaling(List<String> flagged) {
+        if (STRICT) assertTrue(flagged.isEmpty(), "Sublinear scaling: " + flagged);
+    }
+
+    // ==================== TEAMMATEDB ====================
+
+    // Even ops commit a pair "S<t>-<i>a/b"; odd ops read it back and every other pair is deleted again
+    @Test
+    void testDatabaseScalingWithoutLostUpdates(TestReporter reporter) throws Exception {
+        List<Level> levels = new ArrayList<>();
+        for (int threads : threadLevels()) {
+            Path file = Files.createTempFile("teammate_stress", ".ser");
+            Files.delete(file);
+            TeamMateDB db = new TeamMateDB(file.toString());
+
+            // Snapshot checker: pairs are committed and deleted atomically, so no snapshot may see half a pair
+            AtomicBoolean done = new AtomicBoolean();
+            AtomicInteger snapshots = new AtomicInteger();
+            AtomicInteger tornSnapshots = new AtomicInteger();
+            Thread checker = new Thread(() -> {
+                while (!done.get()) {
+                    try (TeamMateDB.Snapshot snap = db.snapshot()) {
+                        Set<String> ids = new HashSet<>();
+                        for (Participant p : snap.findAllParticipants()) ids.add(p.getId());
+                        for (String id : ids) {
+                            String partner = id.substring(0, id.length() - 1) + (id.endsWith("a") ? "b" : "a");
+                            if (!ids.contains(partner)) {
+                                tornSnapshots.incrementAndGet();
+                                break;
+                            }
+                        }
+                    }
+                    snapshots.incrementAndGet();
+                }
+            });
+            checker.start();
+
+            levels.add(measure(threads, (t, i) -> {
+                String pair = "S" + t + "-" + (i & ~1);
+                if ((i & 1) == 0) {
+                    TeamMateDB.Transaction tx = db.beginTransaction();
+                    tx.saveParticipant(stressParticipant(pair + "a"));
+                    tx.saveParticipant(stressParticipant(pair + "b"));
+                    tx.commit();
+                } else {
+                    assertNotNull(db.findParticipant(pair + "a"));
+                    assertNotNull(db.findParticipant(pair + "b"));
+                    if ((i & 3) == 3) {
+                        TeamMateDB.Transaction tx = db.beginTransaction();
+                        tx.deleteParticipant(pair + "a");
+                        tx.deleteParticipant(pair + "b");
+                        tx.commit();
+                    }
+                }
+            }));
+            done.set(true);
+            checker.join();
+
+            // No lost updates: exactly the pairs that were saved and not deleted remain
+            Set<String> expected = new HashSet<>();
+            for (int t = 0; t < threads; t++) {
+                for (int i = 0; i < OPS; i += 2) {
+                    if ((i & 3) == 2 && i + 1 < OPS) continue; // deleted by op i + 1
+                    expected.add("S" + t + "-" + i + "a");
+                    expected.add("S" + t + "-" + i + "b");
+                }
+            }
+            Set<String> actual = new HashSet<>();
+            for (Participant p : db.findAllParticipants()) actual.add(p.getId());
+            assertEquals(expected, actual, "Every committed write must survive, every delete must stick");
+            assertTrue(snapshots.get() > 0);
+            assertEquals(0, tornSnapshots.get(), "A snapshot saw half of a committed pair");
+            Files.deleteIfExists(file);
+        }
+        checkScaling(report(reporter, "TeamMateDB save/find/delete", levels));
+    }
+
+    private static Participant stressParticipant(String id) {
+        return new Participant(id, "Stress", "stress@a.com", "Chess", Role.ATTACKER, 5, PersonalityType.BALANCED);
+    }
+
+    // ==================== APPLOGGER ====================
+
+    // Nine writes to one read; a read walks the whole returned list while other threads keep writing
+    @Test
+    void testLoggerScalingWithConcurrentReaders(TestReporter reporter) throws Exception {
+        List<Level> levels = new ArrayList<>();
+        for (int threads : threadLevels()) {
+            levels.add(measure(threads, (t, i) -> {
+                if (i % 10 == 9) {
+                    List<String> logs = AppLogger.getRecentLogs();
+                    assertTrue(logs.size() <= 1000, "The log keeps at most 1000 entries");
+                    for (String entry : logs) assertNotNull(entry);
+                } else {
+                    AppLogger.info("stress " + t + " " + i);
+                }
+            }));
+        }
+        assertTrue(AppLogger.getRecentLogs().get(0).contains("stress"));
+        checkScaling(report(reporter, "AppLogger write/read", levels));
+    }
+
+    // ==================== TEAM ID COUNTER ====================
+
+    @Test
+    void testTeamCreationScalingKeepsIdsUniqueAndDense(TestReporter reporter) throws Exception {
+        List<Level> levels = new ArrayList<>();
+        for (int threads : threadLevels()) {
+            Team.resetCounter();
+            String[][] ids = new String[threads][OPS];
+            levels.add(measure(threads, (t, i) -> {
+                Team team = new Team();
+                team.addMember(stressParticipant("P" + (i + 1)));
+                ids[t][i] = team.getId();
+            }));
+
+            // The counter hands out exactly T1 .. T<total>, no duplicates and no gaps
+            int total = threads * OPS;
+            BitSet seen = new BitSet(total + 1);
+            for (String[] perThread : ids) {
+                for (String id : perThread) {
+                    int n = Integer.parseInt(id.substring(1));
+                    assertFalse(seen.get(n), "Duplicate team ID " + id);
+                    seen.set(n);
+                }
+            }
+            assertEquals(total, seen.cardinality());
+            assertEquals(total, seen.length() - 1, "Team IDs must be dense");
+        }
+        Team.resetCounter();
+        checkScaling(report(reporter, "Team creation", levels));
+    }
+}
@@ -0,0 +1,60 @@
+package TeamMate.Test;
+
+import TeamMate.*;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ScoringKernelTest {
+
+    private static final String[] GAMES = {"Chess", "FIFA", "Basketball", "Valorant", "CS:GO", "DOTA 2"};
+
+    // Helper method to build a random participant
+    private Participant randomParticipant(Random rnd, int i) {
+        return new Participant("P" + i, "TestName", "test@a.com", GAMES[rnd.nextInt(GAMES.length)],
+                Role.values()[rnd.nextInt(Role.values().length)], rnd.nextInt(101),
+                PersonalityType.values()[rnd.nextInt(PersonalityType.values().length)]);
+    }
+
+    @Test
+    void testVectorKernelMatchesScalarKernel() {
+        ScoringKernel selected = ScoringKernel.select(true);
+        // Only meaningful when the SIMD kernel is available on this JVM/CPU
+        assumeTrue(selected.lanes() > 1, "Vector API not available, scalar kernel selected");
+
+        Random rnd = new Random(42);
+        List<Participant> pool = new ArrayList<>();
+        for (int i = 0; i < 1003; i++) pool.add(randomParticipant(rnd, i)); // odd size exercises the tail
+        CandidateColumns columns = CandidateColumns.of(pool);
+
+        for (int teamSize = 0; teamSize < 6; teamSize++) {
+            Team team = new Team();
+            for (int j = 0; j < teamSize; j++) team.addMember(randomParticipant(rnd, 5000 + j));
+            TeamAggregate agg = TeamAggregate.of(team);
+
+            float[] scalar = new float[columns.size];
+            float[] vector = new float[columns.size];
+            new ScalarScoringKernel().score(columns, 0, columns.size, agg, scalar);
+            selected.score(columns, 0, columns.size, agg, vector);
+
+            // Bit-identical scores guarantee identical rankings
+            assertArrayEquals(scalar, vector, "Scalar and SIMD kernels must produce identical scores.");
+        }
+    }
+
+    @Test
+    void testScalarKernelRewardsMissingLeader() {
+        Team team = new Team();
+        team.addMember(new Participant("P1", "TestName", "test@a.com", "Chess", Role.ATTACKER, 50, PersonalityType.THINKER));
+
+        List<Participant> pool = List.of(
+                new Participant("P2", "TestName", "test@a.com", "FIFA", Role.DEFENDER, 50, PersonalityType.LEADER),
+                new Participant("P3", "TestName", "test@a.com", "FIFA", Role.DEFENDER, 50, PersonalityType.BALANCED));
+        float[] scores = new float[2];
+        new ScalarScoringKernel().score(CandidateColumns.of(pool), 0, 2, TeamAggregate.of(team), scores);
+
+        // Only personality differs, so the gap is exactly the leader bonus
+        assertEquals(5.0f, scores[0] - scores[1], 0.0001f);
+    }
+}
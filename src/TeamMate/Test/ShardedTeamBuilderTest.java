@@ -0,0 +1,42 @@
+package TeamMate.Test;
+
+import TeamMate.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedTeamBuilderTest {
+
+    // Root mean square distance of team averages from the cohort mean
+    private static double imbalance(List<Participant> cohort, List<Team> teams) {
+        double mean = cohort.stream().mapToInt(Participant::getSkillLevel).average().orElse(0);
+        double sum = 0;
+        for (Team t : teams) sum += Math.pow(t.averageSkill() - mean, 2);
+        return Math.sqrt(sum / teams.size());
+    }
+
+    @Test
+    void testShardsKeepTheCohortSkillSpread() throws TeamMateException {
+        List<Participant> cohort = Cohorts.random(4_000, 4);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            TeamBuilder.TeamFormationResult single = new ShardedTeamBuilder(pool, 1)
+                    .buildTeams(cohort, 4, FormationMode.STRICT, 7L, FormationControl.NONE);
+            TeamBuilder.TeamFormationResult sharded = new ShardedTeamBuilder(pool, 4)
+                    .buildTeams(cohort, 4, FormationMode.STRICT, 7L, FormationControl.NONE);
+
+            Cohorts.assertValidPartition(cohort, sharded, TeamConstraints.strict().compile(4));
+            // Skill-band shards would give all-weak and all-strong teams; dealt shards balance like one pool
+            double shardedImbalance = imbalance(cohort, sharded.formedTeams);
+            double singleImbalance = imbalance(cohort, single.formedTeams);
+            assertTrue(shardedImbalance <= 1.15 * singleImbalance,
+                    "Sharded teams stray " + shardedImbalance + " from the mean, one pool " + singleImbalance);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package TeamMate.Test;
+
+import TeamMate.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SkillParityTeamBuilderTest {
+
+    @Test
+    void testTeamAveragesDifferByAtMostOneSkillPoint() throws TeamMateException {
+        List<Participant> cohort = Cohorts.mixed(200);
+        SkillParityTeamBuilder parity = new SkillParityTeamBuilder(null);
+        parity.setSeed(3L);
+        TeamBuilder.TeamFormationResult res = parity.buildTeams(cohort, 5, FormationMode.STRICT, FormationControl.NONE);
+
+        assertFalse(res.formedTeams.isEmpty());
+        Cohorts.assertValidPartition(cohort, res, TeamConstraints.strict().compile(5));
+        // One skill point on a team of five moves its average by 0.2
+        double spread = Cohorts.averageSpread(res.formedTeams);
+        assertTrue(spread <= 0.2, "Team averages should differ by at most one skill point: " + spread);
+    }
+
+    @Test
+    void testSpreadIsTighterThanTheSequentialBuilder() throws TeamMateException {
+        List<Participant> cohort = Cohorts.random(2_000, 21);
+        SkillParityTeamBuilder parity = new SkillParityTeamBuilder(null);
+        parity.setSeed(5L);
+        TeamBuilder sequential = new TeamBuilder(null);
+        sequential.setDryRun(true);
+        sequential.setSeed(5L);
+
+        TeamBuilder.TeamFormationResult balanced = parity.buildTeams(cohort, 4, FormationMode.STRICT, FormationControl.NONE);
+        Cohorts.assertValidPartition(cohort, balanced, TeamConstraints.strict().compile(4));
+        double paritySpread = Cohorts.averageSpread(balanced.formedTeams);
+        double sequentialSpread = Cohorts.averageSpread(sequential.buildTeamsAndValidate(cohort, 4).formedTeams);
+        assertTrue(paritySpread <= 0.25, "Spread of team averages: " + paritySpread);
+        assertTrue(paritySpread < sequentialSpread,
+                "Parity spread " + paritySpread + " should beat the sequential builder's " + sequentialSpread);
+    }
+
+    // Equal skills everywhere: every same-personality member is a swap partner, so repair can fix teams
+    // that break the game cap and the role minimum at once, one swap per violation
+    @Test
+    void testRepairFixesTeamsWithSeveralViolations() throws TeamMateException {
+        String[] games = {"Chess", "FIFA", "DOTA 2"};
+        PersonalityType[] composition = {PersonalityType.LEADER, PersonalityType.THINKER,
+                PersonalityType.THINKER, PersonalityType.BALANCED};
+        Random random = new Random(0);
+        List<Participant> cohort = new ArrayList<>();
+        for (int i = 0; i < 80; i++) {
+            cohort.add(new Participant("P" + i, "TestName", "test@a.com", games[random.nextInt(games.length)],
+                    Role.values()[random.nextInt(3)], 5, composition[i % composition.length]));
+        }
+        SkillParityTeamBuilder parity = new SkillParityTeamBuilder(null);
+        parity.setSeed(0L);
+        TeamBuilder.TeamFormationResult res = parity.buildTeams(cohort, 4, FormationMode.STRICT, FormationControl.NONE);
+
+        Cohorts.assertValidPartition(cohort, res, TeamConstraints.strict().compile(4));
+        assertEquals(20, res.formedTeams.size(), "Every skeleton team should be repaired, none released");
+    }
+}
@@ -1,7 +1,12 @@
 package TeamMate.Test;
 
 import TeamMate.*;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -51,4 +56,57 @@ public class TeamBuilderTest {
                 "Should not throw exception for team size >= 3 when business rules are met"
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTeamSizeSweep_DryRunDoesNotConsumeTeamIds() throws TeamMateException {
+        Role[] roles = Role.values();
+        String[] games = {"Chess", "FIFA", "DOTA 2", "Valorant"};
+        PersonalityType[] types = {PersonalityType.LEADER, PersonalityType.THINKER, PersonalityType.BALANCED};
+        List<Participant> cohort = new ArrayList<>();
+        for (int i = 0; i < 60; i++)
+            cohort.add(new Participant("P" + i, "TestName", "test@a.com", games[i % games.length],
+                    roles[i % roles.length], 1 + i % 10, types[i % types.length]));
+
+        String before = new Team().getId();
+        List<TeamSizeSweep.Row> rows = new TeamSizeSweep().sweep(cohort, 3, 6, FormationMode.STRICT, null);
+        String after = new Team().getId();
+
+        assertEquals(4, rows.size());
+        assertEquals(3, rows.get(0).teamSize);
+        assertTrue(rows.get(0).teamsFormed > 0, "Size 3 should form teams from a balanced cohort");
+        // Only the two probe teams advanced the counter
+        assertEquals(Integer.parseInt(before.substring(1)) + 1, Integer.parseInt(after.substring(1)));
+    }
+
+    @Test
+    void testFlightRecorderEventsAreEmittedOnlyWhenEnabled() throws Exception {
+        List<Participant> cohort = Cohorts.mixed(30);
+        TeamBuilder builder = new TeamBuilder();
+        builder.setDryRun(true);
+
+        Path file = Files.createTempFile("teammate", ".jfr");
+        try (Recording recording = new Recording()) {
+            // Default settings: the TeamMate events stay off
+            recording.start();
+            builder.buildTeamsAndValidate(cohort, 3);
+            recording.enable("teammate.Formation");
+            recording.enable("teammate.FormationPhase");
+            int formed = builder.buildTeamsAndValidate(cohort, 3).formedTeams.size();
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> runs = new ArrayList<>();
+            Set<String> phases = new HashSet<>();
+            for (RecordedEvent e : RecordingFile.readAllEvents(file)) {
+                if (e.getEventType().getName().equals("teammate.Formation")) runs.add(e);
+                if (e.getEventType().getName().equals("teammate.FormationPhase")) phases.add(e.getString("phase"));
+            }
+            assertEquals(1, runs.size(), "Only the run after enabling is recorded");
+            assertEquals(30, runs.get(0).getInt("poolSize"));
+            assertEquals(formed, runs.get(0).getInt("teamsFormed"));
+            assertTrue(phases.containsAll(Set.of("shuffle", "bucketing", "seeding", "validation")), phases.toString());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package TeamMate.Test;
+
+import TeamMate.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TeamConstraintsTest {
+
+    // Helper method to quickly create a test participant
+    private Participant createParticipant(String id, String game, Role role, PersonalityType type) {
+        return new Participant(id, "TestName", "test@a.com", game, role, 50, type);
+    }
+
+    @Test
+    void testCanAdd_RejectsSecondLeaderAndGameCap() {
+        CompiledConstraints rules = TeamConstraints.strict().compile(5);
+        TeamAggregate team = new TeamAggregate();
+        team.add(createParticipant("P1", "Chess", Role.ATTACKER, PersonalityType.LEADER));
+        team.add(createParticipant("P2", "Chess", Role.DEFENDER, PersonalityType.THINKER));
+
+        // Only one LEADER allowed
+        assertFalse(rules.canAdd(team, createParticipant("P3", "FIFA", Role.SUPPORTER, PersonalityType.LEADER)));
+        // A third Chess player would break MAX_SAME_GAME_PER_TEAM (case-insensitive)
+        assertFalse(rules.canAdd(team, createParticipant("P4", "CHESS", Role.SUPPORTER, PersonalityType.BALANCED)));
+        assertTrue(rules.canAdd(team, createParticipant("P5", "FIFA", Role.SUPPORTER, PersonalityType.BALANCED)));
+    }
+
+    @Test
+    void testCanAdd_ReservesSlotsForMissingRoles() {
+        CompiledConstraints rules = TeamConstraints.strict().compile(4);
+        TeamAggregate team = new TeamAggregate();
+        team.add(createParticipant("P1", "Chess", Role.ATTACKER, PersonalityType.LEADER));
+        team.add(createParticipant("P2", "FIFA", Role.ATTACKER, PersonalityType.THINKER));
+        team.add(createParticipant("P3", "DOTA 2", Role.DEFENDER, PersonalityType.BALANCED));
+
+        // Last slot must bring the third distinct role
+        assertFalse(rules.canAdd(team, createParticipant("P4", "Valorant", Role.ATTACKER, PersonalityType.BALANCED)));
+        assertTrue(rules.canAdd(team, createParticipant("P5", "Valorant", Role.SUPPORTER, PersonalityType.BALANCED)));
+    }
+
+    @Test
+    void testIsValid_ExactCompositionForSizeThree() {
+        CompiledConstraints rules = TeamConstraints.strict().compile(3);
+        TeamAggregate team = new TeamAggregate();
+        team.add(createParticipant("P1", "Chess", Role.ATTACKER, PersonalityType.LEADER));
+        team.add(createParticipant("P2", "FIFA", Role.DEFENDER, PersonalityType.THINKER));
+        assertFalse(rules.isValid(team), "Incomplete team must not be valid.");
+
+        team.add(createParticipant("P3", "DOTA 2", Role.SUPPORTER, PersonalityType.BALANCED));
+        assertTrue(rules.isValid(team));
+    }
+
+    @Test
+    void testIsValid_SizeThreeIgnoresRolesAndGamesLikeTheOriginalRule() {
+        CompiledConstraints rules = TeamConstraints.strict().compile(3);
+        TeamAggregate team = new TeamAggregate();
+        team.add(createParticipant("P1", "Chess", Role.ATTACKER, PersonalityType.LEADER));
+        team.add(createParticipant("P2", "Chess", Role.ATTACKER, PersonalityType.THINKER));
+        team.add(createParticipant("P3", "Chess", Role.ATTACKER, PersonalityType.BALANCED));
+        assertTrue(rules.isValid(team), "Only the L+T+B composition is checked at size 3");
+    }
+
+    @Test
+    void testSizeThreeShortfallKeepsTheOriginalMessages() {
+        List<Participant> noThinker = List.of(
+                createParticipant("P1", "Chess", Role.ATTACKER, PersonalityType.LEADER),
+                createParticipant("P2", "FIFA", Role.DEFENDER, PersonalityType.BALANCED),
+                createParticipant("P3", "DOTA 2", Role.SUPPORTER, PersonalityType.BALANCED));
+        TeamBuilder builder = new TeamBuilder(null);
+
+        TeamMateException strict = assertThrows(TeamMateException.class,
+                () -> builder.buildTeamsAndValidate(noThinker, 3));
+        assertEquals("Cannot form team of size 3: need 1 LEADER, 1 THINKER, 1 BALANCED.", strict.getMessage());
+        TeamMateException relaxed = assertThrows(TeamMateException.class,
+                () -> builder.buildTeamsFromUnformed(noThinker, 3));
+        assertEquals("Cannot form team of size 3 from unformed participants.", relaxed.getMessage());
+    }
+
+    @Test
+    void testFeasibility_ReportsBindingTypeAndFollowsRegistryChanges() {
+        ParticipantRegistry registry = new ParticipantRegistry();
+        String[] games = {"Chess", "FIFA", "DOTA 2", "Valorant"};
+        Role[] roles = Role.values();
+        for (int i = 0; i < 20; i++) {
+            PersonalityType type = i < 2 ? PersonalityType.LEADER : (i < 8 ? PersonalityType.THINKER : PersonalityType.BALANCED);
+            registry.add(createParticipant("P" + i, games[i % games.length], roles[i % roles.length], type));
+        }
+        CompiledConstraints rules = TeamConstraints.strict().compile(5);
+
+        // 20 participants could fill 4 teams, but there are only 2 LEADERs
+        FeasibilityOracle.Feasibility f = registry.feasibility(rules);
+        assertEquals(2, f.maxTeams);
+        assertEquals(PersonalityType.LEADER, f.bindingType);
+
+        registry.add(createParticipant("P20", "Chess", Role.ATTACKER, PersonalityType.LEADER));
+        assertEquals(3, registry.feasibility(rules).maxTeams);
+        registry.remove("P0");
+        registry.remove("P1");
+        assertEquals(1, registry.feasibility(rules).maxTeams);
+        registry.remove("P20");
+        assertEquals(0, registry.feasibility(rules).maxTeams);
+    }
+}
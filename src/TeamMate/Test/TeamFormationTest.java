@@ -0,0 +1,93 @@
+package TeamMate.Test;
+
+import TeamMate.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TeamFormationTest {
+
+    @Test
+    void testProgressCountsIncreaseWithEveryTeam() throws Exception {
+        List<Participant> cohort = Cohorts.mixed(200);
+        List<TeamFormation.Progress> events = new CopyOnWriteArrayList<>();
+        TeamBuilder.TeamFormationResult res = TeamFormation.formTeamsAsync(cohort, 5, FormationMode.STRICT,
+                FormationStrategy.SEQUENTIAL, null, events::add).get(30, TimeUnit.SECONDS);
+
+        assertFalse(res.formedTeams.isEmpty());
+        assertEquals(res.formedTeams.size(), events.size(), "One event per team");
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(i + 1, events.get(i).teamsFormed);
+            if (i > 0) assertTrue(events.get(i).poolRemaining < events.get(i - 1).poolRemaining);
+        }
+    }
+
+    @Test
+    void testCancelledControlStopsTheBuilderAtTheNextCheckpoint() {
+        AtomicReference<FormationControl> control = new AtomicReference<>();
+        control.set(new FormationControl((Duration) null, progress -> {
+            if (progress.teamsFormed == 3) control.get().cancel();
+        }));
+
+        TeamMateException e = assertThrows(TeamMateException.class,
+                () -> new TeamBuilder(null).buildTeamsAndValidate(Cohorts.mixed(200), 5, control.get()));
+        assertEquals("Team formation was cancelled.", e.getMessage());
+        assertEquals(3, control.get().lastProgress().teamsFormed, "No team after the cancellation");
+    }
+
+    @Test
+    void testCancellingTheFutureStopsTheRunningFormation() throws Exception {
+        CountDownLatch firstTeam = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Thread> worker = new AtomicReference<>();
+        AtomicBoolean resumed = new AtomicBoolean();
+        List<TeamFormation.Progress> events = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<TeamBuilder.TeamFormationResult> future = TeamFormation.formTeamsAsync(Cohorts.mixed(200),
+                5, FormationMode.STRICT, FormationStrategy.SEQUENTIAL, null, progress -> {
+                    events.add(progress);
+                    if (progress.teamsFormed > 1) return;
+                    worker.set(Thread.currentThread());
+                    firstTeam.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    resumed.set(true);
+                });
+
+        assertTrue(firstTeam.await(30, TimeUnit.SECONDS));
+        assertTrue(future.cancel(true));
+        release.countDown();
+        assertThrows(CancellationException.class, future::join);
+
+        // The worker goes back to the pool from the checkpoint that follows the first team
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!(resumed.get() && worker.get().getState() == Thread.State.WAITING) && System.nanoTime() < deadline)
+            Thread.sleep(5);
+        assertEquals(Thread.State.WAITING, worker.get().getState(), "Worker still running after cancellation");
+        assertEquals(1, events.size(), "No team formed after the cancellation");
+    }
+
+    @Test
+    void testShortDeadlineTimesTheFormationOut() throws Exception {
+        CompletableFuture<TeamBuilder.TeamFormationResult> future = TeamFormation.formTeamsAsync(Cohorts.mixed(200),
+                5, FormationMode.STRICT, FormationStrategy.SEQUENTIAL, Duration.ofMillis(50), progress -> {
+                    try {
+                        Thread.sleep(100); // every team takes longer than the whole deadline
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(30, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+    }
+}
@@ -0,0 +1,137 @@
+package TeamMate.Test;
+
+import TeamMate.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TeamMateDBTest {
+
+    // Helper method to quickly create a test participant
+    private Participant createParticipant(String id) {
+        return new Participant(id, "TestName", "test@a.com", "GameX", Role.ATTACKER, 50, PersonalityType.BALANCED);
+    }
+
+    @Test
+    void testSnapshotIsStableWhileWritersCommit() throws TeamMateDBException {
+        TeamMateDB db = new TeamMateDB();
+        db.saveParticipant(createParticipant("PDB1"));
+
+        try (TeamMateDB.Snapshot snap = db.snapshot()) {
+            // Batch committed after the snapshot was opened
+            TeamMateDB.Transaction tx = db.beginTransaction();
+            tx.saveParticipant(createParticipant("PDB2"));
+            tx.deleteParticipant("PDB1");
+            tx.commit();
+
+            // The snapshot still sees the old version...
+            assertNotNull(snap.findParticipant("PDB1"));
+            assertNull(snap.findParticipant("PDB2"));
+        }
+
+        // ...while new reads see the whole batch
+        assertNotNull(db.findParticipant("PDB2"));
+        assertThrows(TeamMateDBException.class, () -> db.findParticipant("PDB1"));
+    }
+
+    @Test
+    void testUncommittedTransactionIsInvisible() throws TeamMateDBException {
+        TeamMateDB db = new TeamMateDB();
+        TeamMateDB.Transaction tx = db.beginTransaction();
+        tx.saveParticipant(createParticipant("PDB3"));
+
+        assertThrows(TeamMateDBException.class, () -> db.findParticipant("PDB3"),
+                "Writes must not be visible before commit.");
+        tx.commit();
+        assertEquals("PDB3", db.findParticipant("PDB3").getId());
+    }
+
+    @Test
+    void testCheckpointWritesOnlyDeltaAndReloads() throws Exception {
+        Path dir = Files.createTempDirectory("teammate_db");
+        String file = dir.resolve("db.ser").toString();
+        Path delta = Path.of(file + ".delta");
+
+        TeamMateDB db = new TeamMateDB(file);
+        Participant edited = createParticipant("PDB4");
+        db.saveParticipant(edited);
+        db.saveParticipant(createParticipant("PDB5"));
+        db.saveToDisk();
+        long baseSize = Files.size(Path.of(file));
+
+        // In-place edit, re-saved along with an unchanged participant: only the edit is dirty
+        edited.setSkillLevel(9);
+        db.beginTransaction().saveParticipant(edited).saveParticipant(db.findParticipant("PDB5")).commit();
+        db.close();
+
+        assertTrue(Files.exists(delta), "Checkpoint should write a delta file.");
+        assertEquals(baseSize, Files.size(Path.of(file)), "Full file must not be rewritten for a small delta.");
+
+        TeamMateDB reloaded = new TeamMateDB(file);
+        assertEquals(9, reloaded.findParticipant("PDB4").getSkillLevel());
+        assertNotNull(reloaded.findParticipant("PDB5"));
+        cleanUp(dir);
+    }
+
+    @Test
+    void testStaleDeltaIsIgnoredAfterFullSave() throws Exception {
+        Path dir = Files.createTempDirectory("teammate_db");
+        String file = dir.resolve("db.ser").toString();
+        Path delta = Path.of(file + ".delta");
+
+        TeamMateDB db = new TeamMateDB(file);
+        Participant p = createParticipant("PDB6");
+        db.saveParticipant(p);
+        db.saveToDisk();
+        p.setSkillLevel(1);
+        db.saveParticipant(p);
+        db.checkpoint();
+        Path kept = dir.resolve("old.delta");
+        Files.copy(delta, kept);
+
+        // A full save supersedes the delta; simulate a crash that left the old delta behind
+        p.setSkillLevel(9);
+        db.saveParticipant(p);
+        db.saveToDisk();
+        assertFalse(Files.exists(delta));
+        Files.copy(kept, delta);
+
+        TeamMateDB reloaded = new TeamMateDB(file);
+        assertEquals(9, reloaded.findParticipant("PDB6").getSkillLevel());
+        cleanUp(dir);
+    }
+
+    private static void cleanUp(Path dir) throws IOException {
+        try (var files = Files.list(dir)) {
+            for (Path f : files.toList()) Files.deleteIfExists(f);
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    @Test
+    void testImportDeletesRowsRemovedFromTheSourceAcrossRestarts(@TempDir Path dir) throws Exception {
+        String file = dir.resolve("db.ser").toString();
+        TeamMateDB db = new TeamMateDB(file);
+        assertEquals(3, db.importParticipants(List.of(createParticipant("PDB5"), createParticipant("PDB6"),
+                createParticipant("PDB7"))));
+        db.close();
+
+        // PDB7 was deleted from the CSV while the app was down, PDB6 was edited
+        Participant edited = createParticipant("PDB6");
+        edited.setSkillLevel(9);
+        db = new TeamMateDB(file);
+        assertEquals(2, db.importParticipants(List.of(createParticipant("PDB5"), edited)));
+        assertEquals(0, db.importParticipants(List.of(createParticipant("PDB5"), edited)), "Nothing left to apply");
+        db.close();
+
+        TeamMateDB restarted = new TeamMateDB(file);
+        assertEquals(2, restarted.findAllParticipants().size());
+        assertThrows(TeamMateDBException.class, () -> restarted.findParticipant("PDB7"));
+        assertEquals(9, restarted.findParticipant("PDB6").getSkillLevel());
+    }
+}
@@ -0,0 +1,246 @@
+package TeamMate.Test;
+
+import TeamMate.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.io.BufferedInputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TeamMateServerTest {
+
+    private static final int PARTICIPANTS = 500;
+
+    private final ParticipantRegistry participants = new ParticipantRegistry();
+    private final ParticipantRegistry unformed = new ParticipantRegistry();
+    private final List<Team> teams = new CopyOnWriteArrayList<>();
+    private Path dbFile;
+    private TeamMateServer server;
+    private HttpClient client;
+    private String base;
+
+    // Helper method to quickly create a test participant
+    private Participant createParticipant(int n) {
+        return new Participant("P" + n, "TestName", "test@a.com", "Chess", Role.values()[n % Role.values().length],
+                1 + n % 10, PersonalityType.BALANCED);
+    }
+
+    @BeforeEach
+    void startServer() throws Exception {
+        for (int n = 0; n < PARTICIPANTS; n++) participants.add(createParticipant(n));
+        // Every participant but the last five is placed in a team of five
+        for (int n = 0; n + 5 < PARTICIPANTS; n += 5) {
+            Team t = new Team("T" + (1000 + n / 5));
+            for (int k = n; k < n + 5; k++) t.addMember(participants.find("P" + k));
+            teams.add(t);
+        }
+        for (int n = PARTICIPANTS - 5; n < PARTICIPANTS; n++) unformed.add(participants.find("P" + n));
+
+        dbFile = Files.createTempFile("teammate_http", ".ser");
+        Files.delete(dbFile);
+        server = new TeamMateServer(participants, unformed, teams, new TeamMateDB(dbFile.toString()), null, "secret");
+        server.start("127.0.0.1", 0);
+        base = "http://127.0.0.1:" + server.port();
+        client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+    }
+
+    @AfterEach
+    void stopServer() throws Exception {
+        server.stop();
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + ".delta"));
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(base + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String body, String token) throws Exception {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(base + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) b.header("X-Organizer-Token", token);
+        return client.send(b.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void testLookupAndSurveySubmission() throws Exception {
+        HttpResponse<String> team = get("/api/teams/p7");
+        assertEquals(200, team.statusCode());
+        assertTrue(team.body().contains("\"team\":\"T1001\""), team.body());
+        assertEquals(404, get("/api/teams/P" + (PARTICIPANTS - 1)).statusCode(), "Unplaced participants have no team");
+        assertEquals(404, get("/api/teams/P99999").statusCode());
+
+        String survey = "{\"id\":\"P9000\",\"game\":\"Chess\",\"role\":\"ATTACKER\",\"skill\":7,\"answers\":[5,5,5,4,5]}";
+        HttpResponse<String> created = post("/api/surveys", survey, null);
+        assertEquals(201, created.statusCode(), created.body());
+        assertTrue(created.body().contains("\"personality\":\"LEADER\""), created.body());
+        assertNotNull(participants.find("P9000"));
+        assertEquals(409, post("/api/surveys", survey, null).statusCode());
+        assertEquals(400, post("/api/surveys", survey.replace("Chess", "Tetris").replace("P9000", "P9001"), null).statusCode());
+
+        // Organizer endpoints need the token
+        assertEquals(403, post("/api/formations?size=3&mode=relaxed", "", null).statusCode());
+    }
+
+    // Same cohort, now with a waitlist and the formation lock the console would share
+    private void restartServer(WaitlistEngine waitlist, ReentrantLock formationLock) throws Exception {
+        server.stop();
+        server = new TeamMateServer(participants, unformed, teams, new TeamMateDB(dbFile.toString()), null, "secret");
+        server.setWaitlist(waitlist);
+        server.setFormationLock(formationLock);
+        server.start("127.0.0.1", 0);
+        base = "http://127.0.0.1:" + server.port();
+    }
+
+    @Test
+    void testSurveyWaitsForARunningFormation() throws Exception {
+        ReentrantLock formationLock = new ReentrantLock();
+        restartServer(null, formationLock);
+        String survey = "{\"id\":\"P9000\",\"game\":\"Chess\",\"role\":\"ATTACKER\",\"skill\":7,\"answers\":[5,5,5,4,5]}";
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<HttpResponse<String>> response;
+            // A console formation holds the lock between its snapshot and replacing the unformed list
+            formationLock.lock();
+            try {
+                response = clients.submit(() -> post("/api/surveys", survey, null));
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (!formationLock.hasQueuedThreads() && System.nanoTime() < deadline) Thread.sleep(5);
+                assertTrue(formationLock.hasQueuedThreads(), "The survey must wait for the formation lock");
+                assertFalse(unformed.contains("P9000"), "Not registered while the formation runs");
+            } finally {
+                formationLock.unlock();
+            }
+            assertEquals(201, response.get(10, TimeUnit.SECONDS).statusCode());
+        }
+        assertTrue(unformed.contains("P9000"));
+    }
+
+    @Test
+    void testSurveysDuringFormationsAreNeitherLostNorPlacedTwice() throws Exception {
+        ReentrantLock formationLock = new ReentrantLock();
+        // Waitlist teams of four, formations of three, both drawing on the same arrivals; the listener does
+        // what MainApp.persistWaitlistTeam does, under the same lock
+        WaitlistEngine waitlist = new WaitlistEngine(4, TeamConstraints.relaxed(), team -> {
+            formationLock.lock();
+            try {
+                for (String id : team.getMemberIds()) unformed.remove(id);
+                teams.add(team);
+            } finally {
+                formationLock.unlock();
+            }
+        });
+        waitlist.reset(unformed);
+        restartServer(waitlist, formationLock);
+
+        int surveys = 300;
+        String[] answers = {"[5,5,5,5,5]", "[3,3,3,3,3]", "[4,4,4,4,4]"}; // LEADER, THINKER, BALANCED
+        String[] games = {"Chess", "FIFA", "Valorant", "CS:GO"};
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> requests = new ArrayList<>();
+            CountDownLatch submitted = new CountDownLatch(surveys);
+            requests.add(clients.submit(() -> {
+                while (submitted.getCount() > 0) post("/api/formations?size=3&mode=relaxed", "", "secret");
+                return null;
+            }));
+            for (int i = 0; i < surveys; i++) {
+                String survey = "{\"id\":\"P" + (10_000 + i) + "\",\"game\":\"" + games[i % games.length]
+                        + "\",\"role\":\"ATTACKER\",\"skill\":5,\"answers\":" + answers[i % answers.length] + "}";
+                requests.add(clients.submit(() -> {
+                    assertEquals(201, post("/api/surveys", survey, null).statusCode());
+                    submitted.countDown();
+                    return null;
+                }));
+            }
+            for (Future<?> f : requests) f.get();
+        }
+
+        Set<String> placed = new HashSet<>();
+        for (Team t : teams) {
+            for (String id : t.getMemberIds()) assertTrue(placed.add(id), "Placed in two teams: " + id);
+        }
+        for (int i = 0; i < surveys; i++) {
+            String id = "P" + (10_000 + i);
+            assertTrue(placed.contains(id) != unformed.contains(id), id + " must be either placed or unformed");
+        }
+    }
+
+    /**
+     * Load-test client: each virtual thread keeps one HTTP/1.1 connection open and issues lookups
+     * back to back, checking that every response names the requested participant.
+     */
+    @Test
+    void testLoadManyConcurrentLookups(TestReporter reporter) throws Exception {
+        int connections = 50;
+        int perConnection = 200;
+        AtomicInteger ok = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < connections; c++) {
+                Random random = new Random(c);
+                clients.submit(() -> {
+                    try (Socket socket = new Socket("127.0.0.1", server.port())) {
+                        socket.setTcpNoDelay(true);
+                        OutputStream out = socket.getOutputStream();
+                        BufferedInputStream in = new BufferedInputStream(socket.getInputStream());
+                        for (int i = 0; i < perConnection; i++) {
+                            String id = "P" + random.nextInt(PARTICIPANTS - 5);
+                            out.write(("GET /api/teams/" + id + " HTTP/1.1\r\nHost: localhost\r\n\r\n")
+                                    .getBytes(StandardCharsets.US_ASCII));
+                            out.flush();
+                            String body = readResponse(in);
+                            if (body != null && body.contains("\"" + id + "\"")) ok.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int requests = connections * perConnection;
+
+        reporter.publishEntry("HTTP load test", String.format("%d lookups in %.2f s (%.0f/s, %d connections)",
+                requests, seconds, requests / seconds, connections));
+        assertEquals(requests, ok.get(), "Every lookup must find the participant's team");
+    }
+
+    // Body of one 200 response (null for any other status)
+    private static String readResponse(BufferedInputStream in) throws java.io.IOException {
+        boolean success = false;
+        int length = 0;
+        StringBuilder line = new StringBuilder();
+        while (true) {
+            line.setLength(0);
+            int c;
+            while ((c = in.read()) != '\n') {
+                if (c < 0) throw new java.io.EOFException();
+                if (c != '\r') line.append((char) c);
+            }
+            if (line.length() == 0) break;
+            String header = line.toString();
+            if (header.startsWith("HTTP/1.1 ")) success = header.startsWith("HTTP/1.1 200");
+            if (header.toLowerCase(Locale.ROOT).startsWith("content-length:"))
+                length = Integer.parseInt(header.substring("content-length:".length()).trim());
+        }
+        String body = new String(in.readNBytes(length), StandardCharsets.UTF_8);
+        return success ? body : null;
+    }
+}
@@ -2,6 +2,9 @@ package TeamMate.Test;
 
 import TeamMate.*;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
 import java.util.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -58,4 +61,54 @@ public class TeamTest {
         assertEquals("T1", t1.getId());
         assertEquals("T2", t2.getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testMembersResolveThroughCanonicalStoreAndPersistAsIds() throws Exception {
+        ParticipantRegistry registry = new ParticipantRegistry();
+        Participant p1 = createParticipant("P1", Role.ATTACKER, 40);
+        registry.add(p1);
+        Team team = new Team("T77", registry::find);
+        team.addMember(p1);
+        team.addMember(createParticipant("P2", Role.DEFENDER, 60));
+
+        java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(bytes)) {
+            out.writeObject(team);
+        }
+        Team restored;
+        try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(new java.io.ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = (Team) in.readObject();
+        }
+
+        assertTrue(restored.getMembers().isEmpty(), "A loaded team resolves nothing until it is bound");
+        restored.setStore(registry::find);
+        assertEquals(List.of("P1", "P2"), restored.getMemberIds());
+        // Only P1 is in the store; the restored team resolves it to the one canonical object
+        assertSame(p1, restored.getMembers().get(0));
+        assertEquals(1, restored.getMembers().size());
+
+        // An edit through the store is visible to every team at once
+        p1.setSkillLevel(80);
+        assertEquals(70.0, team.averageSkill(), 0.001);
+        assertEquals(80.0, restored.averageSkill(), 0.001);
+    }
+
+    @Test
+    void testWithoutMemberLeavesTheSavedTeamUnchanged(@TempDir Path dir) throws Exception {
+        TeamMateDB db = new TeamMateDB(dir.resolve(TeamMateDB.DB_FILE_NAME).toString());
+        Team team = new Team("T5");
+        team.addMember(createParticipant("P1", Role.ATTACKER, 40));
+        team.addMember(createParticipant("P2", Role.DEFENDER, 60));
+        db.saveTeam(team);
+
+        try (TeamMateDB.Snapshot before = db.snapshot()) {
+            Team edited = team.withoutMember("p1");
+            db.saveTeam(edited);
+            assertEquals(List.of("P2"), edited.getMemberIds());
+            assertEquals("T5", edited.getId());
+            // The instance the snapshot handed out was not touched
+            assertEquals(List.of("P1", "P2"), before.findTeam("T5").getMemberIds());
+            assertEquals(List.of("P2"), db.findTeam("T5").getMemberIds());
+        }
+    }
+}
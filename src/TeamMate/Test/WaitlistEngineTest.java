@@ -0,0 +1,56 @@
+package TeamMate.Test;
+
+import TeamMate.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WaitlistEngineTest {
+
+    private static Participant participant(String id, String game, Role role, PersonalityType type) {
+        return new Participant(id, "TestName", "test@a.com", game, role, 50, type);
+    }
+
+    @Test
+    void testWaitlistFormsTeamAsSoonAsCompositionIsAvailable() throws TeamMateException {
+        List<Team> formed = new ArrayList<>();
+        WaitlistEngine waitlist = new WaitlistEngine(3, TeamConstraints.strict(), formed::add);
+
+        assertNull(waitlist.offer(participant("P1", "Chess", Role.ATTACKER, PersonalityType.LEADER)));
+        assertNull(waitlist.offer(participant("P2", "FIFA", Role.DEFENDER, PersonalityType.LEADER)));
+        // No THINKER yet: nothing can form
+        assertNull(waitlist.offer(participant("P3", "Chess", Role.SUPPORTER, PersonalityType.BALANCED)));
+        assertEquals(3, waitlist.waiting());
+
+        Team team = waitlist.offer(participant("P4", "DOTA 2", Role.DEFENDER, PersonalityType.THINKER));
+        assertNotNull(team, "The THINKER completes LEADER + THINKER + BALANCED");
+        assertEquals(List.of(team), formed);
+        assertTrue(TeamConstraints.strict().compile(3).isValid(TeamAggregate.of(team)));
+        // P1 brings a role the team lacks (P2 would duplicate DEFENDER)
+        assertTrue(team.getMembers().stream().anyMatch(m -> m.getId().equals("P1")));
+        assertEquals(1, waitlist.waiting());
+    }
+
+    @Test
+    void testBacktracksWhenTheBestHeadLeadsNowhere() throws TeamMateException {
+        WaitlistEngine waitlist = new WaitlistEngine(4, TeamConstraints.strict(), t -> {});
+        assertNull(waitlist.offer(participant("P0", "DOTA 2", Role.DEFENDER, PersonalityType.BALANCED)));
+        assertNull(waitlist.offer(participant("P1", "DOTA 2", Role.STRATEGIST, PersonalityType.BALANCED)));
+        assertNull(waitlist.offer(participant("P2", "DOTA 2", Role.DEFENDER, PersonalityType.LEADER)));
+        assertNull(waitlist.offer(participant("P3", "DOTA 2", Role.ATTACKER, PersonalityType.THINKER)));
+        assertNull(waitlist.offer(participant("P4", "FIFA", Role.DEFENDER, PersonalityType.LEADER)));
+
+        // Greedy takes the older LEADER P2, then P3 fills DOTA 2 and no fourth member fits;
+        // the search has to go back and take P4 instead
+        Team team = waitlist.offer(participant("P5", "FIFA", Role.STRATEGIST, PersonalityType.BALANCED));
+        assertNotNull(team);
+        assertTrue(TeamConstraints.strict().compile(4).isValid(TeamAggregate.of(team)));
+        List<String> ids = new ArrayList<>(team.getMemberIds());
+        assertTrue(ids.containsAll(List.of("P5", "P4", "P3")), "Members: " + ids);
+        assertFalse(ids.contains("P2"));
+        assertEquals(2, waitlist.waiting());
+    }
+}
@@ -0,0 +1,78 @@
+package TeamMate;
+
+import jdk.incubator.vector.*;
+
+/**
+ * SIMD kernel on jdk.incubator.vector: scores FloatVector.SPECIES_PREFERRED.length() candidates per step.
+ * Byte/short attribute columns are widened into float lanes and compared against the team's roles and
+ * games to build masks; the tail of the range falls back to the scalar kernel.
+ * Requires --add-modules jdk.incubator.vector to compile and run, and -Dteammate.scoring.vector=true to be
+ * used; never referenced directly, see {@link ScoringKernel#select()}. Builds without the module leave this
+ * file out.
+ */
+public class VectorScoringKernel implements ScoringKernel {
+
+    private static final VectorSpecies<Float> FS = FloatVector.SPECIES_PREFERRED;
+    // Same lane count as FS, so byte/short columns widen one-to-one into float lanes
+    private static final VectorSpecies<Byte> BS = VectorSpecies.of(byte.class, VectorShape.forBitSize(FS.length() * Byte.SIZE));
+    private static final VectorSpecies<Short> SS = VectorSpecies.of(short.class, VectorShape.forBitSize(FS.length() * Short.SIZE));
+
+    private final ScalarScoringKernel tail = new ScalarScoringKernel();
+
+    @Override
+    public void score(CandidateColumns c, int from, int to, TeamAggregate team, float[] out) {
+        FloatVector zero = FloatVector.zero(FS);
+        FloatVector one = FloatVector.broadcast(FS, 1.0f);
+        FloatVector two = FloatVector.broadcast(FS, 2.0f);
+        float skillSum = team.skillSum;
+        float divisor = team.size + 1;
+        float thinkerBonus = team.count(PersonalityType.THINKER) < 2 ? 1.0f : 0f;
+        float leaderBonus = team.count(PersonalityType.LEADER) == 0 ? 5.0f : 0f;
+
+        int i = from;
+        int upper = from + FS.loopBound(to - from);
+        for (; i < upper; i += FS.length()) {
+            FloatVector role = (FloatVector) ByteVector.fromArray(BS, c.roles, i)
+                    .convertShape(VectorOperators.B2F, FS, 0);
+            FloatVector game = (FloatVector) ShortVector.fromArray(SS, c.games, i)
+                    .convertShape(VectorOperators.S2F, FS, 0);
+            FloatVector skill = (FloatVector) ShortVector.fromArray(SS, c.skills, i)
+                    .convertShape(VectorOperators.S2F, FS, 0);
+            FloatVector personality = (FloatVector) ByteVector.fromArray(BS, c.personalities, i)
+                    .convertShape(VectorOperators.B2F, FS, 0);
+
+            FloatVector s = zero;
+
+            // role not yet covered
+            VectorMask<Float> rolePresent = FS.maskAll(false);
+            for (int r = 0; r < Role.values().length; r++) {
+                if (team.hasRole(r)) rolePresent = rolePresent.or(role.eq((float) r));
+            }
+            s = s.add(two.blend(zero, rolePresent));
+
+            // same-game penalty
+            FloatVector gameBonus = one;
+            for (int g = 0; g < team.distinctGames; g++) {
+                float bonus = team.gameCount(team.gameIds[g]) == 1 ? 0.2f : 0f;
+                gameBonus = gameBonus.blend(bonus, game.eq((float) team.gameIds[g]));
+            }
+            s = s.add(gameBonus);
+
+            // projected skill balance
+            FloatVector deviation = skill.add(skillSum).div(divisor)
+                    .sub(c.skillTarget).abs().div(c.skillTarget);
+            s = s.add(one.sub(deviation).mul(two));
+
+            // personality bonuses
+            s = s.add(zero.blend(thinkerBonus, personality.eq((float) PersonalityType.THINKER.ordinal())));
+            s = s.add(zero.blend(leaderBonus, personality.eq((float) PersonalityType.LEADER.ordinal())));
+
+            s.intoArray(out, i);
+        }
+
+        tail.score(c, i, to, team, out);
+    }
+
+    @Override
+    public int lanes() { return FS.length(); }
+}
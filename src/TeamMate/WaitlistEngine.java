@@ -0,0 +1,158 @@
+package TeamMate;
+
+import java.util.*;
+
+/**
+ * Rolling registration: forms a team the moment the waitlist can supply one, instead of waiting for an
+ * organizer to rebuild from the whole unformed list.
+ *
+ * Waiting participants are queued by (personality, role, game). Everyone in one queue is
+ * interchangeable as far as {@link CompiledConstraints} is concerned, so only queue heads are ever
+ * examined. A new arrival is the only thing that can make a new team possible, so each arrival tries
+ * to build one team around itself from the heads (required personalities first, then missing roles,
+ * then unused games, oldest arrival on ties). When a choice leads nowhere the search backs up and
+ * tries the next head, up to -Dteammate.waitlist.search heads per arrival. The cost depends on the
+ * team size and the number of queues, never on how many people are waiting.
+ */
+public class WaitlistEngine {
+
+    /** Receives every team the waitlist forms (called on the submitting thread). */
+    public interface Listener {
+        void teamFormed(Team team);
+    }
+
+    private static final int TYPES = PersonalityType.values().length;
+    private static final int ROLES = Role.values().length;
+    private static final int SEARCH_BUDGET = Integer.getInteger("teammate.waitlist.search", 1_000);
+
+    private final CompiledConstraints rules;
+    private final Listener listener;
+    private final TeamIdAllocator teamIds;
+
+    // (personality, role, game) -> waiting participants, oldest first
+    private final Map<Integer, ArrayDeque<Waiting>> queues = new HashMap<>();
+    private long arrivals;
+    private int waiting;
+    private int budget;                       // heads the current search may still try
+
+    private record Waiting(long seq, Participant participant) {}
+
+    public WaitlistEngine(int teamSize, TeamConstraints ruleSet, Listener listener) throws TeamMateException {
+        this(teamSize, ruleSet, listener, Team.defaultIds());
+    }
+
+    // Waitlist of one event: its teams take that event's IDs
+    public WaitlistEngine(int teamSize, TeamConstraints ruleSet, Listener listener, TeamIdAllocator teamIds)
+            throws TeamMateException {
+        if (teamSize < TeamBuilder.MINIMUM_ACCEPTABLE_SIZE)
+            throw new TeamMateException("Team size must be at least " + TeamBuilder.MINIMUM_ACCEPTABLE_SIZE);
+        this.rules = ruleSet.compile(teamSize);
+        this.listener = listener;
+        this.teamIds = teamIds;
+    }
+
+    public int teamSize() { return rules.teamSize(); }
+
+    public synchronized int waiting() { return waiting; }
+
+    /**
+     * Adds a new arrival. If a valid team can now be formed around it, the team is built, its members
+     * leave the waitlist and the listener is notified; otherwise the participant waits.
+     */
+    public Team offer(Participant p) {
+        long start = System.nanoTime();
+        Team team;
+        synchronized (this) {
+            List<Participant> members = assemble(p);
+            if (members == null) {
+                enqueue(p);
+                return null;
+            }
+            team = teamIds.newTeam();
+            for (Participant m : members) team.addMember(m);
+        }
+        AppLogger.info(String.format("Waitlist formed team %s size=%d in %.2f ms (%d still waiting)",
+                team.getId(), team.size(), (System.nanoTime() - start) / 1e6, waiting()));
+        listener.teamFormed(team);
+        return team;
+    }
+
+    /** Takes a participant off the waitlist (removed, edited or placed elsewhere). */
+    public synchronized boolean remove(String id) {
+        for (ArrayDeque<Waiting> q : queues.values()) {
+            if (q.removeIf(w -> w.participant().getId().equalsIgnoreCase(id))) {
+                waiting--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Replaces the waitlist (e.g. after an organizer ran a manual formation). Forms nothing. */
+    public synchronized void reset(Iterable<Participant> unformed) {
+        queues.clear();
+        waiting = 0;
+        for (Participant p : unformed) enqueue(p);
+    }
+
+    // ==================== INTERNALS ====================
+
+    private void enqueue(Participant p) {
+        queues.computeIfAbsent(queueKey(p), k -> new ArrayDeque<>()).addLast(new Waiting(arrivals++, p));
+        waiting++;
+    }
+
+    // Team around the arrival, or null (taken heads are put back)
+    private List<Participant> assemble(Participant arrival) {
+        if (waiting + 1 < rules.teamSize()) return null;
+
+        List<Participant> members = new ArrayList<>(rules.teamSize());
+        members.add(arrival);
+        Deque<Map.Entry<ArrayDeque<Waiting>, Waiting>> taken = new ArrayDeque<>();
+        budget = SEARCH_BUDGET;
+        if (!extend(members, taken)) return null; // every taken head is back in its queue
+        waiting -= taken.size();
+        queues.values().removeIf(ArrayDeque::isEmpty);
+        return members;
+    }
+
+    // Depth-first over the queue heads, best score first; true once members form a valid team
+    private boolean extend(List<Participant> members, Deque<Map.Entry<ArrayDeque<Waiting>, Waiting>> taken) {
+        TeamAggregate agg = new TeamAggregate();
+        for (Participant m : members) agg.add(m);
+        if (agg.size() == rules.teamSize()) return rules.isValid(agg);
+
+        List<ArrayDeque<Waiting>> candidates = new ArrayList<>();
+        for (ArrayDeque<Waiting> q : queues.values()) {
+            Waiting head = q.peekFirst();
+            if (head != null && rules.canAdd(agg, head.participant())) candidates.add(q);
+        }
+        candidates.sort(Comparator.comparingInt((ArrayDeque<Waiting> q) -> -score(agg, q.peekFirst().participant()))
+                .thenComparingLong(q -> q.peekFirst().seq()));
+
+        for (ArrayDeque<Waiting> q : candidates) {
+            if (budget-- <= 0) return false;
+            Waiting head = q.pollFirst();
+            taken.push(Map.entry(q, head));
+            members.add(head.participant());
+            if (extend(members, taken)) return true;
+            // Dead end: undo this choice and try the next head
+            members.remove(members.size() - 1);
+            q.addFirst(taken.pop().getValue());
+        }
+        return false;
+    }
+
+    // Scarce slots first: unmet personality minimums, then roles the team lacks, then new games
+    private int score(TeamAggregate agg, Participant p) {
+        int s = 0;
+        if (agg.count(p.getPersonalityType()) < rules.min(p.getPersonalityType())) s += 4;
+        if (!agg.hasRole(p.getPreferredRole().ordinal())) s += 2;
+        if (agg.gameCount(p.getGameId()) == 0) s += 1;
+        return s;
+    }
+
+    private static int queueKey(Participant p) {
+        return (p.getGameId() * ROLES + p.getPreferredRole().ordinal()) * TYPES + p.getPersonalityType().ordinal();
+    }
+}